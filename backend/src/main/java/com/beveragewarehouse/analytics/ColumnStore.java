@@ -0,0 +1,193 @@
+package com.beveragewarehouse.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * 批次欄位儲存（struct-of-arrays，off-heap）
+ *
+ * 每個欄位是一個 direct ByteBuffer，同一列在各欄位的位置相同；
+ * 資料列保持連續（0 到 size - 1），移除時以最後一列補位，掃描不需要跳過空洞
+ * 容量不足時所有欄位一起加倍並複製；clear() 只重設列數並沿用既有緩衝區，
+ * 連續 SHRINK_AFTER_CLEARS 個週期（兩次 clear 之間）的最高列數都低於容量的 1/4 才縮小
+ *
+ * 非執行緒安全，由呼叫端同步；掃描端只讀取時可由多個執行緒同時讀取不同的列
+ */
+final class ColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    /** 連續幾個週期用量偏低才縮小容量（對帳重建只是短暫清空，不應每次都重新配置） */
+    private static final int SHRINK_AFTER_CLEARS = 3;
+
+    private LongBuffer lotIds;
+    private IntBuffer productIds;
+    private IntBuffer warehouses;
+    private IntBuffer quantities;
+    private IntBuffer expiryDays;
+    private IntBuffer productionDays;
+    private ByteBuffer statuses;
+    private LongBuffer updatedAt;
+    private int capacity;
+    private int size;
+    /** 本週期（上次 clear 之後）的最高列數 */
+    private int peak;
+    /** 連續用量偏低的週期數與其中最高的列數 */
+    private int underusedClears;
+    private int underusedPeak;
+
+    ColumnStore() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 新增一列，回傳列號
+     */
+    int append(long lotId, int productId, int warehouse, int quantity, int expiryDay, int productionDay,
+               byte status, long updated) {
+        if (size == capacity) {
+            grow();
+        }
+        int row = size++;
+        if (size > peak) {
+            peak = size;
+        }
+        lotIds.put(row, lotId);
+        set(row, productId, warehouse, quantity, expiryDay, productionDay, status, updated);
+        return row;
+    }
+
+    void set(int row, int productId, int warehouse, int quantity, int expiryDay, int productionDay,
+             byte status, long updated) {
+        productIds.put(row, productId);
+        warehouses.put(row, warehouse);
+        quantities.put(row, quantity);
+        expiryDays.put(row, expiryDay);
+        productionDays.put(row, productionDay);
+        statuses.put(row, status);
+        updatedAt.put(row, updated);
+    }
+
+    /**
+     * 移除一列：最後一列搬到該位置，回傳被搬移的批次 ID（移除的是最後一列時回傳 -1）
+     */
+    long remove(int row) {
+        int last = --size;
+        if (row == last) {
+            return -1;
+        }
+        long moved = lotIds.get(last);
+        lotIds.put(row, moved);
+        set(row, productIds.get(last), warehouses.get(last), quantities.get(last), expiryDays.get(last),
+                productionDays.get(last), statuses.get(last), updatedAt.get(last));
+        return moved;
+    }
+
+    /**
+     * 清空所有列，沿用既有緩衝區；用量持續偏低時縮小到能容納最近最高列數兩倍的容量
+     */
+    void clear() {
+        size = 0;
+        if (capacity > INITIAL_CAPACITY && peak < capacity / 4) {
+            underusedClears++;
+            underusedPeak = Math.max(underusedPeak, peak);
+        } else {
+            underusedClears = 0;
+            underusedPeak = 0;
+        }
+        peak = 0;
+        if (underusedClears >= SHRINK_AFTER_CLEARS) {
+            int newCapacity = INITIAL_CAPACITY;
+            while (newCapacity < underusedPeak * 2) {
+                newCapacity *= 2;
+            }
+            allocate(newCapacity);
+            underusedClears = 0;
+            underusedPeak = 0;
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long lotId(int row) {
+        return lotIds.get(row);
+    }
+
+    int productId(int row) {
+        return productIds.get(row);
+    }
+
+    int warehouse(int row) {
+        return warehouses.get(row);
+    }
+
+    int quantity(int row) {
+        return quantities.get(row);
+    }
+
+    int expiryDay(int row) {
+        return expiryDays.get(row);
+    }
+
+    int productionDay(int row) {
+        return productionDays.get(row);
+    }
+
+    byte status(int row) {
+        return statuses.get(row);
+    }
+
+    long updatedAt(int row) {
+        return updatedAt.get(row);
+    }
+
+    /**
+     * 佔用的 off-heap 位元組數
+     */
+    long sizeInBytes() {
+        return (long) capacity * (8 + 4 + 4 + 4 + 4 + 4 + 1 + 8);
+    }
+
+    private void grow() {
+        LongBuffer oldLotIds = lotIds;
+        IntBuffer oldProductIds = productIds;
+        IntBuffer oldWarehouses = warehouses;
+        IntBuffer oldQuantities = quantities;
+        IntBuffer oldExpiryDays = expiryDays;
+        IntBuffer oldProductionDays = productionDays;
+        ByteBuffer oldStatuses = statuses;
+        LongBuffer oldUpdatedAt = updatedAt;
+        allocate(Math.multiplyExact(capacity, 2));
+        lotIds.put(0, oldLotIds, 0, size);
+        productIds.put(0, oldProductIds, 0, size);
+        warehouses.put(0, oldWarehouses, 0, size);
+        quantities.put(0, oldQuantities, 0, size);
+        expiryDays.put(0, oldExpiryDays, 0, size);
+        productionDays.put(0, oldProductionDays, 0, size);
+        statuses.put(0, oldStatuses, 0, size);
+        updatedAt.put(0, oldUpdatedAt, 0, size);
+    }
+
+    private void allocate(int newCapacity) {
+        lotIds = direct(newCapacity * 8L).asLongBuffer();
+        productIds = direct(newCapacity * 4L).asIntBuffer();
+        warehouses = direct(newCapacity * 4L).asIntBuffer();
+        quantities = direct(newCapacity * 4L).asIntBuffer();
+        expiryDays = direct(newCapacity * 4L).asIntBuffer();
+        productionDays = direct(newCapacity * 4L).asIntBuffer();
+        statuses = direct(newCapacity);
+        updatedAt = direct(newCapacity * 8L).asLongBuffer();
+        capacity = newCapacity;
+    }
+
+    private static ByteBuffer direct(long bytes) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,321 @@
+package com.beveragewarehouse.analytics;
+
+import com.beveragewarehouse.dto.InventoryAnalyticsDTO;
+import com.beveragewarehouse.dto.InventoryAnalyticsDTO.ProductWasteDTO;
+import com.beveragewarehouse.event.RebuildableLotIndex;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 庫存分析（欄位式 off-heap 快照）
+ *
+ * 批次以 {@link ColumnStore} 的欄位保存（商品 ID、倉庫代碼、數量、過期日、生產日、狀態），
+ * 不建立 Beverage 實體，也不佔用 Java heap；倉庫名稱與商品名稱以字典保存在 heap 上
+ *
+ * - 由已提交的庫存異動（afterCommit）逐列更新，啟動時從資料庫載入，之後定期對帳重建（{@link RebuildableLotIndex}）
+ * - 彙總以 fork-join 把資料列切段平行掃描，再合併各段結果；分析過程不存取資料庫
+ */
+@Component
+public class InventoryAnalytics extends RebuildableLotIndex {
+
+    /** 每個 fork-join 葉節點掃描的列數 */
+    private static final int SCAN_THRESHOLD = 16 * 1024;
+
+    /** 預估報廢最多列出的商品數 */
+    static final int MAX_WASTE_PRODUCTS = 20;
+
+    private static final BeverageStatus[] STATUSES = BeverageStatus.values();
+    private static final byte NORMAL = (byte) BeverageStatus.NORMAL.ordinal();
+
+    /** 庫齡分組的下界（生產至今天數） */
+    private static final int[] AGING_LOWER_BOUNDS = {Integer.MIN_VALUE, 31, 91, 181};
+    private static final String[] AGING_LABELS = {"0-30", "31-90", "91-180", "181+"};
+
+    private final ColumnStore store = new ColumnStore();
+    private final Map<Long, Integer> rowsByLot = new HashMap<>();
+    private final Map<String, Integer> warehouseCodes = new HashMap<>();
+    private final Map<Integer, String> productNames = new HashMap<>();
+
+    /**
+     * 目前出現過的最大商品 ID；商品 ID 由商品主檔連續配發，掃描時以陣列依商品 ID 累計
+     */
+    private int maxProductId = -1;
+
+    public InventoryAnalytics(BeverageRepository beverageRepository) {
+        super(beverageRepository);
+    }
+
+    /**
+     * 定期從資料庫對帳重建（清除墓碑、修正遺漏的異動）
+     */
+    @Scheduled(fixedDelayString = "${warehouse.analytics.reconcile-interval-ms:300000}",
+            initialDelayString = "${warehouse.analytics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * 以今天為基準的庫存分析
+     *
+     * @param warehouse   只統計該倉庫；null 時為所有倉庫
+     * @param horizonDays 報廢預估的天數範圍
+     */
+    public InventoryAnalyticsDTO analyze(String warehouse, int horizonDays) {
+        return analyze(warehouse, horizonDays, LocalDate.now());
+    }
+
+    InventoryAnalyticsDTO analyze(String warehouse, int horizonDays, LocalDate today) {
+        String site = warehouse == null || warehouse.isBlank() ? null : warehouse.trim();
+        int todayDay = Math.toIntExact(today.toEpochDay());
+        Aggregate aggregate;
+        Map<Integer, String> names;
+        lock.readLock().lock();
+        try {
+            Integer code = site == null ? Integer.valueOf(-1) : warehouseCodes.get(site);
+            aggregate = code == null
+                    ? new Aggregate(0)
+                    : ForkJoinPool.commonPool().invoke(new ScanTask(
+                            store, 0, store.size(), code, todayDay, todayDay + horizonDays, maxProductId + 1));
+            names = new HashMap<>();
+            for (int productId = 0; productId < aggregate.wasteByProduct.length; productId++) {
+                if (aggregate.wasteByProduct[productId] > 0) {
+                    names.put(productId, productNames.get(productId));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toDTO(aggregate, names, site, horizonDays, today);
+    }
+
+    /**
+     * 目前快照中的批次數
+     */
+    public int lotCount() {
+        lock.readLock().lock();
+        try {
+            return store.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static InventoryAnalyticsDTO toDTO(Aggregate aggregate, Map<Integer, String> names, String warehouse,
+                                               int horizonDays, LocalDate today) {
+        Map<BeverageStatus, Long> lotsByStatus = new EnumMap<>(BeverageStatus.class);
+        Map<BeverageStatus, Long> quantityByStatus = new EnumMap<>(BeverageStatus.class);
+        long totalLots = 0;
+        long totalQuantity = 0;
+        for (BeverageStatus status : STATUSES) {
+            lotsByStatus.put(status, aggregate.lotsByStatus[status.ordinal()]);
+            quantityByStatus.put(status, aggregate.quantityByStatus[status.ordinal()]);
+            totalLots += aggregate.lotsByStatus[status.ordinal()];
+            totalQuantity += aggregate.quantityByStatus[status.ordinal()];
+        }
+        Map<String, Long> aging = new LinkedHashMap<>();
+        for (int i = 0; i < AGING_LABELS.length; i++) {
+            aging.put(AGING_LABELS[i], aggregate.aging[i]);
+        }
+        List<ProductWasteDTO> wasteByProduct = names.keySet().stream()
+                .map(productId -> new ProductWasteDTO(productId, names.get(productId),
+                        aggregate.wasteByProduct[productId]))
+                .sorted(Comparator.comparingLong(ProductWasteDTO::getQuantity).reversed()
+                        .thenComparingInt(ProductWasteDTO::getProductId))
+                .limit(MAX_WASTE_PRODUCTS)
+                .toList();
+        return new InventoryAnalyticsDTO(today, warehouse, totalLots, totalQuantity, lotsByStatus, quantityByStatus,
+                aging, horizonDays, aggregate.waste, wasteByProduct);
+    }
+
+    // ==================== 更新 ====================
+
+    @Override
+    protected void reset() {
+        store.clear();
+        rowsByLot.clear();
+    }
+
+    @Override
+    protected void put(LotSnapshot lot) {
+        Integer row = rowsByLot.get(lot.id());
+        if (row == null) {
+            rowsByLot.put(lot.id(), append(lot));
+            return;
+        }
+        store.set(row, productId(lot), warehouseCode(lot.warehouse()), lot.quantity(),
+                epochDay(lot.expiryDate()), epochDay(lot.productionDate()),
+                (byte) lot.status().ordinal(), epochMillis(lot.updatedAt()));
+        rememberName(lot);
+    }
+
+    @Override
+    protected void remove(Long lotId) {
+        Integer row = rowsByLot.get(lotId);
+        if (row != null) {
+            removeRow(lotId, row);
+        }
+    }
+
+    @Override
+    protected boolean isStale(LotSnapshot incoming) {
+        Integer row = rowsByLot.get(incoming.id());
+        if (row == null) {
+            return false;
+        }
+        long updated = epochMillis(incoming.updatedAt());
+        long existing = store.updatedAt(row);
+        return updated != Long.MIN_VALUE && existing != Long.MIN_VALUE && updated < existing;
+    }
+
+    private int append(LotSnapshot lot) {
+        rememberName(lot);
+        return store.append(lot.id(), productId(lot), warehouseCode(lot.warehouse()), lot.quantity(),
+                epochDay(lot.expiryDate()), epochDay(lot.productionDate()),
+                (byte) lot.status().ordinal(), epochMillis(lot.updatedAt()));
+    }
+
+    private void removeRow(long lotId, int row) {
+        rowsByLot.remove(lotId);
+        long moved = store.remove(row);
+        if (moved >= 0) {
+            rowsByLot.put(moved, row);
+        }
+    }
+
+    private void rememberName(LotSnapshot lot) {
+        if (lot.productId() != null) {
+            productNames.putIfAbsent(lot.productId(), lot.name());
+            maxProductId = Math.max(maxProductId, lot.productId());
+        }
+    }
+
+    private int warehouseCode(String warehouse) {
+        return warehouseCodes.computeIfAbsent(warehouse, w -> warehouseCodes.size());
+    }
+
+    private static int productId(LotSnapshot lot) {
+        return lot.productId() == null ? -1 : lot.productId();
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? Long.MIN_VALUE : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    // ==================== 平行掃描 ====================
+
+    /**
+     * 一段資料列的彙總結果（可合併）
+     */
+    private static final class Aggregate {
+
+        final long[] lotsByStatus = new long[STATUSES.length];
+        final long[] quantityByStatus = new long[STATUSES.length];
+        final long[] aging = new long[AGING_LABELS.length];
+        final long[] wasteByProduct;
+        long waste;
+
+        Aggregate(int productSlots) {
+            this.wasteByProduct = new long[productSlots];
+        }
+
+        Aggregate merge(Aggregate other) {
+            for (int i = 0; i < lotsByStatus.length; i++) {
+                lotsByStatus[i] += other.lotsByStatus[i];
+                quantityByStatus[i] += other.quantityByStatus[i];
+            }
+            for (int i = 0; i < aging.length; i++) {
+                aging[i] += other.aging[i];
+            }
+            for (int i = 0; i < wasteByProduct.length; i++) {
+                wasteByProduct[i] += other.wasteByProduct[i];
+            }
+            waste += other.waste;
+            return this;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Aggregate> {
+
+        private final ColumnStore store;
+        private final int from;
+        private final int to;
+        private final int warehouse;
+        private final int today;
+        private final int horizonEnd;
+        private final int productSlots;
+
+        ScanTask(ColumnStore store, int from, int to, int warehouse, int today, int horizonEnd, int productSlots) {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+            this.warehouse = warehouse;
+            this.today = today;
+            this.horizonEnd = horizonEnd;
+            this.productSlots = productSlots;
+        }
+
+        @Override
+        protected Aggregate compute() {
+            if (to - from <= SCAN_THRESHOLD) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(store, from, middle, warehouse, today, horizonEnd, productSlots);
+            left.fork();
+            Aggregate right = new ScanTask(store, middle, to, warehouse, today, horizonEnd, productSlots).compute();
+            return left.join().merge(right);
+        }
+
+        private Aggregate scan() {
+            Aggregate aggregate = new Aggregate(productSlots);
+            for (int row = from; row < to; row++) {
+                if (warehouse >= 0 && store.warehouse(row) != warehouse) {
+                    continue;
+                }
+                byte status = store.status(row);
+                int quantity = store.quantity(row);
+                aggregate.lotsByStatus[status]++;
+                aggregate.quantityByStatus[status] += quantity;
+                if (status != NORMAL || quantity <= 0) {
+                    continue;
+                }
+                aggregate.aging[agingBucket(today - store.productionDay(row))] += quantity;
+                if (store.expiryDay(row) < horizonEnd) {
+                    aggregate.waste += quantity;
+                    int productId = store.productId(row);
+                    if (productId >= 0) {
+                        aggregate.wasteByProduct[productId] += quantity;
+                    }
+                }
+            }
+            return aggregate;
+        }
+
+        private static int agingBucket(int ageDays) {
+            int bucket = AGING_LOWER_BOUNDS.length - 1;
+            while (ageDays < AGING_LOWER_BOUNDS[bucket]) {
+                bucket--;
+            }
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.beveragewarehouse.archive;
+
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 封存區段檔（不可變，寫入後只讀）
+ *
+ * 檔案格式：
+ * - 標頭（未壓縮，HEADER_SIZE 位元組）：magic、版本、批次數、最小 ID、最大 ID
+ * - 內容：Deflate 壓縮的批次紀錄，依 ID 遞增排列
+ *
+ * 寫入時先寫到暫存檔並 fsync，再以原子 rename 發布，讀取端不會看到寫到一半的檔案；
+ * 讀取時以唯讀 mmap 對映整個檔案，由頁面快取提供資料，不佔用 Java heap
+ */
+final class ArchiveSegment {
+
+    static final String SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x42574131; // "BWA1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8 + 8;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final long minId;
+    private final long maxId;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer, int count, long minId, long maxId) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    /**
+     * 寫入新的區段檔（lots 需依 ID 遞增排列）並以唯讀 mmap 開啟
+     */
+    static ArchiveSegment write(Path path, List<LotSnapshot> lots) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(lots.size())
+                    .putLong(lots.get(0).id())
+                    .putLong(lots.get(lots.size() - 1).id())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(
+                    new BufferedOutputStream(new ChannelOutputStream(channel), 64 * 1024), deflater))) {
+                for (LotSnapshot lot : lots) {
+                    writeLot(out, lot);
+                }
+            } finally {
+                deflater.end();
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    /**
+     * 以唯讀 mmap 開啟既有的區段檔
+     */
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是有效的封存區段檔: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("不支援的封存區段版本 " + buffer.getInt(4) + ": " + path);
+            }
+            return new ArchiveSegment(path, buffer, buffer.getInt(8), buffer.getLong(12), buffer.getLong(20));
+        }
+    }
+
+    /**
+     * 解壓並讀取區段中的所有批次
+     */
+    List<LotSnapshot> readAll() {
+        ByteBuffer body = buffer.duplicate().position(HEADER_SIZE);
+        List<LotSnapshot> lots = new ArrayList<>(count);
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new BufferInputStream(body),
+                inflater, 64 * 1024))) {
+            for (int i = 0; i < count; i++) {
+                lots.add(readLot(in));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("封存區段檔損毀: " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return lots;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long minId() {
+        return minId;
+    }
+
+    long maxId() {
+        return maxId;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    // ==================== 紀錄編碼 ====================
+
+    private static void writeLot(DataOutputStream out, LotSnapshot lot) throws IOException {
+        out.writeLong(lot.id());
+        out.writeInt(lot.productId() == null ? -1 : lot.productId());
+        out.writeUTF(lot.name());
+        out.writeUTF(lot.warehouse());
+        writeNullableString(out, lot.bin());
+        out.writeInt(lot.quantity());
+        out.writeLong(lot.productionDate().toEpochDay());
+        out.writeLong(lot.expiryDate().toEpochDay());
+        writeDateTime(out, lot.createdAt());
+        writeDateTime(out, lot.updatedAt());
+        writeNullableString(out, lot.disposalReason());
+        writeDateTime(out, lot.disposedAt());
+    }
+
+    private static LotSnapshot readLot(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        int productId = in.readInt();
+        String name = in.readUTF();
+        String warehouse = in.readUTF();
+        String bin = readNullableString(in);
+        int quantity = in.readInt();
+        LocalDate productionDate = LocalDate.ofEpochDay(in.readLong());
+        LocalDate expiryDate = LocalDate.ofEpochDay(in.readLong());
+        LocalDateTime createdAt = readDateTime(in);
+        LocalDateTime updatedAt = readDateTime(in);
+        String disposalReason = readNullableString(in);
+        LocalDateTime disposedAt = readDateTime(in);
+        return new LotSnapshot(id, productId < 0 ? null : productId, name, warehouse, bin, quantity,
+                productionDate, expiryDate, createdAt, updatedAt, BeverageStatus.DISPOSED, disposalReason, disposedAt);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * 對映緩衝區的 InputStream（不複製資料）
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+    }
+
+    /**
+     * 寫入 FileChannel 的 OutputStream（不關閉 channel）
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+
+        ChannelOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            ByteBuffer source = ByteBuffer.wrap(bytes, offset, length);
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+}
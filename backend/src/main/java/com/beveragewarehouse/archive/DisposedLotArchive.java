@@ -0,0 +1,287 @@
+package com.beveragewarehouse.archive;
+
+import com.beveragewarehouse.event.InventoryChangePublisher;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 已報廢批次的封存
+ *
+ * 報廢超過保存期限（retention-days）的批次由排程移出 beverages 資料表，
+ * 寫入只附加的壓縮區段檔（{@link ArchiveSegment}），讓資料表與索引維持營運所需的大小：
+ * - 每批最多 batch-size 個批次寫成一個新的區段檔，檔案發布後才在同一交易中刪除資料列
+ * - 刪除失敗時資料列仍在資料表中，讀取時以 ID 去除重複，下次排程會再次封存
+ * - 區段檔以唯讀 mmap 開啟，查詢已報廢批次時與資料表中的批次合併
+ * - 區段的 ID 範圍與批次數（標頭）常駐記憶體；內容在第一次查詢時解壓一次並快取（依 ID 排序），
+ *   之後封存的批次直接併入快取，查詢不再重複解壓區段檔
+ *
+ * 封存檔與資料庫必須一起保存；資料庫為記憶體模式時（預設設定）請保持關閉
+ */
+@Slf4j
+@Component
+public class DisposedLotArchive implements SmartInitializingSingleton {
+
+    private final BeverageRepository beverageRepository;
+    private final InventoryChangePublisher changePublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int retentionDays;
+    private final int batchSize;
+
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final Object archiveLock = new Object();
+    private long nextSequence = 1;
+
+    /**
+     * 解壓後依 ID 排序的所有封存批次（不可修改）；尚未載入時為 null
+     */
+    private volatile List<LotSnapshot> archived;
+    private final Object cacheLock = new Object();
+
+    /**
+     * 解壓過的區段數（測試確認查詢不會重複解壓）
+     */
+    private final AtomicLong segmentDecodes = new AtomicLong();
+
+    public DisposedLotArchive(
+            BeverageRepository beverageRepository,
+            InventoryChangePublisher changePublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${warehouse.archive.enabled:false}") boolean enabled,
+            @Value("${warehouse.archive.dir:./data/archive}") String directory,
+            @Value("${warehouse.archive.retention-days:90}") int retentionDays,
+            @Value("${warehouse.archive.batch-size:10000}") int batchSize) {
+        this.beverageRepository = beverageRepository;
+        this.changePublisher = changePublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            openSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法開啟封存目錄: " + directory, e);
+        }
+    }
+
+    private void openSegments() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(ArchiveSegment.SUFFIX + ".tmp")) {
+                // 寫到一半的區段檔（尚未發布，對應的資料列也未刪除）
+                Files.delete(file);
+            } else if (name.endsWith(ArchiveSegment.SUFFIX)) {
+                segments.add(ArchiveSegment.open(file));
+                nextSequence = Math.max(nextSequence, sequenceOf(name) + 1);
+            }
+        }
+        log.info("已開啟 {} 個封存區段檔，封存批次數: {}", segments.size(), archivedCount());
+    }
+
+    /**
+     * 封存報廢超過保存期限的批次，回傳封存的批次數
+     */
+    @Scheduled(fixedDelayString = "${warehouse.archive.interval-ms:3600000}",
+            initialDelayString = "${warehouse.archive.interval-ms:3600000}")
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (archiveLock) {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            int archived = 0;
+            while (true) {
+                List<Long> ids = beverageRepository.findDisposedIdsBefore(cutoff, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Integer count = transactionTemplate.execute(status -> archiveBatch(ids));
+                archived += count == null ? 0 : count;
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                log.info("已封存 {} 個報廢批次（報廢時間早於 {}）", archived, cutoff);
+            }
+            return archived;
+        }
+    }
+
+    private int archiveBatch(List<Long> ids) {
+        List<LotSnapshot> lots = beverageRepository.findAllById(ids).stream()
+                .filter(beverage -> beverage.getStatus() == BeverageStatus.DISPOSED)
+                .sorted(Comparator.comparing(Beverage::getId))
+                .map(LotSnapshot::of)
+                .collect(Collectors.toList());
+        if (lots.isEmpty()) {
+            return 0;
+        }
+        Path file = directory.resolve(String.format("disposed-%016d%s", nextSequence, ArchiveSegment.SUFFIX));
+        try {
+            ArchiveSegment segment = ArchiveSegment.write(file, lots);
+            synchronized (cacheLock) {
+                segments.add(segment);
+                if (archived != null) {
+                    archived = merge(archived, lots);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法寫入封存區段檔: " + file, e);
+        }
+        nextSequence++;
+        List<Long> archivedIds = lots.stream().map(LotSnapshot::id).collect(Collectors.toList());
+        beverageRepository.deleteByIds(archivedIds);
+        changePublisher.lotsRemoved(archivedIds);
+        return archivedIds.size();
+    }
+
+    /**
+     * 所有已封存的批次（依 ID 排序；同一批次被重複封存時只保留最後一筆）
+     */
+    public List<LotSnapshot> readAll() {
+        if (!enabled) {
+            return List.of();
+        }
+        List<LotSnapshot> lots = archived;
+        if (lots != null) {
+            return lots;
+        }
+        synchronized (cacheLock) {
+            if (archived == null) {
+                archived = decodeAll();
+            }
+            return archived;
+        }
+    }
+
+    /**
+     * 合併資料表中與已封存的報廢批次（資料表中的優先），依 ID 排序
+     * 資料表中的報廢批次只有保存期限內的少量批次，排序後與已排序的封存批次線性合併
+     */
+    public <T> List<T> mergeWithLive(List<T> live, Function<T, Long> idOf,
+                                     Function<LotSnapshot, T> mapper) {
+        List<LotSnapshot> archivedLots = readAll();
+        if (archivedLots.isEmpty()) {
+            return live;
+        }
+        List<T> sortedLive = new ArrayList<>(live);
+        sortedLive.sort(Comparator.comparing(idOf));
+        List<T> merged = new ArrayList<>(sortedLive.size() + archivedLots.size());
+        int i = 0;
+        for (LotSnapshot lot : archivedLots) {
+            while (i < sortedLive.size() && idOf.apply(sortedLive.get(i)) < lot.id()) {
+                merged.add(sortedLive.get(i++));
+            }
+            if (i < sortedLive.size() && idOf.apply(sortedLive.get(i)).equals(lot.id())) {
+                continue;
+            }
+            merged.add(mapper.apply(lot));
+        }
+        while (i < sortedLive.size()) {
+            merged.add(sortedLive.get(i++));
+        }
+        return merged;
+    }
+
+    /**
+     * 依序解壓所有區段（後面的區段優先）
+     */
+    private List<LotSnapshot> decodeAll() {
+        List<LotSnapshot> lots = List.of();
+        for (ArchiveSegment segment : segments) {
+            segmentDecodes.incrementAndGet();
+            lots = merge(lots, segment.readAll());
+        }
+        return lots;
+    }
+
+    /**
+     * 合併兩個依 ID 排序的列表，ID 相同時保留 newer 的一筆
+     */
+    private static List<LotSnapshot> merge(List<LotSnapshot> older, List<LotSnapshot> newer) {
+        if (older.isEmpty()) {
+            return List.copyOf(newer);
+        }
+        if (older.get(older.size() - 1).id() < newer.get(0).id()) {
+            List<LotSnapshot> appended = new ArrayList<>(older.size() + newer.size());
+            appended.addAll(older);
+            appended.addAll(newer);
+            return Collections.unmodifiableList(appended);
+        }
+        List<LotSnapshot> merged = new ArrayList<>(older.size() + newer.size());
+        int i = 0;
+        int j = 0;
+        while (i < older.size() || j < newer.size()) {
+            if (j == newer.size() || (i < older.size() && older.get(i).id() < newer.get(j).id())) {
+                merged.add(older.get(i++));
+            } else {
+                if (i < older.size() && older.get(i).id().equals(newer.get(j).id())) {
+                    i++;
+                }
+                merged.add(newer.get(j++));
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    long segmentDecodes() {
+        return segmentDecodes.get();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long archivedCount() {
+        return segments.stream().mapToLong(ArchiveSegment::count).sum();
+    }
+
+    private static long sequenceOf(String fileName) {
+        String digits = fileName.replaceAll("\\D", "");
+        return digits.isEmpty() ? 0 : Long.parseLong(digits);
+    }
+}
@@ -0,0 +1,85 @@
+package com.beveragewarehouse.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 二進位回應編碼（CBOR）設定
+ * 
+ * 用戶端送出 Accept: application/cbor 時回應 CBOR，請求也可使用 Content-Type: application/cbor；
+ * JSON 仍為預設格式。為了精簡：
+ * - LocalDate 編碼為 epoch-day 整數
+ * - LocalDateTime 編碼為 UTC epoch 毫秒整數
+ */
+@Configuration
+public class BinaryEncodingConfig {
+    
+    public static final MediaType APPLICATION_CBOR = MediaType.valueOf("application/cbor");
+    
+    /**
+     * 由 Spring Boot 自動加入 HttpMessageConverters，參與內容協商
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+    }
+    
+    /**
+     * CBOR ObjectMapper（基準測試也使用同一份設定）
+     */
+    public static ObjectMapper cborObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper(new CBORFactory());
+        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(compactTemporalModule());
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper;
+    }
+    
+    private static SimpleModule compactTemporalModule() {
+        SimpleModule module = new SimpleModule("CompactTemporalModule");
+        module.addSerializer(LocalDate.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeNumber(value.toEpochDay());
+            }
+        });
+        module.addDeserializer(LocalDate.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+        });
+        module.addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+        });
+        module.addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneOffset.UTC);
+            }
+        });
+        return module;
+    }
+}
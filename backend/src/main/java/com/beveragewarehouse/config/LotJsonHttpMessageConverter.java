@@ -0,0 +1,45 @@
+package com.beveragewarehouse.config;
+
+import com.beveragewarehouse.service.CachedLotList;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 讀取模型批次列表的 JSON 回應
+ * 
+ * 由 Spring Boot 加在預設 converter 之前：回應本體為 {@link CachedLotList} 且協商結果為 JSON 時，
+ * 直接串接快取的批次 JSON 片段；其他本體與格式仍由預設的 Jackson converter 處理
+ */
+@Component
+public class LotJsonHttpMessageConverter extends AbstractHttpMessageConverter<CachedLotList> {
+    
+    public LotJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CachedLotList.class.isAssignableFrom(clazz);
+    }
+    
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected CachedLotList readInternal(Class<? extends CachedLotList> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支援讀取批次列表", inputMessage);
+    }
+    
+    @Override
+    protected void writeInternal(CachedLotList lots, HttpOutputMessage outputMessage) throws IOException {
+        lots.writeJson(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,38 @@
+package com.beveragewarehouse.config;
+
+import com.beveragewarehouse.oplog.OperationLogEndpoint;
+import com.beveragewarehouse.oplog.OperationLogInterceptor;
+import com.beveragewarehouse.oplog.OperationLogSettings;
+import com.beveragewarehouse.oplog.StatementCountingInspector;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 操作日誌設定：註冊攔截器、SQL 陳述式計數與 /actuator/oplog 端點
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OperationLogConfig implements WebMvcConfigurer {
+
+    private final OperationLogInterceptor operationLogInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(operationLogInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+    }
+
+    @Bean
+    public OperationLogEndpoint operationLogEndpoint(OperationLogSettings settings) {
+        return new OperationLogEndpoint(settings);
+    }
+}
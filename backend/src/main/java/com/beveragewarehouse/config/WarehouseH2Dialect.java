@@ -0,0 +1,30 @@
+package com.beveragewarehouse.config;
+
+import org.hibernate.dialect.H2Dialect;
+
+/**
+ * H2 方言：啟用 Hibernate H2Dialect 未宣告支援的鎖定語法
+ * 
+ * H2 2.x 支援 FOR UPDATE SKIP LOCKED / NOWAIT / WAIT n，
+ * 但 Hibernate 6.3 的 H2Dialect 一律產生 FOR UPDATE，忽略 jakarta.persistence.lock.timeout
+ * - lock.timeout = -2（LockOptions.SKIP_LOCKED）→ FOR UPDATE SKIP LOCKED
+ * - lock.timeout = 0（LockOptions.NO_WAIT）→ FOR UPDATE NOWAIT
+ * - lock.timeout > 0 → FOR UPDATE WAIT n（Hibernate 四捨五入到秒）
+ */
+public class WarehouseH2Dialect extends H2Dialect {
+    
+    @Override
+    public boolean supportsSkipLocked() {
+        return true;
+    }
+    
+    @Override
+    public boolean supportsNoWait() {
+        return true;
+    }
+    
+    @Override
+    public boolean supportsWait() {
+        return true;
+    }
+}
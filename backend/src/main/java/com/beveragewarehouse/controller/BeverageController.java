@@ -1,10 +1,29 @@
 package com.beveragewarehouse.controller;
 
+import com.beveragewarehouse.analytics.InventoryAnalytics;
+import com.beveragewarehouse.dto.AvailabilityDTO;
+import com.beveragewarehouse.dto.AvailabilityRequestDTO;
 import com.beveragewarehouse.dto.BeverageDTO;
 import com.beveragewarehouse.dto.BeverageRequestDTO;
+import com.beveragewarehouse.dto.BulkDisposeRequestDTO;
+import com.beveragewarehouse.dto.BulkDisposeResultDTO;
+import com.beveragewarehouse.dto.InventoryAnalyticsDTO;
+import com.beveragewarehouse.dto.LotFilterRequestDTO;
+import com.beveragewarehouse.dto.LotFilterResultDTO;
+import com.beveragewarehouse.dto.OrderStockOutRequestDTO;
+import com.beveragewarehouse.dto.OrderStockOutResultDTO;
+import com.beveragewarehouse.dto.ProductSearchResultDTO;
+import com.beveragewarehouse.dto.RecallRequestDTO;
+import com.beveragewarehouse.dto.RecallResultDTO;
 import com.beveragewarehouse.dto.StockInRequestDTO;
 import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.Product;
 import com.beveragewarehouse.service.BeverageService;
+import com.beveragewarehouse.service.InventoryReadModel;
+import com.beveragewarehouse.service.LotFilterIndex;
+import com.beveragewarehouse.service.ProductSearchIndex;
+import com.beveragewarehouse.service.StockMovementLimiter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -18,6 +37,11 @@ import java.util.Map;
  * 飲料管理 REST API Controller
  * 
  * 提供完整的 CRUD 操作和庫存管理功能
+ * 
+ * 查詢（GET）預設由記憶體讀取模型提供，不與出入庫競爭資料庫連線與鎖；
+ * 回應標頭 X-Read-Model-Version / X-Read-Model-Staleness-Ms 表示快照版本與過時程度
+ * 
+ * 內容協商：Accept: application/cbor 時回應精簡的 CBOR 編碼（見 BinaryEncodingConfig）
  */
 @RestController
 @RequestMapping("/api/beverages")
@@ -25,22 +49,71 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class BeverageController {
     
+    static final String READ_MODEL_VERSION_HEADER = "X-Read-Model-Version";
+    static final String READ_MODEL_STALENESS_HEADER = "X-Read-Model-Staleness-Ms";
+    
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_HORIZON_DAYS = 3650;
+    
     private final BeverageService beverageService;
+    private final InventoryReadModel readModel;
+    private final StockMovementLimiter stockMovementLimiter;
+    private final ProductSearchIndex productSearchIndex;
+    private final LotFilterIndex lotFilterIndex;
+    private final InventoryAnalytics inventoryAnalytics;
     
     /**
-     * 取得所有飲料
+     * 取得所有飲料（可選擇只查詢指定倉庫）
      */
     @GetMapping
-    public ResponseEntity<List<BeverageDTO>> getAllBeverages() {
-        List<BeverageDTO> beverages = beverageService.getAllBeverages();
+    public ResponseEntity<List<BeverageDTO>> getAllBeverages(
+            @RequestParam(required = false) String warehouse) {
+        if (readModel.isEnabled()) {
+            return readModelResponse(warehouse == null
+                    ? readModel.getAllBeverages()
+                    : readModel.getBeveragesByWarehouse(warehouse));
+        }
+        List<BeverageDTO> beverages = warehouse == null
+                ? beverageService.getAllBeverages()
+                : beverageService.getBeveragesByWarehouse(warehouse);
         return ResponseEntity.ok(beverages);
     }
     
+    /**
+     * 依名稱搜尋商品（前綴、子字串與模糊比對），回應包含可出庫數量
+     * 
+     * 由記憶體索引提供，不存取資料庫
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchResultDTO>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String warehouse,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productSearchIndex.search(query, warehouse, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+    
+    /**
+     * 多條件篩選批次（名稱、狀態、倉庫、過期日、生產日、數量）
+     * 
+     * 組內條件同時成立、組與組之間任一成立；由記憶體點陣圖索引提供，不存取資料庫
+     */
+    @PostMapping("/filter")
+    public ResponseEntity<LotFilterResultDTO> filterLots(@Valid @RequestBody LotFilterRequestDTO request) {
+        return ResponseEntity.ok(lotFilterIndex.filter(request));
+    }
+    
     /**
      * 根據 ID 取得飲料
      */
     @GetMapping("/{id}")
     public ResponseEntity<BeverageDTO> getBeverageById(@PathVariable Long id) {
+        if (readModel.isEnabled()) {
+            // 快照中找不到時回到資料庫確認（可能是剛提交、尚未套用的批次）
+            var cached = readModel.getBeverageById(id);
+            if (cached.isPresent()) {
+                return readModelResponse(cached.get());
+            }
+        }
         BeverageDTO beverage = beverageService.getBeverageById(id);
         return ResponseEntity.ok(beverage);
     }
@@ -50,21 +123,53 @@ public class BeverageController {
      */
     @PostMapping("/stock-in")
     public ResponseEntity<BeverageDTO> stockIn(@Valid @RequestBody StockInRequestDTO request) {
-        BeverageDTO beverage = beverageService.stockIn(request);
+        BeverageDTO beverage = stockMovementLimiter.stockIn(
+                productKey(request.getName(), request.getWarehouse()),
+                () -> beverageService.stockIn(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(beverage);
     }
     
     /**
      * 出庫飲料
+     * 
+     * 併發數超過自適應上限且等待佇列已滿時，回應 429 與 Retry-After
      */
     @PostMapping("/stock-out")
     public ResponseEntity<Map<String, String>> stockOut(@Valid @RequestBody StockOutRequestDTO request) {
-        beverageService.stockOut(request);
+        stockMovementLimiter.stockOut(
+                productKey(request.getName(), request.getWarehouse()),
+                () -> beverageService.stockOut(request));
         return ResponseEntity.ok(Map.of(
                 "message", "成功出庫 " + request.getQuantity() + " 瓶 " + request.getName()
         ));
     }
     
+    /**
+     * 訂單出庫（多個商品明細，整筆成功或整筆回滾）
+     * 
+     * 任何一行庫存不足時回應 409，所有明細都不會出庫
+     * 限流以明細的商品為鍵（明細倉庫優先，其次訂單倉庫），整筆訂單占一個執行許可
+     */
+    @PostMapping("/orders/stock-out")
+    public ResponseEntity<OrderStockOutResultDTO> stockOutOrder(@Valid @RequestBody OrderStockOutRequestDTO request) {
+        List<String> productKeys = request.getLines().stream()
+                .map(line -> productKey(line.getName(),
+                        line.getWarehouse() != null ? line.getWarehouse() : request.getWarehouse()))
+                .toList();
+        OrderStockOutResultDTO result = stockMovementLimiter.stockOutOrder(
+                productKeys,
+                () -> beverageService.stockOutOrder(request));
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 可承諾量查詢（一次查詢多個商品，不開啟交易、不取得鎖）
+     */
+    @PostMapping("/atp")
+    public ResponseEntity<List<AvailabilityDTO>> checkAvailability(@Valid @RequestBody AvailabilityRequestDTO request) {
+        return ResponseEntity.ok(beverageService.checkAvailability(request));
+    }
+    
     /**
      * 更新飲料資訊
      */
@@ -90,6 +195,9 @@ public class BeverageController {
      */
     @GetMapping("/expired")
     public ResponseEntity<List<BeverageDTO>> getExpiredBeverages() {
+        if (readModel.isEnabled()) {
+            return readModelResponse(readModel.getExpiredBeverages());
+        }
         List<BeverageDTO> beverages = beverageService.getExpiredBeverages();
         return ResponseEntity.ok(beverages);
     }
@@ -99,19 +207,54 @@ public class BeverageController {
      */
     @GetMapping("/expiring-soon")
     public ResponseEntity<List<BeverageDTO>> getExpiringSoonBeverages() {
+        if (readModel.isEnabled()) {
+            return readModelResponse(readModel.getExpiringSoonBeverages());
+        }
         List<BeverageDTO> beverages = beverageService.getExpiringSoonBeverages();
         return ResponseEntity.ok(beverages);
     }
     
     /**
-     * 取得庫存統計
+     * 取得庫存統計（可選擇只統計指定倉庫）
      */
     @GetMapping("/statistics")
-    public ResponseEntity<BeverageService.BeverageStatisticsDTO> getStatistics() {
-        BeverageService.BeverageStatisticsDTO statistics = beverageService.getStatistics();
+    public ResponseEntity<BeverageService.BeverageStatisticsDTO> getStatistics(
+            @RequestParam(required = false) String warehouse) {
+        if (readModel.isEnabled()) {
+            return readModelResponse(warehouse == null
+                    ? readModel.getStatistics()
+                    : readModel.getStatistics(warehouse));
+        }
+        BeverageService.BeverageStatisticsDTO statistics = warehouse == null
+                ? beverageService.getStatistics()
+                : beverageService.getStatistics(warehouse);
         return ResponseEntity.ok(statistics);
     }
     
+    /**
+     * 取得各倉庫的庫存統計
+     */
+    @GetMapping("/statistics/by-warehouse")
+    public ResponseEntity<List<BeverageService.BeverageStatisticsDTO>> getStatisticsByWarehouse() {
+        if (readModel.isEnabled()) {
+            return readModelResponse(readModel.getStatisticsByWarehouse());
+        }
+        return ResponseEntity.ok(beverageService.getStatisticsByWarehouse());
+    }
+    
+    /**
+     * 庫存分析：各狀態批次數與數量、庫齡分組、horizonDays 天內的報廢預估
+     * 
+     * 由欄位式 off-heap 快照平行掃描產生，不存取資料庫
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<InventoryAnalyticsDTO> getAnalytics(
+            @RequestParam(required = false) String warehouse,
+            @RequestParam(defaultValue = "30") int horizonDays) {
+        int horizon = Math.max(0, Math.min(horizonDays, MAX_HORIZON_DAYS));
+        return ResponseEntity.ok(inventoryAnalytics.analyze(warehouse, horizon));
+    }
+    
     /**
      * 自動隔離過期商品（業界標準流程）
      * 
@@ -127,15 +270,35 @@ public class BeverageController {
         ));
     }
     
+    /**
+     * 商品召回：立即隔離商品在生產日期區間內的所有批次（不論有效期限），並停止配貨
+     */
+    @PostMapping("/recalls")
+    public ResponseEntity<RecallResultDTO> recallLots(@Valid @RequestBody RecallRequestDTO request) {
+        RecallResultDTO result = beverageService.recallLots(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+    
     /**
      * 取得隔離區中的商品（QUARANTINED 狀態）
      */
     @GetMapping("/quarantined")
     public ResponseEntity<List<BeverageDTO>> getQuarantinedBeverages() {
+        if (readModel.isEnabled()) {
+            return readModelResponse(readModel.getQuarantinedBeverages());
+        }
         List<BeverageDTO> beverages = beverageService.getQuarantinedBeverages();
         return ResponseEntity.ok(beverages);
     }
     
+    /**
+     * 批量報廢隔離區中的商品（指定 ID 清單，或所有有效期限早於 expiredBefore 的隔離批次）
+     */
+    @PostMapping("/dispose")
+    public ResponseEntity<BulkDisposeResultDTO> disposeBeverages(@Valid @RequestBody BulkDisposeRequestDTO request) {
+        return ResponseEntity.ok(beverageService.disposeBeverages(request));
+    }
+    
     /**
      * 報廢商品（業界標準流程）
      * 
@@ -146,7 +309,7 @@ public class BeverageController {
     public ResponseEntity<BeverageDTO> disposeBeverage(
             @PathVariable Long id,
             @RequestBody Map<String, String> request) {
-        String reason = request.getOrDefault("reason", "過期報廢");
+        String reason = request.get("reason");
         BeverageDTO beverage = beverageService.disposeBeverage(id, reason);
         return ResponseEntity.ok(beverage);
     }
@@ -156,8 +319,28 @@ public class BeverageController {
      */
     @GetMapping("/disposed")
     public ResponseEntity<List<BeverageDTO>> getDisposedBeverages() {
+        if (readModel.isEnabled()) {
+            return readModelResponse(readModel.getDisposedBeverages());
+        }
         List<BeverageDTO> beverages = beverageService.getDisposedBeverages();
         return ResponseEntity.ok(beverages);
     }
+    
+    /**
+     * 讀取模型回應，附上快照版本與過時程度
+     */
+    private <T> ResponseEntity<T> readModelResponse(T body) {
+        return ResponseEntity.ok()
+                .header(READ_MODEL_VERSION_HEADER, String.valueOf(readModel.version()))
+                .header(READ_MODEL_STALENESS_HEADER, String.valueOf(readModel.stalenessMillis()))
+                .body(body);
+    }
+    
+    /**
+     * 限流用的商品鍵（倉庫 + 名稱），每個商品各有一個等待佇列
+     */
+    private static String productKey(String name, String warehouse) {
+        String site = warehouse == null || warehouse.isBlank() ? Beverage.DEFAULT_WAREHOUSE : warehouse.trim();
+        return site + "/" + Product.normalizeName(name);
+    }
 }
-
@@ -0,0 +1,38 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 可承諾量查詢結果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDTO {
+    
+    /**
+     * 正規化後的商品名稱
+     */
+    private String name;
+    
+    /**
+     * 商品 ID（商品不存在時為 null）
+     */
+    private Integer productId;
+    
+    private String warehouse;
+    
+    private int requested;
+    
+    /**
+     * 目前可出庫數量（NORMAL 且未過期的批次）
+     */
+    private long available;
+    
+    /**
+     * 是否足夠出庫 requested
+     */
+    private boolean promisable;
+}
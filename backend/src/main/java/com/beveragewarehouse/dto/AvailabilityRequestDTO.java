@@ -0,0 +1,29 @@
+package com.beveragewarehouse.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 可承諾量查詢請求 DTO（一次查詢多個商品）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityRequestDTO {
+    
+    /**
+     * 預設查詢倉庫（可選）；明細未指定倉庫時使用，兩者皆未指定時使用 MAIN
+     */
+    @Size(max = 32, message = "倉庫代碼長度不能超過 32 個字元")
+    private String warehouse;
+    
+    @NotEmpty(message = "查詢明細不能為空")
+    @Size(max = 500, message = "查詢明細不能超過 500 行")
+    private List<@Valid StockOutRequestDTO> items;
+}
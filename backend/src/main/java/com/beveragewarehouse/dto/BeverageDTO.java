@@ -19,7 +19,10 @@ import java.time.LocalDateTime;
 public class BeverageDTO {
     
     private Long id;
+    private Integer productId;
     private String name;
+    private String warehouse;
+    private String bin;
     private Integer quantity;
     private LocalDate productionDate;
     private LocalDate expiryDate;
@@ -3,6 +3,7 @@ package com.beveragewarehouse.dto;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,5 +30,17 @@ public class BeverageRequestDTO {
     
     @NotNull(message = "有效期限不能為空")
     private LocalDate expiryDate;
+    
+    /**
+     * 倉庫代碼（可選，未指定時使用預設倉庫 MAIN）
+     */
+    @Size(max = 32, message = "倉庫代碼長度不能超過 32 個字元")
+    private String warehouse;
+    
+    /**
+     * 儲位（可選）
+     */
+    @Size(max = 32, message = "儲位長度不能超過 32 個字元")
+    private String bin;
 }
 
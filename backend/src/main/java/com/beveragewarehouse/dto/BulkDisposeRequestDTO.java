@@ -0,0 +1,42 @@
+package com.beveragewarehouse.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 批量報廢請求 DTO
+ * 
+ * 以 ids 指定批次，或以 expiredBefore 選取所有有效期限早於該日期的隔離批次（兩者擇一）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDisposeRequestDTO {
+    
+    @Size(max = 10000, message = "一次最多報廢 10000 個批次")
+    private List<Long> ids;
+    
+    /**
+     * 選取有效期限早於此日期的 QUARANTINED 批次
+     */
+    private LocalDate expiredBefore;
+    
+    /**
+     * 報廢原因（可選，未指定時為「過期報廢」）
+     */
+    @Size(max = 500, message = "報廢原因長度不能超過 500 個字元")
+    private String reason;
+    
+    @JsonIgnore
+    @AssertTrue(message = "必須指定 ids 或 expiredBefore 其中之一")
+    public boolean isSelectionValid() {
+        return (ids != null && !ids.isEmpty()) != (expiredBefore != null);
+    }
+}
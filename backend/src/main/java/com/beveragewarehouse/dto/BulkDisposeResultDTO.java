@@ -0,0 +1,34 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量報廢結果 DTO（各結果的批次數）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDisposeResultDTO {
+    
+    /**
+     * 選取的批次數（重複的 ID 只計一次）
+     */
+    private int requested;
+    
+    /**
+     * 成功報廢
+     */
+    private int disposed;
+    
+    /**
+     * 批次不存在
+     */
+    private int notFound;
+    
+    /**
+     * 狀態不是 QUARANTINED（尚未隔離或已報廢），未變更
+     */
+    private int invalidState;
+}
@@ -0,0 +1,41 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 錯誤回應 DTO
+ * 
+ * 所有業務錯誤都以相同結構回應，用戶端可依 code 判斷錯誤類型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorResponseDTO {
+    
+    /**
+     * HTTP 狀態碼
+     */
+    private int status;
+    
+    /**
+     * 錯誤代碼（例如 INSUFFICIENT_STOCK、BEVERAGE_NOT_FOUND）
+     */
+    private String code;
+    
+    /**
+     * 錯誤訊息
+     */
+    private String message;
+    
+    /**
+     * 錯誤細節（例如請求數量與可用數量、欄位驗證錯誤）
+     */
+    private Map<String, Object> details;
+    
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,71 @@
+package com.beveragewarehouse.dto;
+
+import com.beveragewarehouse.model.BeverageStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 庫存分析結果 DTO
+ * 
+ * 由記憶體欄位快照平行掃描產生，不存取資料庫
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAnalyticsDTO {
+    
+    /**
+     * 計算的基準日
+     */
+    private LocalDate asOf;
+    
+    /**
+     * 只統計該倉庫（null 為所有倉庫）
+     */
+    private String warehouse;
+    
+    private long totalLots;
+    
+    private long totalQuantity;
+    
+    private Map<BeverageStatus, Long> lotsByStatus;
+    
+    private Map<BeverageStatus, Long> quantityByStatus;
+    
+    /**
+     * NORMAL 批次依庫齡（生產至今天數）分組的數量：0-30、31-90、91-180、181+
+     */
+    private Map<String, Long> agingQuantity;
+    
+    /**
+     * 報廢預估的天數範圍
+     */
+    private int horizonDays;
+    
+    /**
+     * horizonDays 天內過期（含已過期未隔離）的 NORMAL 數量
+     */
+    private long projectedWasteQuantity;
+    
+    /**
+     * 預估報廢數量最多的商品（依數量遞減）
+     */
+    private List<ProductWasteDTO> projectedWasteByProduct;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductWasteDTO {
+        
+        private int productId;
+        
+        private String name;
+        
+        private long quantity;
+    }
+}
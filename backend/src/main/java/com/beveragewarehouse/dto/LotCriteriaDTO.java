@@ -0,0 +1,45 @@
+package com.beveragewarehouse.dto;
+
+import com.beveragewarehouse.model.BeverageStatus;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 批次篩選條件 DTO
+ * 
+ * 所有指定的條件同時成立（AND）；清單條件符合其中任一值即可（OR）；
+ * 範圍條件包含兩端，只指定一端時為單邊範圍；未指定的條件不限制
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotCriteriaDTO {
+    
+    /**
+     * 商品名稱（完全比對，會先正規化）
+     */
+    @Size(max = 100, message = "商品名稱最多 100 個")
+    private List<String> names;
+    
+    private List<BeverageStatus> statuses;
+    
+    @Size(max = 100, message = "倉庫最多 100 個")
+    private List<String> warehouses;
+    
+    private LocalDate expiryFrom;
+    
+    private LocalDate expiryTo;
+    
+    private LocalDate productionFrom;
+    
+    private LocalDate productionTo;
+    
+    private Integer minQuantity;
+    
+    private Integer maxQuantity;
+}
@@ -0,0 +1,35 @@
+package com.beveragewarehouse.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批次篩選請求 DTO
+ * 
+ * anyOf 中的每組條件各自為 AND，組與組之間為 OR，
+ * 例如「(A 商品且已隔離) 或 (B 倉庫且 7 天內過期)」
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotFilterRequestDTO {
+    
+    @NotEmpty(message = "篩選條件不能為空")
+    @Size(max = 20, message = "篩選條件最多 20 組")
+    private List<@Valid LotCriteriaDTO> anyOf;
+    
+    /**
+     * 回傳的批次數上限（依 ID 排序），total 仍為全部符合的數量
+     */
+    @Min(value = 1, message = "回傳數量必須大於 0")
+    @Max(value = 1000, message = "回傳數量不能超過 1000")
+    private Integer limit = 100;
+}
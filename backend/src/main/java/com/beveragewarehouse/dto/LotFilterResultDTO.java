@@ -0,0 +1,26 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批次篩選結果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotFilterResultDTO {
+    
+    /**
+     * 符合條件的批次總數
+     */
+    private long total;
+    
+    /**
+     * 符合條件的批次（依 ID 排序，最多 limit 筆）
+     */
+    private List<BeverageDTO> lots;
+}
@@ -0,0 +1,35 @@
+package com.beveragewarehouse.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 訂單出庫請求 DTO（多個商品明細，整筆成功或整筆失敗）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStockOutRequestDTO {
+    
+    /**
+     * 訂單編號（可選，只用於回應與日誌）
+     */
+    @Size(max = 64, message = "訂單編號長度不能超過 64 個字元")
+    private String orderId;
+    
+    /**
+     * 訂單預設出庫倉庫（可選）；明細未指定倉庫時使用，兩者皆未指定時使用 MAIN
+     */
+    @Size(max = 32, message = "倉庫代碼長度不能超過 32 個字元")
+    private String warehouse;
+    
+    @NotEmpty(message = "訂單明細不能為空")
+    @Size(max = 100, message = "訂單明細不能超過 100 行")
+    private List<@Valid StockOutRequestDTO> lines;
+}
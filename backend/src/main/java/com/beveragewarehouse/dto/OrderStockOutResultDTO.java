@@ -0,0 +1,25 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 訂單出庫結果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStockOutResultDTO {
+    
+    private String orderId;
+    
+    /**
+     * 出庫的商品數（相同倉庫、相同名稱的明細會合併）
+     */
+    private int lineCount;
+    
+    private int totalQuantity;
+    
+    private String message;
+}
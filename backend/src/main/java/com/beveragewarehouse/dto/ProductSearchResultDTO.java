@@ -0,0 +1,34 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品搜尋結果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    
+    private Integer productId;
+    
+    private String name;
+    
+    /**
+     * 目前可出庫數量（NORMAL 且未過期的批次）
+     */
+    private long available;
+    
+    private MatchType match;
+    
+    /**
+     * 比對方式（依優先順序）
+     */
+    public enum MatchType {
+        PREFIX,
+        SUBSTRING,
+        FUZZY
+    }
+}
@@ -0,0 +1,44 @@
+package com.beveragewarehouse.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 商品召回請求 DTO
+ * 
+ * 召回商品在生產日期區間內（包含兩端）的所有批次
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecallRequestDTO {
+    
+    @NotBlank(message = "飲料名稱不能為空")
+    private String name;
+    
+    @NotNull(message = "生產日期起日不能為空")
+    private LocalDate productionFrom;
+    
+    @NotNull(message = "生產日期迄日不能為空")
+    private LocalDate productionTo;
+    
+    /**
+     * 召回原因（可選）
+     */
+    @Size(max = 500, message = "召回原因長度不能超過 500 個字元")
+    private String reason;
+    
+    @JsonIgnore
+    @AssertTrue(message = "生產日期起日不能晚於迄日")
+    public boolean isRangeValid() {
+        return productionFrom == null || productionTo == null || !productionFrom.isAfter(productionTo);
+    }
+}
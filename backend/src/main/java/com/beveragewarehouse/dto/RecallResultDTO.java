@@ -0,0 +1,45 @@
+package com.beveragewarehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 商品召回結果 DTO（受影響批次報告）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecallResultDTO {
+    
+    private Long recallId;
+    
+    private Integer productId;
+    
+    /**
+     * 正規化後的商品名稱
+     */
+    private String name;
+    
+    private LocalDate productionFrom;
+    
+    private LocalDate productionTo;
+    
+    /**
+     * 生產日期在召回範圍內的批次數（包含已隔離、已報廢的批次）
+     */
+    private int affected;
+    
+    /**
+     * 本次由 NORMAL 改為 QUARANTINED 的批次數
+     */
+    private int quarantined;
+    
+    /**
+     * 受影響的批次（召回後的狀態，依 ID 排序）
+     */
+    private List<BeverageDTO> lots;
+}
@@ -1,8 +1,11 @@
 package com.beveragewarehouse.dto;
 
+import com.beveragewarehouse.model.AllocationPolicy;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,5 +24,32 @@ public class StockOutRequestDTO {
     @NotNull(message = "數量不能為空")
     @Min(value = 1, message = "數量必須大於 0")
     private Integer quantity;
+    
+    /**
+     * 出庫倉庫（可選，未指定時使用預設倉庫 MAIN）
+     * 只會鎖定並配貨該倉庫內的批次
+     */
+    @Size(max = 32, message = "倉庫代碼長度不能超過 32 個字元")
+    private String warehouse;
+    
+    /**
+     * 最少剩餘天數（可選）：只配貨有效期限不早於「今天 + N 天」的批次，仍依 FEFO 順序
+     */
+    @Min(value = 0, message = "最少剩餘天數不能小於 0")
+    @Max(value = 3650, message = "最少剩餘天數不能超過 3650 天")
+    private Integer minRemainingDays;
+    
+    /**
+     * 配貨策略（可選）：未指定時使用商品設定的策略，商品未設定時使用預設策略（FEFO）
+     */
+    private AllocationPolicy strategy;
+    
+    public StockOutRequestDTO(String name, Integer quantity, String warehouse) {
+        this(name, quantity, warehouse, null, null);
+    }
+    
+    public StockOutRequestDTO(String name, Integer quantity, String warehouse, Integer minRemainingDays) {
+        this(name, quantity, warehouse, minRemainingDays, null);
+    }
 }
 
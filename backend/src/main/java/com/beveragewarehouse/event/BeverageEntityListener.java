@@ -0,0 +1,31 @@
+package com.beveragewarehouse.event;
+
+import com.beveragewarehouse.model.Beverage;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link Beverage} 實體監聽器
+ * 
+ * 將 JPA 生命週期事件轉為庫存異動，由 Hibernate 透過 Spring Bean 容器建立
+ */
+@Component
+@RequiredArgsConstructor
+public class BeverageEntityListener {
+    
+    private final InventoryChangePublisher publisher;
+    
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Beverage beverage) {
+        publisher.lotSaved(beverage);
+    }
+    
+    @PostRemove
+    public void onRemoved(Beverage beverage) {
+        publisher.lotRemoved(beverage.getId());
+    }
+}
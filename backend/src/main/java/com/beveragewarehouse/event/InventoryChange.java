@@ -0,0 +1,25 @@
+package com.beveragewarehouse.event;
+
+import com.beveragewarehouse.model.LotSnapshot;
+
+/**
+ * 已提交的庫存異動
+ * 
+ * UPSERT：批次新增或更新，lot 為提交後的狀態
+ * REMOVE：批次已從資料表移除，lot 為 null
+ */
+public record InventoryChange(Type type, Long lotId, LotSnapshot lot) {
+    
+    public enum Type {
+        UPSERT,
+        REMOVE
+    }
+    
+    public static InventoryChange upsert(LotSnapshot lot) {
+        return new InventoryChange(Type.UPSERT, lot.id(), lot);
+    }
+    
+    public static InventoryChange remove(Long lotId) {
+        return new InventoryChange(Type.REMOVE, lotId, null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.beveragewarehouse.event;
+
+import com.beveragewarehouse.model.LotSnapshot;
+
+import java.util.List;
+
+/**
+ * 庫存異動監聽器
+ * 
+ * 由 {@link InventoryChangePublisher} 在交易提交後（afterCommit）呼叫，
+ * 只會收到已提交的異動；回滾的交易不會產生任何通知
+ */
+public interface InventoryChangeListener {
+    
+    /**
+     * 處理一個交易提交的所有異動（同一批次內每個批次 ID 只出現一次）
+     */
+    void onInventoryChanges(List<InventoryChange> changes);
+    
+    /**
+     * 從資料庫重新建立完整狀態（例如資料被整批載入之後）
+     */
+    default void rebuild() {
+    }
+    
+    /**
+     * 開始整批重建：之後到達的異動需在 {@link #rebuild(List)} 替換後重新套用
+     * 由 {@link InventoryChangePublisher#rebuildAll()} 在載入所有批次之前呼叫，
+     * 之後必定呼叫 {@link #rebuild(List)} 或 {@link #abortRebuild()} 其中之一
+     */
+    default void beginRebuild() {
+    }
+    
+    /**
+     * 以呼叫端載入的所有批次重建（所有監聽器共用同一份，不可修改）；預設自行從資料庫重建
+     */
+    default void rebuild(List<LotSnapshot> lots) {
+        rebuild();
+    }
+    
+    /**
+     * 載入批次失敗，結束 {@link #beginRebuild()} 開始的重建
+     */
+    default void abortRebuild() {
+    }
+}
@@ -0,0 +1,145 @@
+package com.beveragewarehouse.event;
+
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 庫存異動發布器（Change Feed）
+ * 
+ * 在交易內收集批次異動，交易提交後一次性通知所有 {@link InventoryChangeListener}
+ * - 實體生命週期異動由 {@link BeverageEntityListener} 自動記錄
+ * - 批量 UPDATE/DELETE 不會觸發實體監聽器，需由呼叫端明確記錄
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryChangePublisher {
+    
+    private final ObjectProvider<InventoryChangeListener> listeners;
+    
+    /**
+     * 延遲取得：實體監聽器（由 EntityManagerFactory 建立）依賴發布器
+     */
+    private final ObjectProvider<BeverageRepository> beverageRepository;
+    
+    /**
+     * 記錄批次新增或更新
+     */
+    public void lotSaved(Beverage beverage) {
+        record(InventoryChange.upsert(LotSnapshot.of(beverage)));
+    }
+    
+    /**
+     * 記錄多個批次更新（用於批量 UPDATE 之後重新載入的實體）
+     */
+    public void lotsSaved(Collection<Beverage> beverages) {
+        beverages.forEach(this::lotSaved);
+    }
+    
+    /**
+     * 記錄批次移除
+     */
+    public void lotRemoved(Long lotId) {
+        record(InventoryChange.remove(lotId));
+    }
+    
+    /**
+     * 記錄多個批次移除（用於批量 DELETE）
+     */
+    public void lotsRemoved(Collection<Long> lotIds) {
+        lotIds.forEach(this::lotRemoved);
+    }
+    
+    /**
+     * 通知所有監聽器從資料庫重建狀態
+     * 所有批次只載入一次並交給每個監聽器；載入前所有監聽器先開始記錄期間到達的異動
+     * 某個監聽器重建失敗時其他監聽器仍完成重建，最後拋出第一個例外
+     */
+    public void rebuildAll() {
+        List<InventoryChangeListener> all = listeners.orderedStream().toList();
+        List<InventoryChangeListener> begun = new ArrayList<>();
+        List<LotSnapshot> lots;
+        try {
+            for (InventoryChangeListener listener : all) {
+                listener.beginRebuild();
+                begun.add(listener);
+            }
+            lots = beverageRepository.getObject().findAll().stream().map(LotSnapshot::of).toList();
+        } catch (RuntimeException e) {
+            begun.forEach(InventoryChangeListener::abortRebuild);
+            throw e;
+        }
+        RuntimeException failure = null;
+        for (InventoryChangeListener listener : all) {
+            try {
+                listener.rebuild(lots);
+            } catch (RuntimeException e) {
+                log.error("庫存異動監聽器重建失敗: {}", listener.getClass().getSimpleName(), e);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    private void record(InventoryChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(List.of(change));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.put(change.lotId(), change);
+    }
+    
+    private void dispatch(List<InventoryChange> changes) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onInventoryChanges(changes);
+            } catch (RuntimeException e) {
+                // 監聽器失敗不影響已提交的交易，由各監聽器的定期重建修正
+                log.error("庫存異動監聽器處理失敗: {}", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+    
+    /**
+     * 單一交易內尚未提交的異動（同一批次只保留最後狀態）
+     */
+    private class PendingChanges implements TransactionSynchronization {
+        
+        private final Map<Long, InventoryChange> changes = new LinkedHashMap<>();
+        
+        @Override
+        public void afterCommit() {
+            if (!changes.isEmpty()) {
+                dispatch(List.copyOf(changes.values()));
+            }
+        }
+        
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventoryChangePublisher.this);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.beveragewarehouse.event;
+
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 由已提交的庫存異動維護的記憶體批次索引
+ *
+ * 子類別只實作索引本身（{@link #reset}、{@link #put}、{@link #remove}），重建與套用異動的流程在這裡：
+ * - 異動在寫入鎖下依序套用；已移除的批次記為墓碑，延遲到達的舊 UPSERT 不會讓批次復活
+ * - 不同交易的 afterCommit 順序不保證與提交順序一致，{@link #isStale} 為 true 的 UPSERT 略過
+ * - 重建：先開始記錄期間到達的異動，再從資料庫載入所有批次，替換後重新套用記錄的異動；
+ *   墓碑在重建時清空，子類別以定期對帳（重建）限制墓碑數量並修正與資料庫的差異
+ * - 重建之間互斥（定期對帳與 rebuildAll 可能同時觸發）；rebuildAll 時從 {@link #beginRebuild} 持有到
+ *   {@link #rebuild(List)} 或 {@link #abortRebuild} 為止，批次由 rebuildAll 載入一次
+ *
+ * 啟動時載入一次；子類別讀取索引時取得 {@link #lock} 的讀取鎖
+ */
+@Slf4j
+public abstract class RebuildableLotIndex implements InventoryChangeListener, SmartInitializingSingleton {
+
+    private final BeverageRepository beverageRepository;
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ReentrantLock rebuildMutex = new ReentrantLock();
+
+    /**
+     * 已移除的批次，重建時清空
+     */
+    private final Set<Long> tombstones = new HashSet<>();
+
+    /**
+     * 重建進行中時到達的異動，替換後重新套用
+     */
+    private List<InventoryChange> duringRebuild;
+
+    protected RebuildableLotIndex(BeverageRepository beverageRepository) {
+        this.beverageRepository = beverageRepository;
+    }
+
+    /**
+     * 清空索引（呼叫端持有寫入鎖）
+     */
+    protected abstract void reset();
+
+    /**
+     * 加入或取代批次（呼叫端持有寫入鎖）
+     */
+    protected abstract void put(LotSnapshot lot);
+
+    /**
+     * 移除批次，不在索引中時不做任何事（呼叫端持有寫入鎖）
+     */
+    protected abstract void remove(Long lotId);
+
+    /**
+     * 傳入的狀態是否比索引中的舊（呼叫端持有寫入鎖）；不保存版本的索引一律接受
+     */
+    protected boolean isStale(LotSnapshot incoming) {
+        return false;
+    }
+
+    /**
+     * 一批異動或重建套用完成後呼叫（呼叫端持有寫入鎖）
+     */
+    protected void afterApply() {
+    }
+
+    /**
+     * 停用時不載入、也不處理異動
+     */
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @Override
+    public void onInventoryChanges(List<InventoryChange> changes) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (InventoryChange change : changes) {
+                apply(change);
+            }
+            if (duringRebuild != null) {
+                duringRebuild.addAll(changes);
+            }
+            afterApply();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 從資料庫重新載入
+     */
+    @Override
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        beginRebuild();
+        List<LotSnapshot> lots;
+        try {
+            lots = beverageRepository.findAll().stream().map(LotSnapshot::of).toList();
+        } catch (RuntimeException e) {
+            abortRebuild();
+            throw e;
+        }
+        rebuild(lots);
+    }
+
+    @Override
+    public void beginRebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        rebuildMutex.lock();
+        lock.writeLock().lock();
+        try {
+            duringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(List<LotSnapshot> lots) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                List<InventoryChange> replay = duringRebuild;
+                duringRebuild = null;
+                tombstones.clear();
+                reset();
+                for (LotSnapshot lot : lots) {
+                    put(lot);
+                }
+                for (InventoryChange change : replay) {
+                    apply(change);
+                }
+                afterApply();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildMutex.unlock();
+        }
+        log.debug("{} 已重建，批次數: {}", getClass().getSimpleName(), lots.size());
+    }
+
+    @Override
+    public void abortRebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildMutex.unlock();
+        }
+    }
+
+    protected static boolean isOlder(LocalDateTime incoming, LocalDateTime existing) {
+        return incoming != null && existing != null && incoming.isBefore(existing);
+    }
+
+    private void apply(InventoryChange change) {
+        if (change.type() == InventoryChange.Type.REMOVE) {
+            remove(change.lotId());
+            tombstones.add(change.lotId());
+            return;
+        }
+        if (tombstones.contains(change.lotId()) || isStale(change.lot())) {
+            return;
+        }
+        put(change.lot());
+    }
+}
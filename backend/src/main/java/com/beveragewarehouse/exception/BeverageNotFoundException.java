@@ -0,0 +1,27 @@
+package com.beveragewarehouse.exception;
+
+/**
+ * 找不到指定的批次 → 404
+ */
+public class BeverageNotFoundException extends WarehouseException {
+    
+    private final Long id;
+    
+    public BeverageNotFoundException(Long id) {
+        this.id = id;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public String getMessage() {
+        return "飲料不存在，ID: " + id;
+    }
+    
+    @Override
+    public String getErrorCode() {
+        return "BEVERAGE_NOT_FOUND";
+    }
+}
@@ -0,0 +1,23 @@
+package com.beveragewarehouse.exception;
+
+/**
+ * 違反業務規則（例如一次入庫超過 100 瓶）→ 422
+ */
+public class BusinessRuleViolationException extends WarehouseException {
+    
+    private final String rule;
+    
+    public BusinessRuleViolationException(String rule, String message) {
+        super(message);
+        this.rule = rule;
+    }
+    
+    public String getRule() {
+        return rule;
+    }
+    
+    @Override
+    public String getErrorCode() {
+        return rule;
+    }
+}
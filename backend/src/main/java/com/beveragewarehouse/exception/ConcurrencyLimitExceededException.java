@@ -0,0 +1,28 @@
+package com.beveragewarehouse.exception;
+
+/**
+ * 併發上限已滿（負載削減）
+ * 
+ * 出入庫的併發數已達自適應上限，且該商品的等待佇列已滿或等待逾時；
+ * 對應 HTTP 429，並以 Retry-After 告知用戶端稍後重試
+ * 
+ * 高負載下每秒可能拋出上千次，與其他業務例外一樣不擷取堆疊追蹤
+ */
+public class ConcurrencyLimitExceededException extends WarehouseException {
+    
+    private final long retryAfterSeconds;
+    
+    public ConcurrencyLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    @Override
+    public String getErrorCode() {
+        return "CONCURRENCY_LIMIT_EXCEEDED";
+    }
+}
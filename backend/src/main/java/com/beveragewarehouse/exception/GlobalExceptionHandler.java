@@ -0,0 +1,88 @@
+package com.beveragewarehouse.exception;
+
+import com.beveragewarehouse.dto.ErrorResponseDTO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 全域例外處理
+ * 
+ * 將業務例外對應到 HTTP 狀態碼，並回應結構化的 {@link ErrorResponseDTO}：
+ * - 404：找不到批次
+ * - 409：庫存不足
+ * - 422：狀態轉換不允許、違反業務規則
+ * - 429：併發上限已滿（附 Retry-After）
+ * - 400：請求欄位驗證失敗
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+    
+    @ExceptionHandler(BeverageNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleNotFound(BeverageNotFoundException e) {
+        return error(HttpStatus.NOT_FOUND, e, Map.of("id", e.getId()));
+    }
+    
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInsufficientStock(InsufficientStockException e) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("name", e.getName());
+        details.put("warehouse", e.getWarehouse());
+        details.put("requested", e.getRequested());
+        details.put("available", e.getAvailable());
+        return error(HttpStatus.CONFLICT, e, details);
+    }
+    
+    @ExceptionHandler(InvalidStateTransitionException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidStateTransition(InvalidStateTransitionException e) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("id", e.getId());
+        details.put("from", e.getFrom());
+        details.put("to", e.getTo());
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e, details);
+    }
+    
+    @ExceptionHandler(BusinessRuleViolationException.class)
+    public ResponseEntity<ErrorResponseDTO> handleBusinessRuleViolation(BusinessRuleViolationException e) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e, Map.of());
+    }
+    
+    /**
+     * 併發上限已滿 → 429 Too Many Requests + Retry-After
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException e) {
+        ResponseEntity<ErrorResponseDTO> response = error(HttpStatus.TOO_MANY_REQUESTS, e,
+                Map.of("retryAfterSeconds", e.getRetryAfterSeconds()));
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+    
+    /**
+     * 請求欄位驗證失敗 → 400，details 為欄位與錯誤訊息
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponseDTO> handleValidation(MethodArgumentNotValidException e) {
+        Map<String, Object> fieldErrors = new LinkedHashMap<>();
+        for (FieldError fieldError : e.getBindingResult().getFieldErrors()) {
+            fieldErrors.putIfAbsent(fieldError.getField(), fieldError.getDefaultMessage());
+        }
+        String message = fieldErrors.isEmpty() ? "請求格式錯誤" : String.valueOf(fieldErrors.values().iterator().next());
+        return ResponseEntity.badRequest().body(new ErrorResponseDTO(
+                HttpStatus.BAD_REQUEST.value(), "VALIDATION_FAILED", message, fieldErrors, LocalDateTime.now()));
+    }
+    
+    private ResponseEntity<ErrorResponseDTO> error(HttpStatus status, WarehouseException e, Map<String, Object> details) {
+        return ResponseEntity.status(status).body(new ErrorResponseDTO(
+                status.value(), e.getErrorCode(), e.getMessage(), details, LocalDateTime.now()));
+    }
+}
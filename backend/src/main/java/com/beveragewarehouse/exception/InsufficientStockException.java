@@ -0,0 +1,50 @@
+package com.beveragewarehouse.exception;
+
+/**
+ * 可用庫存不足 → 409
+ * 
+ * 高爭用下的常見結果，訊息在需要時才組成（例如寫入回應時），拋出本身不做字串串接
+ */
+public class InsufficientStockException extends WarehouseException {
+    
+    private final String name;
+    private final String warehouse;
+    private final int requested;
+    private final int available;
+    
+    public InsufficientStockException(String name, String warehouse, int requested, int available) {
+        this.name = name;
+        this.warehouse = warehouse;
+        this.requested = requested;
+        this.available = available;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getWarehouse() {
+        return warehouse;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+    
+    public int getAvailable() {
+        return available;
+    }
+    
+    @Override
+    public String getMessage() {
+        if (available == 0) {
+            return "倉庫 " + warehouse + " 沒有可用的 " + name + " 庫存";
+        }
+        return "庫存不足，無法出庫 " + requested + " 瓶 " + name + "（倉庫 " + warehouse + " 可用 " + available + " 瓶）";
+    }
+    
+    @Override
+    public String getErrorCode() {
+        return "INSUFFICIENT_STOCK";
+    }
+}
@@ -0,0 +1,41 @@
+package com.beveragewarehouse.exception;
+
+import com.beveragewarehouse.model.BeverageStatus;
+
+/**
+ * 批次狀態不允許此操作（例如報廢非隔離區商品）→ 422
+ */
+public class InvalidStateTransitionException extends WarehouseException {
+    
+    private final Long id;
+    private final BeverageStatus from;
+    private final BeverageStatus to;
+    
+    public InvalidStateTransitionException(Long id, BeverageStatus from, BeverageStatus to) {
+        this.id = id;
+        this.from = from;
+        this.to = to;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public BeverageStatus getFrom() {
+        return from;
+    }
+    
+    public BeverageStatus getTo() {
+        return to;
+    }
+    
+    @Override
+    public String getMessage() {
+        return "批次 " + id + " 目前狀態為 " + from + "，無法轉換為 " + to;
+    }
+    
+    @Override
+    public String getErrorCode() {
+        return "INVALID_STATE_TRANSITION";
+    }
+}
@@ -0,0 +1,24 @@
+package com.beveragewarehouse.exception;
+
+/**
+ * 倉庫業務例外的共同父類別
+ * 
+ * 業務失敗（庫存不足、找不到商品、狀態不允許等）是預期中的結果，不是程式錯誤：
+ * - 不擷取堆疊追蹤（writableStackTrace = false），高頻拒絕時不需要走訪整個呼叫堆疊
+ * - 由 {@link GlobalExceptionHandler} 對應到 HTTP 狀態碼與結構化錯誤回應
+ */
+public abstract class WarehouseException extends RuntimeException {
+    
+    protected WarehouseException() {
+        super(null, null, false, false);
+    }
+    
+    protected WarehouseException(String message) {
+        super(message, null, false, false);
+    }
+    
+    /**
+     * 錯誤代碼（回應中的 code 欄位，供用戶端判斷）
+     */
+    public abstract String getErrorCode();
+}
@@ -0,0 +1,16 @@
+package com.beveragewarehouse.model;
+
+/**
+ * 出庫配貨策略
+ * 
+ * - FEFO：最早過期的批次優先（預設）
+ * - FIFO：最早入庫（createdAt）的批次優先
+ * - FEWEST_LOTS：數量最多的批次優先，扣減（改寫或刪除）的批次數最少
+ * - SINGLE_LOT：優先由單一批次出完（最早過期且數量足夠的批次），沒有足夠的批次時依 FEFO
+ */
+public enum AllocationPolicy {
+    FEFO,
+    FIFO,
+    FEWEST_LOTS,
+    SINGLE_LOT
+}
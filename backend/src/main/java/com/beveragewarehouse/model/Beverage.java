@@ -1,5 +1,6 @@
 package com.beveragewarehouse.model;
 
+import com.beveragewarehouse.event.BeverageEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,26 +14,56 @@ import java.time.LocalDateTime;
  * 
  * 儲存飲料庫存資訊，包含：
  * - 基本資訊（名稱、數量）
+ * - 存放位置（倉庫、儲位）
  * - 有效期管理
  * - 入庫/出庫時間
  */
 @Entity
-@Table(name = "beverages")
+@EntityListeners(BeverageEntityListener.class)
+@Table(name = "beverages", indexes = {
+        @Index(name = "idx_beverages_product_allocation", columnList = "warehouse, product_id, status, expiry_date"),
+        @Index(name = "idx_beverages_warehouse_status", columnList = "warehouse, status"),
+        @Index(name = "idx_beverages_product_production", columnList = "product_id, production_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Beverage {
     
+    /**
+     * 預設倉庫代碼（未指定倉庫時使用）
+     */
+    public static final String DEFAULT_WAREHOUSE = "MAIN";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
     /**
-     * 飲料名稱（目前只支援礦泉水）
+     * 飲料名稱（目前只支援礦泉水），與商品的正規化名稱一致
      */
     @Column(nullable = false, length = 100)
     private String name;
     
+    /**
+     * 商品 ID（{@link Product}），出庫加鎖與配貨以此為鍵
+     * NOT NULL 並以外鍵 fk_beverages_product 參照 products；既有資料表由 ProductMigration 補齊後加上這兩個限制
+     */
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+    
+    /**
+     * 倉庫代碼（實體站點），出庫時只在同一倉庫內加鎖與配貨
+     */
+    @Column(nullable = false, length = 32)
+    private String warehouse = DEFAULT_WAREHOUSE;
+    
+    /**
+     * 儲位（可選）
+     */
+    @Column(length = 32)
+    private String bin;
+    
     /**
      * 庫存數量
      */
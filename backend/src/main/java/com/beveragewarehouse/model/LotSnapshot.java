@@ -0,0 +1,68 @@
+package com.beveragewarehouse.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 批次快照（不可變）
+ * 
+ * 已提交的 {@link Beverage} 狀態副本，供記憶體中的讀取模型使用，
+ * 不持有 Hibernate Session，可以安全地在執行緒之間共享
+ */
+public record LotSnapshot(
+        Long id,
+        Integer productId,
+        String name,
+        String warehouse,
+        String bin,
+        int quantity,
+        LocalDate productionDate,
+        LocalDate expiryDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        BeverageStatus status,
+        String disposalReason,
+        LocalDateTime disposedAt
+) {
+    
+    public static LotSnapshot of(Beverage beverage) {
+        return new LotSnapshot(
+                beverage.getId(),
+                beverage.getProductId(),
+                beverage.getName(),
+                beverage.getWarehouse(),
+                beverage.getBin(),
+                beverage.getQuantity(),
+                beverage.getProductionDate(),
+                beverage.getExpiryDate(),
+                beverage.getCreatedAt(),
+                beverage.getUpdatedAt(),
+                beverage.getStatus(),
+                beverage.getDisposalReason(),
+                beverage.getDisposedAt()
+        );
+    }
+    
+    /**
+     * 以指定日期判斷是否已過期
+     */
+    public boolean isExpiredOn(LocalDate today) {
+        return today.isAfter(expiryDate);
+    }
+    
+    /**
+     * 以指定日期計算距離過期還剩幾天
+     */
+    public long daysUntilExpiry(LocalDate today) {
+        return ChronoUnit.DAYS.between(today, expiryDate);
+    }
+    
+    /**
+     * 以指定日期判斷是否即將過期（7 天內）
+     */
+    public boolean isExpiringSoonOn(LocalDate today) {
+        long days = daysUntilExpiry(today);
+        return days >= 0 && days <= 7;
+    }
+}
@@ -0,0 +1,58 @@
+package com.beveragewarehouse.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+
+/**
+ * 商品實體類別
+ * 
+ * 每個商品名稱（正規化後）對應一個精簡的整數 ID，
+ * 批次以 {@link Beverage#getProductId()} 參照商品，出庫加鎖、配貨與索引都以商品 ID 為鍵
+ */
+@Entity
+@Table(name = "products", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_products_name", columnNames = "name")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Product {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    /**
+     * 正規化後的商品名稱（見 {@link #normalizeName(String)}）
+     */
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public Product(String name) {
+        this.name = normalizeName(name);
+    }
+    
+    /**
+     * 商品名稱正規化：NFKC（全形英數字與空白轉半形）、去除前後空白、連續空白合併為一個
+     * 例如 "礦泉水 "、"　礦泉水" 都視為 "礦泉水"
+     */
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return Normalizer.normalize(name, Normalizer.Form.NFKC).strip().replaceAll("\\s+", " ");
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
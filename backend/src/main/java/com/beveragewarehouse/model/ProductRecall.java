@@ -0,0 +1,65 @@
+package com.beveragewarehouse.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 商品召回實體類別
+ * 
+ * 供應商召回某商品在生產日期區間內（包含兩端）的所有批次：
+ * 受影響的批次不論有效期限一律隔離，召回生效後入庫的同區間批次也直接進入隔離區
+ */
+@Entity
+@Table(name = "product_recalls", indexes = {
+        @Index(name = "idx_product_recalls_product", columnList = "product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRecall {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+    
+    @Column(nullable = false)
+    private LocalDate productionFrom;
+    
+    @Column(nullable = false)
+    private LocalDate productionTo;
+    
+    @Column(length = 500)
+    private String reason;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    public ProductRecall(Integer productId, LocalDate productionFrom, LocalDate productionTo, String reason) {
+        this.productId = productId;
+        this.productionFrom = productionFrom;
+        this.productionTo = productionTo;
+        this.reason = reason;
+    }
+    
+    /**
+     * 指定商品、生產日期的批次是否在召回範圍內
+     */
+    public boolean covers(Integer productId, LocalDate productionDate) {
+        return this.productId.equals(productId)
+                && !productionDate.isBefore(productionFrom)
+                && !productionDate.isAfter(productionTo);
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
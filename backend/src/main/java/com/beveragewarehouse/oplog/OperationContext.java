@@ -0,0 +1,63 @@
+package com.beveragewarehouse.oplog;
+
+/**
+ * 單一請求的操作摘要（目前執行緒）
+ *
+ * 只有被取樣的請求才會建立；未取樣時各記錄方法只是一次 ThreadLocal 讀取
+ */
+public final class OperationContext {
+
+    private static final ThreadLocal<OperationContext> CURRENT = new ThreadLocal<>();
+
+    private final String operation;
+    private final long startNanos = System.nanoTime();
+    private int statements;
+    private int rowsTouched;
+
+    private OperationContext(String operation) {
+        this.operation = operation;
+    }
+
+    static void begin(String operation) {
+        CURRENT.set(new OperationContext(operation));
+    }
+
+    /**
+     * 結束目前執行緒的操作並回傳摘要（未取樣時為 null）
+     */
+    static OperationContext end() {
+        OperationContext context = CURRENT.get();
+        CURRENT.remove();
+        return context;
+    }
+
+    static void recordStatement() {
+        OperationContext context = CURRENT.get();
+        if (context != null) {
+            context.statements++;
+        }
+    }
+
+    static void recordRows(int rows) {
+        OperationContext context = CURRENT.get();
+        if (context != null) {
+            context.rowsTouched += rows;
+        }
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getRowsTouched() {
+        return rowsTouched;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,52 @@
+package com.beveragewarehouse.oplog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 執行期間調整操作日誌：
+ * - GET  /actuator/oplog：目前設定
+ * - POST /actuator/oplog {"enabled": false}：停用
+ * - POST /actuator/oplog {"operation": "stockOut", "sampleRate": 0.05}：調整單一操作的取樣率
+ * - POST /actuator/oplog {"sampleRate": 0.5}：調整預設取樣率
+ *
+ * 管理端點在獨立的管理埠上，只接受本機連線（management.server.port / address）
+ */
+@Endpoint(id = "oplog")
+@RequiredArgsConstructor
+public class OperationLogEndpoint {
+
+    private final OperationLogSettings settings;
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", settings.isEnabled());
+        result.put("defaultSampleRate", settings.getDefaultSampleRate());
+        result.put("sampleRates", settings.getSampleRates());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled,
+                                         @Nullable String operation,
+                                         @Nullable Double sampleRate) {
+        if (enabled != null) {
+            settings.setEnabled(enabled);
+        }
+        if (sampleRate != null) {
+            if (operation == null) {
+                settings.setDefaultSampleRate(sampleRate);
+            } else {
+                settings.setSampleRate(operation, sampleRate);
+            }
+        }
+        return settings();
+    }
+}
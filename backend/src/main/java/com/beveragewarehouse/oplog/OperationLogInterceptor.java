@@ -0,0 +1,53 @@
+package com.beveragewarehouse.oplog;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 操作日誌（結構化、取樣、非同步）
+ *
+ * 對寫入 API（非 GET）依操作名稱取樣，請求結束時輸出一行摘要：
+ * op=stockOut status=200 durationMs=12 statements=4 rows=3
+ *
+ * 寫入 "operations" logger，由 logback-spring.xml 中的非同步環形緩衝 appender 輸出，
+ * 佇列滿時直接丟棄，不會阻塞請求執行緒。停用方式：
+ * - /actuator/oplog 設定 enabled=false 或調整取樣率
+ * - /actuator/loggers/operations 設定為 OFF
+ */
+@Slf4j(topic = "operations")
+@Component
+@RequiredArgsConstructor
+public class OperationLogInterceptor implements HandlerInterceptor {
+
+    private final OperationLogSettings settings;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod
+                && !"GET".equals(request.getMethod())
+                && log.isInfoEnabled()) {
+            String operation = handlerMethod.getMethod().getName();
+            if (settings.shouldSample(operation)) {
+                OperationContext.begin(operation);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        OperationContext context = OperationContext.end();
+        if (context == null) {
+            return;
+        }
+        log.info("op={} status={} durationMs={} statements={} rows={}",
+                context.getOperation(), response.getStatus(), context.elapsedMillis(),
+                context.getStatements(), context.getRowsTouched());
+    }
+}
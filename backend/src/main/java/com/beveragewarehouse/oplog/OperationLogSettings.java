@@ -0,0 +1,83 @@
+package com.beveragewarehouse.oplog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 操作日誌設定（可在執行期間透過 /actuator/oplog 調整）
+ *
+ * sample-rates 以「操作名稱=取樣率」逗號分隔，例如 stockOut=0.1,stockIn=1；
+ * 操作名稱為 Controller 方法名稱，未列出的操作使用 default-sample-rate
+ */
+@Component
+public class OperationLogSettings {
+
+    private volatile boolean enabled;
+    private volatile double defaultSampleRate;
+    private final Map<String, Double> sampleRates = new ConcurrentHashMap<>();
+
+    public OperationLogSettings(
+            @Value("${warehouse.oplog.enabled:true}") boolean enabled,
+            @Value("${warehouse.oplog.default-sample-rate:1.0}") double defaultSampleRate,
+            @Value("${warehouse.oplog.sample-rates:}") String sampleRates) {
+        this.enabled = enabled;
+        this.defaultSampleRate = checkRate(defaultSampleRate);
+        for (String entry : sampleRates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("取樣率格式錯誤（應為 操作=取樣率）: " + entry);
+            }
+            setSampleRate(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+    }
+
+    /**
+     * 這次操作是否要記錄
+     */
+    public boolean shouldSample(String operation) {
+        if (!enabled) {
+            return false;
+        }
+        double rate = sampleRates.getOrDefault(operation, defaultSampleRate);
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getDefaultSampleRate() {
+        return defaultSampleRate;
+    }
+
+    public void setDefaultSampleRate(double defaultSampleRate) {
+        this.defaultSampleRate = checkRate(defaultSampleRate);
+    }
+
+    public void setSampleRate(String operation, double rate) {
+        sampleRates.put(operation, checkRate(rate));
+    }
+
+    public Map<String, Double> getSampleRates() {
+        return new TreeMap<>(sampleRates);
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("取樣率必須介於 0 與 1 之間: " + rate);
+        }
+        return rate;
+    }
+}
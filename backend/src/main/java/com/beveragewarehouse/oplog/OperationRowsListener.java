@@ -0,0 +1,21 @@
+package com.beveragewarehouse.oplog;
+
+import com.beveragewarehouse.event.InventoryChange;
+import com.beveragewarehouse.event.InventoryChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 由庫存異動計算操作影響的批次數
+ *
+ * 交易提交後的通知在寫入請求的執行緒上執行，因此可以直接累加到目前的操作摘要
+ */
+@Component
+public class OperationRowsListener implements InventoryChangeListener {
+
+    @Override
+    public void onInventoryChanges(List<InventoryChange> changes) {
+        OperationContext.recordRows(changes.size());
+    }
+}
@@ -0,0 +1,15 @@
+package com.beveragewarehouse.oplog;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 計算目前操作送出的 SQL 陳述式數量（不修改 SQL，也不記錄 SQL 內容）
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        OperationContext.recordStatement();
+        return sql;
+    }
+}
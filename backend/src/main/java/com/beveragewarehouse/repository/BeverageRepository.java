@@ -1,14 +1,19 @@
 package com.beveragewarehouse.repository;
 
 import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,13 +23,18 @@ import java.util.Optional;
  * 使用悲觀鎖（Pessimistic Locking）確保高併發下的資料一致性
  */
 @Repository
-public interface BeverageRepository extends JpaRepository<Beverage, Long> {
+public interface BeverageRepository extends JpaRepository<Beverage, Long>, BeverageRepositoryCustom {
     
     /**
      * 根據名稱查詢飲料
      */
     List<Beverage> findByName(String name);
     
+    /**
+     * 根據倉庫查詢飲料
+     */
+    List<Beverage> findByWarehouse(String warehouse);
+    
     /**
      * 根據 ID 查詢並加鎖（悲觀鎖）
      * 用於高併發場景下的資料一致性保證
@@ -45,6 +55,67 @@ public interface BeverageRepository extends JpaRepository<Beverage, Long> {
     @Query("SELECT b FROM Beverage b WHERE b.expiryDate < :today")
     List<Beverage> findExpiredBeverages(LocalDate today);
     
+    /**
+     * 查詢已過期但仍為 NORMAL 狀態的商品 ID（用於批量隔離）
+     */
+    @Query("SELECT b.id FROM Beverage b WHERE b.status = 'NORMAL' AND b.expiryDate < :today")
+    List<Long> findExpiredNormalIds(@Param("today") LocalDate today);
+    
+    /**
+     * 批量更新狀態（只更新目前狀態為 expected 的批次）
+     * 先 flush 尚未送出的異動，執行後清空持久化內容，避免讀到舊的實體狀態
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Beverage b SET b.status = :status, b.updatedAt = :now WHERE b.id IN :ids AND b.status = :expected")
+    int updateStatusByIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("expected") BeverageStatus expected,
+            @Param("status") BeverageStatus status,
+            @Param("now") LocalDateTime now
+    );
+    
+    /**
+     * 批量報廢（只更新目前狀態為 QUARANTINED 的批次）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Beverage b SET b.status = 'DISPOSED', b.disposalReason = :reason, b.disposedAt = :now, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = 'QUARANTINED'")
+    int disposeByIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("reason") String reason,
+            @Param("now") LocalDateTime now
+    );
+    
+    /**
+     * 有效期限早於指定日期的隔離批次 ID（用於批量報廢）
+     */
+    @Query("SELECT b.id FROM Beverage b WHERE b.status = 'QUARANTINED' AND b.expiryDate < :before ORDER BY b.id")
+    List<Long> findQuarantinedIdsExpiredBefore(@Param("before") LocalDate before);
+    
+    /**
+     * 商品在生產日期區間內（包含兩端）的所有批次 ID（用於召回，使用 idx_beverages_product_production）
+     */
+    @Query("SELECT b.id FROM Beverage b WHERE b.productId = :productId " +
+           "AND b.productionDate BETWEEN :from AND :to ORDER BY b.id")
+    List<Long> findIdsByProductionDateBetween(
+            @Param("productId") int productId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+    
+    /**
+     * 報廢時間早於 cutoff 的批次 ID（用於封存，依 ID 排序分頁）
+     */
+    @Query("SELECT b.id FROM Beverage b WHERE b.status = 'DISPOSED' AND b.disposedAt < :cutoff ORDER BY b.id")
+    List<Long> findDisposedIdsBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * 批量刪除（用於出庫時整批扣完的批次）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Beverage b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
     /**
      * 查詢隔離區中的商品（QUARANTINED 狀態）
      */
@@ -64,14 +135,37 @@ public interface BeverageRepository extends JpaRepository<Beverage, Long> {
     List<Beverage> findExpiringSoonBeverages(LocalDate today, LocalDate sevenDaysLater);
     
     /**
-     * 根據名稱和有效期限查詢（用於出庫時選擇最早過期的）
+     * 根據倉庫、商品和有效期限查詢（用於出庫時選擇最早過期的）
      * 使用悲觀鎖確保高併發下的資料一致性
      * 只查詢 NORMAL 狀態的商品（過期商品已隔離，不能出庫）
+     * 只鎖定指定倉庫內的批次，不同倉庫的出庫可以完全並行
+     * 以整數商品 ID 查詢（索引 idx_beverages_product_allocation），不比對名稱字串
      */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT b FROM Beverage b WHERE b.name = :name AND b.quantity > 0 AND b.expiryDate >= :today AND b.status = 'NORMAL' ORDER BY b.expiryDate ASC")
-    List<Beverage> findAvailableBeveragesByNameOrderByExpiryWithLock(
-            @Param("name") String name, 
+    @Query("SELECT b FROM Beverage b WHERE b.warehouse = :warehouse AND b.productId = :productId AND b.quantity > 0 AND b.expiryDate >= :today AND b.status = 'NORMAL' ORDER BY b.expiryDate ASC")
+    List<Beverage> findAvailableBeveragesByProductOrderByExpiryWithLock(
+            @Param("productId") Integer productId,
+            @Param("warehouse") String warehouse,
+            @Param("today") LocalDate today
+    );
+    
+    /**
+     * 可出庫批次的候選清單（不加鎖，依有效期限、ID 排序），用於逐批鎖定配貨
+     */
+    @Query("SELECT b.id AS id, b.expiryDate AS expiryDate, b.quantity AS quantity, b.createdAt AS createdAt FROM Beverage b WHERE b.warehouse = :warehouse AND b.productId = :productId AND b.quantity > 0 AND b.expiryDate >= :today AND b.status = 'NORMAL' ORDER BY b.expiryDate ASC, b.id ASC")
+    List<LotCandidate> findAllocationCandidates(
+            @Param("productId") Integer productId,
+            @Param("warehouse") String warehouse,
+            @Param("today") LocalDate today
+    );
+    
+    /**
+     * 可出庫數量合計（條件與配貨相同，不加鎖）
+     */
+    @Query("SELECT COALESCE(SUM(b.quantity), 0) FROM Beverage b WHERE b.warehouse = :warehouse AND b.productId = :productId AND b.quantity > 0 AND b.expiryDate >= :today AND b.status = 'NORMAL'")
+    long sumAvailableQuantity(
+            @Param("productId") Integer productId,
+            @Param("warehouse") String warehouse,
             @Param("today") LocalDate today
     );
     
@@ -83,5 +177,33 @@ public interface BeverageRepository extends JpaRepository<Beverage, Long> {
             @Param("name") String name, 
             @Param("today") LocalDate today
     );
+    
+    /**
+     * 尚未有商品 ID 的批次名稱（商品 ID 遷移用）
+     */
+    @Query("SELECT DISTINCT b.name FROM Beverage b WHERE b.productId IS NULL")
+    List<String> findNamesWithoutProduct();
+    
+    /**
+     * 為指定名稱且尚未有商品 ID 的批次補上商品 ID 與正規化名稱（商品 ID 遷移用）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Beverage b SET b.productId = :productId, b.name = :normalizedName WHERE b.name = :name AND b.productId IS NULL")
+    int assignProduct(
+            @Param("name") String name,
+            @Param("productId") Integer productId,
+            @Param("normalizedName") String normalizedName
+    );
+    
+    /**
+     * 各倉庫庫存統計（單一聚合查詢，不載入實體）
+     */
+    @Query("SELECT b.warehouse AS warehouse, COUNT(b) AS totalItems, COALESCE(SUM(b.quantity), 0) AS totalQuantity, " +
+           "COALESCE(SUM(CASE WHEN b.expiryDate < :today THEN b.quantity ELSE 0 END), 0) AS expiredQuantity, " +
+           "COALESCE(SUM(CASE WHEN b.expiryDate BETWEEN :today AND :sevenDaysLater THEN b.quantity ELSE 0 END), 0) AS expiringSoonQuantity " +
+           "FROM Beverage b GROUP BY b.warehouse ORDER BY b.warehouse")
+    List<WarehouseStatistics> summarizeByWarehouse(
+            @Param("today") LocalDate today,
+            @Param("sevenDaysLater") LocalDate sevenDaysLater
+    );
 }
-
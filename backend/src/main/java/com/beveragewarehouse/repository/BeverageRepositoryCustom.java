@@ -0,0 +1,25 @@
+package com.beveragewarehouse.repository;
+
+import com.beveragewarehouse.model.Beverage;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * 逐批鎖定的配貨查詢（需要動態鎖逾時，無法以 @Query 宣告）
+ * 
+ * 以主鍵鎖定單一批次，並重新確認批次仍可出庫（數量、有效期限、狀態）；
+ * H2 在需要排序的 FOR UPDATE 查詢中會鎖定所有掃描到的列，因此不以 ORDER BY ... LIMIT 1 鎖定
+ */
+public interface BeverageRepositoryCustom {
+    
+    /**
+     * 鎖定批次；已被其他交易鎖定或已不可出庫時回傳 empty，不等待（SKIP LOCKED）
+     */
+    Optional<Beverage> lockAvailableLotSkipLocked(Long id, LocalDate today);
+    
+    /**
+     * 鎖定批次；已被其他交易鎖定時最多等待 lockTimeoutMillis 毫秒，已不可出庫時回傳 empty
+     */
+    Optional<Beverage> lockAvailableLot(Long id, LocalDate today, long lockTimeoutMillis);
+}
@@ -0,0 +1,49 @@
+package com.beveragewarehouse.repository;
+
+import com.beveragewarehouse.model.Beverage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link BeverageRepositoryCustom} 實作
+ */
+class BeverageRepositoryImpl implements BeverageRepositoryCustom {
+    
+    private static final String LOCK_TIMEOUT_HINT = "jakarta.persistence.lock.timeout";
+    
+    /**
+     * Hibernate 的 SKIP LOCKED 逾時值（LockOptions.SKIP_LOCKED）
+     */
+    private static final int SKIP_LOCKED = -2;
+    
+    private static final String AVAILABLE_LOT_BY_ID = "SELECT b FROM Beverage b WHERE b.id = :id"
+            + " AND b.quantity > 0 AND b.expiryDate >= :today AND b.status = 'NORMAL'";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Beverage> lockAvailableLotSkipLocked(Long id, LocalDate today) {
+        return lockAvailableLot(id, today, SKIP_LOCKED);
+    }
+    
+    @Override
+    public Optional<Beverage> lockAvailableLot(Long id, LocalDate today, long lockTimeoutMillis) {
+        return lockAvailableLot(id, today, (int) Math.min(Integer.MAX_VALUE, lockTimeoutMillis));
+    }
+    
+    private Optional<Beverage> lockAvailableLot(Long id, LocalDate today, int lockTimeout) {
+        List<Beverage> result = entityManager.createQuery(AVAILABLE_LOT_BY_ID, Beverage.class)
+                .setParameter("id", id)
+                .setParameter("today", today)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT_HINT, lockTimeout)
+                .getResultList();
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
+    }
+}
@@ -0,0 +1,19 @@
+package com.beveragewarehouse.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 配貨候選批次（不加鎖讀取，只含決定鎖定順序需要的欄位）
+ * 數量為讀取當時的值，鎖定後以鎖定的實體為準
+ */
+public interface LotCandidate {
+    
+    Long getId();
+    
+    LocalDate getExpiryDate();
+    
+    Integer getQuantity();
+    
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,12 @@
+package com.beveragewarehouse.repository;
+
+import com.beveragewarehouse.model.ProductRecall;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 商品召回資料庫操作介面
+ */
+@Repository
+public interface ProductRecallRepository extends JpaRepository<ProductRecall, Long> {
+}
@@ -0,0 +1,19 @@
+package com.beveragewarehouse.repository;
+
+import com.beveragewarehouse.model.Product;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 商品資料庫操作介面
+ */
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Integer> {
+    
+    /**
+     * 根據正規化後的名稱查詢商品
+     */
+    Optional<Product> findByName(String name);
+}
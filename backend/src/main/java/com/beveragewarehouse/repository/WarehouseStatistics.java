@@ -0,0 +1,19 @@
+package com.beveragewarehouse.repository;
+
+/**
+ * 倉庫庫存統計投影（Projection）
+ * 
+ * 對應 {@link BeverageRepository#summarizeByWarehouse} 的聚合結果
+ */
+public interface WarehouseStatistics {
+    
+    String getWarehouse();
+    
+    Long getTotalItems();
+    
+    Long getTotalQuantity();
+    
+    Long getExpiredQuantity();
+    
+    Long getExpiringSoonQuantity();
+}
@@ -0,0 +1,254 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.exception.ConcurrencyLimitExceededException;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自適應併發限制器（Gradient 演算法）
+ *
+ * 以實際量測的延遲調整允許同時執行的請求數：
+ * - 長期平均延遲 / 最近延遲 = 梯度；延遲上升時梯度小於 1，上限隨之下降
+ * - 每次調整額外加上 sqrt(limit) 的探測空間，延遲穩定時上限會逐步成長
+ * - 發生鎖逾時等「丟棄」時直接乘上退避係數
+ *
+ * 上限已滿時，請求可以在所屬商品的等待佇列中等待 maxWait（訂單同時排入每個商品的佇列）；
+ * 佇列已滿或等待逾時則立即拒絕（{@link ConcurrencyLimitExceededException}），
+ * 讓少數請求快速失敗，而不是讓所有請求的延遲一起上升
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** 長期平均延遲的視窗（樣本數） */
+    private static final double LONG_WINDOW = 600;
+    /** 延遲容忍倍數：最近延遲超過長期平均的 1.5 倍才開始降低上限 */
+    private static final double RTT_TOLERANCE = 1.5;
+    /** 上限平滑係數 */
+    private static final double SMOOTHING = 0.2;
+    /** 丟棄時的退避係數 */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueuePerKey;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final Map<String, AtomicInteger> waitingByKey = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile double limit;
+    private volatile double longRttNanos;
+    private volatile int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueuePerKey, long maxWaitMillis) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueuePerKey = maxQueuePerKey;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    /**
+     * 取得執行許可；上限已滿時在 key（商品）的等待佇列中等待，佇列已滿或逾時則拒絕
+     */
+    public Permit acquire(String key) {
+        return acquire(List.of(key));
+    }
+
+    /**
+     * 多個 key 共用一個執行許可（例如訂單出庫：一筆訂單是一個交易，但涉及多個商品）
+     *
+     * 上限已滿時同時排入每個 key 的等待佇列，任何一個佇列已滿就拒絕；
+     * 熱門商品的佇列滿了只拒絕包含該商品的訂單，不影響同倉庫的其他訂單。
+     * key 去重後依字典序（正準順序）檢查與排入，拒絕的 key 與佇列計數的順序固定
+     */
+    public Permit acquire(Collection<String> keys) {
+        SortedSet<String> ordered = new TreeSet<>(keys);
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return new Permit(inFlight);
+            }
+            for (String key : ordered) {
+                AtomicInteger queued = waitingByKey.get(key);
+                if ((queued == null ? 0 : queued.get()) >= maxQueuePerKey) {
+                    throw reject(key);
+                }
+            }
+            Map<String, AtomicInteger> queues = new LinkedHashMap<>();
+            for (String key : ordered) {
+                AtomicInteger queued = waitingByKey.computeIfAbsent(key, k -> new AtomicInteger());
+                queued.incrementAndGet();
+                queues.put(key, queued);
+            }
+            waiting.incrementAndGet();
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        throw reject(String.join(",", ordered));
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                return new Permit(inFlight);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject(String.join(",", ordered));
+            } finally {
+                waiting.decrementAndGet();
+                queues.forEach((key, queued) -> {
+                    queued.decrementAndGet();
+                    removeIfIdle(key, queued);
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 沒有請求在等待時移除該 key 的佇列計數（key 來自請求內容，不移除會無限成長；呼叫端持有 lock）
+     */
+    private void removeIfIdle(String key, AtomicInteger queued) {
+        if (queued.get() == 0) {
+            waitingByKey.remove(key, queued);
+        }
+    }
+
+    private ConcurrencyLimitExceededException reject(String key) {
+        rejected.incrementAndGet();
+        return new ConcurrencyLimitExceededException(
+                "系統忙碌中（" + name + "），請稍後重試: " + key, retryAfterSeconds());
+    }
+
+    /**
+     * 建議的重試秒數：以目前平均延遲估算排隊中的請求消化所需時間（至少 1 秒）
+     */
+    private long retryAfterSeconds() {
+        double drainNanos = longRttNanos * (waiting.get() + 1) / Math.max(1.0, limit);
+        return Math.max(1, (long) Math.ceil(drainNanos / 1_000_000_000.0));
+    }
+
+    private void release(long rttNanos, int inFlightAtStart, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> onSample(rttNanos, inFlightAtStart);
+                case DROPPED -> limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                case IGNORED -> {
+                    // 業務失敗（例如庫存不足）不代表系統壅塞，不影響上限
+                }
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        double shortRtt = Math.max(1, rttNanos);
+        longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) / LONG_WINDOW;
+        // 長期平均遠高於最近延遲（例如負載剛退去），讓長期平均更快回落
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        // 實際併發遠低於上限時，樣本不足以判斷上限是否合適
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /** 目前有請求在等待的 key 數量 */
+    int getQueuedKeys() {
+        return waitingByKey.size();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public double getAverageRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    /**
+     * 執行許可，必須且只能釋放一次
+     */
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** 成功完成，延遲作為調整上限的樣本 */
+        public void success() {
+            complete(Outcome.SUCCESS);
+        }
+
+        /** 因壅塞失敗（鎖逾時、死結等），降低上限 */
+        public void dropped() {
+            complete(Outcome.DROPPED);
+        }
+
+        /** 與壅塞無關的失敗，只釋放許可 */
+        public void ignore() {
+            complete(Outcome.IGNORED);
+        }
+
+        private void complete(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(System.nanoTime() - startNanos, inFlightAtStart, outcome);
+        }
+    }
+}
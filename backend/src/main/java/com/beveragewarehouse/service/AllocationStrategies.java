@@ -0,0 +1,202 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.model.AllocationPolicy;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.Product;
+import com.beveragewarehouse.repository.LotCandidate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 出庫配貨策略的選擇
+ *
+ * 優先順序：請求指定的策略 → 商品設定（product-strategies）→ 預設策略（default-strategy）
+ * product-strategies 以「商品名稱=策略」逗號分隔，例如 礦泉水=FIFO,綠茶=SINGLE_LOT；名稱會先正規化
+ */
+@Component
+public class AllocationStrategies {
+
+    private final Map<AllocationPolicy, AllocationStrategy> strategies = new EnumMap<>(AllocationPolicy.class);
+    private final Map<String, AllocationPolicy> productPolicies = new ConcurrentHashMap<>();
+    private final AllocationPolicy defaultPolicy;
+
+    public AllocationStrategies(
+            ObjectProvider<AllocationStrategy> customStrategies,
+            @Value("${warehouse.allocation.default-strategy:FEFO}") AllocationPolicy defaultPolicy,
+            @Value("${warehouse.allocation.product-strategies:}") String productStrategies) {
+        for (AllocationStrategy strategy : List.of(new Fefo(), new Fifo(), new FewestLots(), new SingleLot())) {
+            strategies.put(strategy.policy(), strategy);
+        }
+        customStrategies.orderedStream().forEach(strategy -> strategies.put(strategy.policy(), strategy));
+        this.defaultPolicy = defaultPolicy;
+        for (String entry : productStrategies.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("配貨策略格式錯誤（應為 商品名稱=策略）: " + entry);
+            }
+            setProductPolicy(parts[0], AllocationPolicy.valueOf(parts[1].trim()));
+        }
+    }
+
+    /**
+     * 選擇商品這次出庫的策略
+     *
+     * @param name      正規化後的商品名稱
+     * @param requested 請求指定的策略（可為 null）
+     */
+    public AllocationStrategy resolve(String name, AllocationPolicy requested) {
+        if (requested != null) {
+            return strategies.get(requested);
+        }
+        return strategies.get(productPolicies.getOrDefault(name, defaultPolicy));
+    }
+
+    public void setProductPolicy(String name, AllocationPolicy policy) {
+        productPolicies.put(Product.normalizeName(name), policy);
+    }
+
+    public AllocationPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    // ==================== 內建策略 ====================
+
+    private static final class Fefo implements AllocationStrategy {
+
+        @Override
+        public AllocationPolicy policy() {
+            return AllocationPolicy.FEFO;
+        }
+
+        @Override
+        public boolean needsAllLots() {
+            return false;
+        }
+
+        @Override
+        public List<Beverage> pickOrder(List<Beverage> lots, int quantity) {
+            return lots;
+        }
+    }
+
+    private static final class Fifo implements AllocationStrategy {
+
+        private static final Comparator<Beverage> BY_CREATED = Comparator
+                .comparing(Beverage::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Beverage::getId);
+
+        private static final Comparator<LotCandidate> CANDIDATES_BY_CREATED = Comparator
+                .comparing(LotCandidate::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(LotCandidate::getId);
+
+        @Override
+        public AllocationPolicy policy() {
+            return AllocationPolicy.FIFO;
+        }
+
+        @Override
+        public boolean needsAllLots() {
+            return false;
+        }
+
+        @Override
+        public List<LotCandidate> lockOrder(List<LotCandidate> candidates, int quantity) {
+            List<LotCandidate> ordered = new ArrayList<>(candidates);
+            ordered.sort(CANDIDATES_BY_CREATED);
+            return ordered;
+        }
+
+        @Override
+        public List<Beverage> pickOrder(List<Beverage> lots, int quantity) {
+            List<Beverage> ordered = new ArrayList<>(lots);
+            ordered.sort(BY_CREATED);
+            return ordered;
+        }
+    }
+
+    /**
+     * 數量由大到小扣減：扣減 k 個批次能得到的最大數量就是最大的 k 個批次，因此扣減的批次數最少；
+     * 數量相同時仍依 FEFO
+     */
+    private static final class FewestLots implements AllocationStrategy {
+
+        @Override
+        public AllocationPolicy policy() {
+            return AllocationPolicy.FEWEST_LOTS;
+        }
+
+        /**
+         * 依讀取時的數量選出最大的批次並只鎖定它們；鎖定後數量變少時繼續鎖定下一個，扣減時依實際數量重新排序
+         */
+        @Override
+        public boolean needsAllLots() {
+            return false;
+        }
+
+        @Override
+        public List<LotCandidate> lockOrder(List<LotCandidate> candidates, int quantity) {
+            List<LotCandidate> ordered = new ArrayList<>(candidates);
+            ordered.sort(Comparator.comparingInt(LotCandidate::getQuantity).reversed());
+            return ordered;
+        }
+
+        @Override
+        public List<Beverage> pickOrder(List<Beverage> lots, int quantity) {
+            List<Beverage> ordered = new ArrayList<>(lots);
+            // List.sort 是穩定排序，數量相同的批次保持 FEFO 順序
+            ordered.sort(Comparator.comparingInt(Beverage::getQuantity).reversed());
+            return ordered;
+        }
+    }
+
+    private static final class SingleLot implements AllocationStrategy {
+
+        @Override
+        public AllocationPolicy policy() {
+            return AllocationPolicy.SINGLE_LOT;
+        }
+
+        @Override
+        public boolean needsAllLots() {
+            return false;
+        }
+
+        /**
+         * 先鎖定第一個數量足夠的批次；鎖定後已不足（或沒有足夠的批次）時依 FEFO 鎖定其他批次
+         */
+        @Override
+        public List<LotCandidate> lockOrder(List<LotCandidate> candidates, int quantity) {
+            for (int i = 0; i < candidates.size(); i++) {
+                if (candidates.get(i).getQuantity() >= quantity) {
+                    List<LotCandidate> ordered = new ArrayList<>(candidates.size());
+                    ordered.add(candidates.get(i));
+                    ordered.addAll(candidates.subList(0, i));
+                    ordered.addAll(candidates.subList(i + 1, candidates.size()));
+                    return ordered;
+                }
+            }
+            return candidates;
+        }
+
+        @Override
+        public List<Beverage> pickOrder(List<Beverage> lots, int quantity) {
+            for (Beverage lot : lots) {
+                if (lot.getQuantity() >= quantity) {
+                    return List.of(lot);
+                }
+            }
+            return lots;
+        }
+    }
+}
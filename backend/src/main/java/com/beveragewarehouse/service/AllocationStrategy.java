@@ -0,0 +1,47 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.model.AllocationPolicy;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.repository.LotCandidate;
+
+import java.util.List;
+
+/**
+ * 出庫配貨策略：決定已鎖定的可用批次的扣減順序
+ *
+ * 內建策略見 {@link AllocationStrategies}；註冊為 Spring bean 的實作會取代同一個 {@link #policy()} 的內建策略
+ */
+public interface AllocationStrategy {
+
+    AllocationPolicy policy();
+
+    /**
+     * 是否需要鎖定商品的所有可用批次才能決定順序
+     *
+     * 內建策略都是 false：以 {@link #lockOrder} 排列不加鎖讀取的候選批次，配貨依此順序逐批鎖定到足夠的數量
+     * （SKIP_LOCKED 模式會跳過其他交易鎖定的批次）。預設為 true，因為自訂策略的 {@link #pickOrder}
+     * 可能依候選批次沒有的欄位排序，配貨無法在鎖定前知道需要哪些批次，只能一次鎖定全部
+     */
+    default boolean needsAllLots() {
+        return true;
+    }
+
+    /**
+     * 鎖定順序：needsAllLots 為 false 時，配貨依此順序逐批鎖定候選批次直到鎖定的數量足夠
+     * 候選批次的數量是不加鎖讀取的值，鎖定後由 {@link #pickOrder} 依實際數量決定扣減順序
+     *
+     * @param candidates 可用批次，依有效期限、ID 排序；不可修改
+     * @param quantity   出庫數量
+     */
+    default List<LotCandidate> lockOrder(List<LotCandidate> candidates, int quantity) {
+        return candidates;
+    }
+
+    /**
+     * 扣減順序：依序扣減回傳的批次直到滿足 quantity（最後一批可能只扣部分）
+     *
+     * @param lots     已鎖定的可用批次，依有效期限、ID 排序；不可修改
+     * @param quantity 出庫數量（不大於 lots 的總數量）
+     */
+    List<Beverage> pickOrder(List<Beverage> lots, int quantity);
+}
@@ -0,0 +1,168 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.event.RebuildableLotIndex;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 可承諾量（Available-to-Promise）計數器
+ *
+ * 每個（倉庫、商品 ID）各有一個依過期日彙總的可出庫數量，
+ * 只計入 NORMAL 且數量大於 0 的批次，與 {@link LotAllocator} 的配貨條件相同；
+ * 查詢時排除已過期的日期，因此不需要在跨日時更新計數器
+ *
+ * - 由已提交的庫存異動（afterCommit）更新，每個異動在同一把鎖下先扣除批次舊的貢獻、再加上新的
+ * - 定期從資料庫對帳重建（{@link RebuildableLotIndex}）
+ * - 計數器只反映已提交的資料，出庫時只用於快速拒絕，實際配貨仍以資料庫鎖定為準
+ */
+@Component
+public class AvailableToPromise extends RebuildableLotIndex {
+
+    private final boolean enabled;
+
+    private final Map<Long, LotSnapshot> lots = new HashMap<>();
+    private final Map<Key, NavigableMap<LocalDate, Long>> counters = new HashMap<>();
+    private final Map<Integer, Set<String>> warehousesByProduct = new HashMap<>();
+
+    public AvailableToPromise(
+            BeverageRepository beverageRepository,
+            @Value("${warehouse.atp.enabled:true}") boolean enabled) {
+        super(beverageRepository);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 定期從資料庫對帳重建
+     */
+    @Scheduled(fixedDelayString = "${warehouse.atp.reconcile-interval-ms:60000}",
+            initialDelayString = "${warehouse.atp.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * 指定倉庫、商品今天可出庫的總數量
+     */
+    public long available(String warehouse, int productId) {
+        return available(warehouse, productId, LocalDate.now());
+    }
+
+    /**
+     * 指定倉庫、商品有效期限不早於 earliestExpiry 的可出庫總數量（最少剩餘天數的出庫使用）
+     */
+    long available(String warehouse, int productId, LocalDate earliestExpiry) {
+        lock.readLock().lock();
+        try {
+            return sumUnexpired(counters.get(new Key(warehouse, productId)), earliestExpiry);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 指定商品今天在所有倉庫可出庫的總數量
+     */
+    public long available(int productId) {
+        LocalDate today = LocalDate.now();
+        lock.readLock().lock();
+        try {
+            Set<String> warehouses = warehousesByProduct.get(productId);
+            if (warehouses == null) {
+                return 0;
+            }
+            long total = 0;
+            for (String warehouse : warehouses) {
+                total += sumUnexpired(counters.get(new Key(warehouse, productId)), today);
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long sumUnexpired(NavigableMap<LocalDate, Long> byExpiry, LocalDate today) {
+        if (byExpiry == null) {
+            return 0;
+        }
+        long total = 0;
+        for (long quantity : byExpiry.tailMap(today, true).values()) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    @Override
+    protected void reset() {
+        lots.clear();
+        counters.clear();
+        warehousesByProduct.clear();
+    }
+
+    @Override
+    protected void put(LotSnapshot lot) {
+        LotSnapshot existing = lots.put(lot.id(), lot);
+        if (existing != null) {
+            add(existing, -1);
+        }
+        add(lot, 1);
+    }
+
+    @Override
+    protected void remove(Long lotId) {
+        LotSnapshot existing = lots.remove(lotId);
+        if (existing != null) {
+            add(existing, -1);
+        }
+    }
+
+    @Override
+    protected boolean isStale(LotSnapshot incoming) {
+        LotSnapshot existing = lots.get(incoming.id());
+        return existing != null && isOlder(incoming.updatedAt(), existing.updatedAt());
+    }
+
+    private void add(LotSnapshot lot, int sign) {
+        if (lot.productId() == null || lot.status() != BeverageStatus.NORMAL || lot.quantity() <= 0) {
+            return;
+        }
+        Key key = new Key(lot.warehouse(), lot.productId());
+        NavigableMap<LocalDate, Long> byExpiry = counters.get(key);
+        if (byExpiry == null) {
+            byExpiry = new TreeMap<>();
+            counters.put(key, byExpiry);
+            warehousesByProduct.computeIfAbsent(key.productId(), id -> new HashSet<>()).add(key.warehouse());
+        }
+        long quantity = byExpiry.merge(lot.expiryDate(), (long) sign * lot.quantity(), Long::sum);
+        if (quantity == 0) {
+            byExpiry.remove(lot.expiryDate());
+            if (byExpiry.isEmpty()) {
+                counters.remove(key);
+                Set<String> warehouses = warehousesByProduct.get(key.productId());
+                warehouses.remove(key.warehouse());
+                if (warehouses.isEmpty()) {
+                    warehousesByProduct.remove(key.productId());
+                }
+            }
+        }
+    }
+
+    private record Key(String warehouse, int productId) {
+    }
+}
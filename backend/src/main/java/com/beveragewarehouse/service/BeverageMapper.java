@@ -0,0 +1,43 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.LotSnapshot;
+
+import java.time.LocalDate;
+
+/**
+ * Entity / 快照轉換為 DTO
+ * 
+ * 計算欄位（是否過期、剩餘天數、是否即將過期）一律以轉換當下的日期計算
+ */
+final class BeverageMapper {
+    
+    private BeverageMapper() {
+    }
+    
+    static BeverageDTO toDTO(Beverage beverage) {
+        return toDTO(LotSnapshot.of(beverage), LocalDate.now());
+    }
+    
+    static BeverageDTO toDTO(LotSnapshot lot, LocalDate today) {
+        BeverageDTO dto = new BeverageDTO();
+        dto.setId(lot.id());
+        dto.setProductId(lot.productId());
+        dto.setName(lot.name());
+        dto.setWarehouse(lot.warehouse());
+        dto.setBin(lot.bin());
+        dto.setQuantity(lot.quantity());
+        dto.setProductionDate(lot.productionDate());
+        dto.setExpiryDate(lot.expiryDate());
+        dto.setCreatedAt(lot.createdAt());
+        dto.setUpdatedAt(lot.updatedAt());
+        dto.setExpired(lot.isExpiredOn(today));
+        dto.setDaysUntilExpiry(lot.daysUntilExpiry(today));
+        dto.setExpiringSoon(lot.isExpiringSoonOn(today));
+        dto.setStatus(lot.status());
+        dto.setDisposalReason(lot.disposalReason());
+        dto.setDisposedAt(lot.disposedAt());
+        return dto;
+    }
+}
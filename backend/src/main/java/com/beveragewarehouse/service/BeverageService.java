@@ -1,19 +1,44 @@
 package com.beveragewarehouse.service;
 
+import com.beveragewarehouse.archive.DisposedLotArchive;
+import com.beveragewarehouse.dto.AvailabilityDTO;
+import com.beveragewarehouse.dto.AvailabilityRequestDTO;
 import com.beveragewarehouse.dto.BeverageDTO;
 import com.beveragewarehouse.dto.BeverageRequestDTO;
+import com.beveragewarehouse.dto.BulkDisposeRequestDTO;
+import com.beveragewarehouse.dto.BulkDisposeResultDTO;
+import com.beveragewarehouse.dto.OrderStockOutRequestDTO;
+import com.beveragewarehouse.dto.OrderStockOutResultDTO;
+import com.beveragewarehouse.dto.RecallRequestDTO;
+import com.beveragewarehouse.dto.RecallResultDTO;
 import com.beveragewarehouse.dto.StockInRequestDTO;
 import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.event.InventoryChangePublisher;
+import com.beveragewarehouse.exception.BeverageNotFoundException;
+import com.beveragewarehouse.exception.BusinessRuleViolationException;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.exception.InvalidStateTransitionException;
 import com.beveragewarehouse.model.Beverage;
 import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.Product;
+import com.beveragewarehouse.model.ProductRecall;
 import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.repository.ProductRecallRepository;
+import com.beveragewarehouse.repository.WarehouseStatistics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -23,7 +48,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BeverageService {
     
+    /**
+     * 批量 UPDATE 每段的 ID 數量（避免 IN 清單過長）
+     */
+    private static final int BULK_CHUNK_SIZE = 500;
+    
+    static final String DEFAULT_DISPOSAL_REASON = "過期報廢";
+    
     private final BeverageRepository beverageRepository;
+    private final InventoryChangePublisher changePublisher;
+    private final ReadCoalescer readCoalescer;
+    private final LotAllocator lotAllocator;
+    private final LockRetryTemplate lockRetryTemplate;
+    private final ProductCatalog productCatalog;
+    private final AvailableToPromise availableToPromise;
+    private final DisposedLotArchive disposedLotArchive;
+    private final ProductRecallRepository productRecallRepository;
+    private final RecallRegistry recallRegistry;
+    private final AllocationStrategies allocationStrategies;
     
     /**
      * 取得所有飲料
@@ -34,12 +76,21 @@ public class BeverageService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 取得指定倉庫的所有飲料
+     */
+    public List<BeverageDTO> getBeveragesByWarehouse(String warehouse) {
+        return beverageRepository.findByWarehouse(resolveWarehouse(warehouse)).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * 根據 ID 取得飲料
      */
     public BeverageDTO getBeverageById(Long id) {
         Beverage beverage = beverageRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("飲料不存在，ID: " + id));
+                .orElseThrow(() -> new BeverageNotFoundException(id));
         return convertToDTO(beverage);
     }
     
@@ -47,83 +98,188 @@ public class BeverageService {
      * 新增飲料（入庫）
      * 
      * 業務規則：一次入庫數量不能超過 100 瓶
+     * 生產日期在生效中的召回範圍內的批次直接進入隔離區
      */
     @Transactional
     public BeverageDTO stockIn(StockInRequestDTO request) {
         // 業務邏輯驗證：一次入庫數量不能超過 100 瓶
         if (request.getQuantity() > 100) {
-            throw new RuntimeException("一次入庫數量不能超過 100 瓶，當前數量: " + request.getQuantity());
+            throw new BusinessRuleViolationException("STOCK_IN_LIMIT_EXCEEDED",
+                    "一次入庫數量不能超過 100 瓶，當前數量: " + request.getQuantity());
         }
         
         Beverage beverage = new Beverage();
-        beverage.setName(request.getName());
+        beverage.setName(Product.normalizeName(request.getName()));
+        beverage.setProductId(requireProductId(request.getName()));
         beverage.setQuantity(request.getQuantity());
         beverage.setProductionDate(request.getProductionDate());
         beverage.setExpiryDate(request.getExpiryDate());
+        beverage.setWarehouse(resolveWarehouse(request.getWarehouse()));
+        beverage.setBin(request.getBin());
+        if (recallRegistry.isRecalled(beverage)) {
+            beverage.setStatus(BeverageStatus.QUARANTINED);
+        }
         
         Beverage saved = beverageRepository.save(beverage);
         return convertToDTO(saved);
     }
     
     /**
-     * 出庫飲料（按照 FIFO 原則，優先出庫最早過期的）
+     * 出庫飲料（預設按照 FEFO 原則，優先出庫最早過期的）
      * 
      * 使用悲觀鎖（Pessimistic Lock）確保高併發下的資料一致性
-     * 在高併發場景下，多個執行緒同時出庫時，會依序取得鎖並執行，避免負庫存
+     * 配貨批次由 {@link LotAllocator} 鎖定：LOCK_ALL 時同商品的出庫依序執行；
+     * SKIP_LOCKED 時同商品的出庫可以並行扣減不同批次
+     * 只鎖定並配貨請求指定的倉庫，不同倉庫之間不會互相等待
+     * 
+     * 未在外層交易中呼叫時，死結或鎖等待逾時會以新交易重試（{@link LockRetryTemplate}）
+     * 可承諾量不足時在開啟交易、取得鎖之前直接拒絕（{@link AvailableToPromise}）
+     * 指定最少剩餘天數時，只配貨有效期限不早於「今天 + N 天」的批次（配貨索引的範圍起點，不是事後過濾）
+     * 扣減順序由配貨策略決定（{@link AllocationStrategies}）：請求指定的策略、商品設定的策略或預設策略
      */
-    @Transactional
     public BeverageDTO stockOut(StockOutRequestDTO request) {
+        String warehouse = resolveWarehouse(request.getWarehouse());
+        String name = Product.normalizeName(request.getName());
+        int productId = productCatalog.findId(name)
+                .orElseThrow(() -> new InsufficientStockException(name, warehouse, request.getQuantity(), 0));
+        ProductKey product = new ProductKey(warehouse, productId, name);
+        int minRemainingDays = minRemainingDays(request);
+        AllocationStrategy strategy = allocationStrategies.resolve(name, request.getStrategy());
+        rejectIfUnavailable(product, request.getQuantity(), minRemainingDays);
+        return lockRetryTemplate.execute(
+                () -> allocateAndStockOut(product, request.getQuantity(), minRemainingDays, strategy));
+    }
+    
+    /**
+     * 可承諾量查詢：每個商品目前可出庫的數量，以及是否足夠出庫請求的數量
+     * 
+     * 啟用計數器時不存取資料庫；未啟用時逐項加總資料庫中的可出庫批次
+     */
+    public List<AvailabilityDTO> checkAvailability(AvailabilityRequestDTO request) {
         LocalDate today = LocalDate.now();
+        List<AvailabilityDTO> results = new ArrayList<>(request.getItems().size());
+        for (StockOutRequestDTO item : request.getItems()) {
+            String warehouse = resolveWarehouse(item.getWarehouse() != null ? item.getWarehouse() : request.getWarehouse());
+            String name = Product.normalizeName(item.getName());
+            Integer productId = productCatalog.findId(name).orElse(null);
+            LocalDate earliestExpiry = today.plusDays(minRemainingDays(item));
+            long available = 0;
+            if (productId != null) {
+                available = availableToPromise.isEnabled()
+                        ? availableToPromise.available(warehouse, productId, earliestExpiry)
+                        : beverageRepository.sumAvailableQuantity(productId, warehouse, earliestExpiry);
+            }
+            results.add(new AvailabilityDTO(name, productId, warehouse, item.getQuantity(), available,
+                    available >= item.getQuantity()));
+        }
+        return results;
+    }
+    
+    /**
+     * 訂單出庫：所有明細在同一交易中出庫，任何一行庫存不足則整筆回滾
+     * 
+     * 相同倉庫、相同商品、相同最少剩餘天數與配貨策略的明細先合併，再依（倉庫、商品 ID）的固定順序逐一鎖定並配貨
+     * （同商品有不同最少剩餘天數時，要求較嚴格的明細先配貨）；
+     * 所有訂單都以相同順序取得商品鎖，包含相同商品的訂單之間只會等待，不會互相死結
+     */
+    public OrderStockOutResultDTO stockOutOrder(OrderStockOutRequestDTO order) {
+        String defaultWarehouse = order.getWarehouse();
+        SortedMap<OrderLine, Integer> lines = new TreeMap<>(OrderLine.CANONICAL_ORDER);
+        for (StockOutRequestDTO line : order.getLines()) {
+            String warehouse = resolveWarehouse(line.getWarehouse() != null ? line.getWarehouse() : defaultWarehouse);
+            String name = Product.normalizeName(line.getName());
+            int productId = productCatalog.findId(name)
+                    .orElseThrow(() -> new InsufficientStockException(name, warehouse, line.getQuantity(), 0));
+            lines.merge(new OrderLine(new ProductKey(warehouse, productId, name), minRemainingDays(line),
+                            allocationStrategies.resolve(name, line.getStrategy())),
+                    line.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<OrderLine, Integer> line : lines.entrySet()) {
+            rejectIfUnavailable(line.getKey().product(), line.getValue(), line.getKey().minRemainingDays());
+        }
+        
+        return lockRetryTemplate.execute(() -> {
+            int totalQuantity = 0;
+            for (Map.Entry<OrderLine, Integer> line : lines.entrySet()) {
+                allocateAndStockOut(line.getKey().product(), line.getValue(), line.getKey().minRemainingDays(),
+                        line.getKey().strategy());
+                totalQuantity += line.getValue();
+            }
+            return new OrderStockOutResultDTO(order.getOrderId(), lines.size(), totalQuantity,
+                    "訂單出庫成功，共 " + lines.size() + " 項商品 " + totalQuantity + " 瓶");
+        });
+    }
+    
+    /**
+     * 以可承諾量快速拒絕必定失敗的出庫
+     * 
+     * 計數器只包含已提交的異動；在外層交易中呼叫時，交易內尚未提交的入庫看不到，因此不檢查
+     */
+    private void rejectIfUnavailable(ProductKey product, int quantity, int minRemainingDays) {
+        if (!availableToPromise.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        long available = availableToPromise.available(product.warehouse(), product.productId(),
+                LocalDate.now().plusDays(minRemainingDays));
+        if (available < quantity) {
+            throw new InsufficientStockException(product.name(), product.warehouse(), quantity, (int) available);
+        }
+    }
+    
+    private BeverageDTO allocateAndStockOut(ProductKey product, int quantity, int minRemainingDays,
+                                            AllocationStrategy strategy) {
+        LocalDate earliestExpiry = LocalDate.now().plusDays(minRemainingDays);
         
-        // 使用悲觀鎖查詢可用的飲料，按照過期日期排序（最早過期的優先）
-        // 這會對查詢到的記錄加鎖，直到事務提交
-        List<Beverage> availableBeverages = beverageRepository
-                .findAvailableBeveragesByNameOrderByExpiryWithLock(request.getName(), today);
+        // 從 earliestExpiry 起依過期日期排序（最早過期的優先）鎖定批次，鎖定到交易提交
+        List<Beverage> availableBeverages = lotAllocator.lockLots(
+                product.productId(), product.warehouse(), earliestExpiry, quantity, strategy);
         
         if (availableBeverages.isEmpty()) {
-            throw new RuntimeException("沒有可用的 " + request.getName() + " 庫存");
+            throw new InsufficientStockException(product.name(), product.warehouse(), quantity, 0);
+        }
+        
+        int lockedQuantity = availableBeverages.stream().mapToInt(Beverage::getQuantity).sum();
+        if (lockedQuantity < quantity) {
+            throw new InsufficientStockException(product.name(), product.warehouse(), quantity, lockedQuantity);
         }
         
-        int remainingQuantity = request.getQuantity();
-        Beverage firstBeverage = null;
+        // 依配貨策略決定扣減順序
+        List<Beverage> pickOrder = strategy.pickOrder(availableBeverages, quantity);
+        int remainingQuantity = quantity;
+        Beverage firstBeverage = pickOrder.get(0);
+        List<Long> consumedIds = new ArrayList<>();
         
-        for (Beverage beverage : availableBeverages) {
+        // 查詢時已對這些記錄加上悲觀鎖，提交前其他交易無法修改，不需要逐筆重新載入加鎖
+        for (Beverage beverage : pickOrder) {
             if (remainingQuantity <= 0) {
                 break;
             }
             
-            // 重新載入並加鎖，確保取得最新的庫存數量
-            Beverage lockedBeverage = beverageRepository.findByIdWithLock(beverage.getId())
-                    .orElseThrow(() -> new RuntimeException("飲料不存在，ID: " + beverage.getId()));
-            
-            int availableQuantity = lockedBeverage.getQuantity();
-            
-            if (availableQuantity <= 0) {
-                // 庫存已被其他執行緒消耗完，跳過
-                continue;
-            }
-            
-            if (firstBeverage == null) {
-                firstBeverage = lockedBeverage;
-            }
+            int availableQuantity = beverage.getQuantity();
             
             if (availableQuantity <= remainingQuantity) {
                 // 這批飲料全部出庫
                 remainingQuantity -= availableQuantity;
-                beverageRepository.delete(lockedBeverage);
+                consumedIds.add(beverage.getId());
             } else {
                 // 部分出庫
-                lockedBeverage.setQuantity(availableQuantity - remainingQuantity);
-                beverageRepository.save(lockedBeverage);
+                beverage.setQuantity(availableQuantity - remainingQuantity);
                 remainingQuantity = 0;
             }
         }
         
         if (remainingQuantity > 0) {
-            throw new RuntimeException("庫存不足，無法出庫 " + request.getQuantity() + " 瓶 " + request.getName());
+            throw new InsufficientStockException(product.name(), product.warehouse(), quantity,
+                    quantity - remainingQuantity);
+        }
+        
+        if (!consumedIds.isEmpty()) {
+            // 整批扣完的批次以單一 DELETE 移除（會先送出部分出庫的 UPDATE）
+            beverageRepository.deleteByIds(consumedIds);
+            changePublisher.lotsRemoved(consumedIds);
         }
         
-        return firstBeverage != null ? convertToDTO(firstBeverage) : convertToDTO(availableBeverages.get(0));
+        return convertToDTO(firstBeverage);
     }
     
     /**
@@ -132,12 +288,19 @@ public class BeverageService {
     @Transactional
     public BeverageDTO updateBeverage(Long id, BeverageRequestDTO request) {
         Beverage beverage = beverageRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("飲料不存在，ID: " + id));
+                .orElseThrow(() -> new BeverageNotFoundException(id));
         
-        beverage.setName(request.getName());
+        beverage.setName(Product.normalizeName(request.getName()));
+        beverage.setProductId(requireProductId(request.getName()));
         beverage.setQuantity(request.getQuantity());
         beverage.setProductionDate(request.getProductionDate());
         beverage.setExpiryDate(request.getExpiryDate());
+        if (request.getWarehouse() != null) {
+            beverage.setWarehouse(resolveWarehouse(request.getWarehouse()));
+        }
+        if (request.getBin() != null) {
+            beverage.setBin(request.getBin());
+        }
         
         Beverage updated = beverageRepository.save(beverage);
         return convertToDTO(updated);
@@ -149,80 +312,132 @@ public class BeverageService {
     @Transactional
     public void deleteBeverage(Long id) {
         if (!beverageRepository.existsById(id)) {
-            throw new RuntimeException("飲料不存在，ID: " + id);
+            throw new BeverageNotFoundException(id);
         }
         beverageRepository.deleteById(id);
     }
     
     /**
      * 取得所有已過期的飲料
+     * 同時到達的相同查詢會被合併，只送出一次資料庫查詢（結果清單為共用，呼叫端不應修改）
      */
     public List<BeverageDTO> getExpiredBeverages() {
-        LocalDate today = LocalDate.now();
-        return beverageRepository.findExpiredBeverages(today).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return readCoalescer.coalesce("expired", () -> {
+            LocalDate today = LocalDate.now();
+            return beverageRepository.findExpiredBeverages(today).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        });
     }
     
     /**
      * 取得所有即將過期的飲料（7 天內）
+     * 同時到達的相同查詢會被合併，只送出一次資料庫查詢
      */
     public List<BeverageDTO> getExpiringSoonBeverages() {
-        LocalDate today = LocalDate.now();
-        LocalDate sevenDaysLater = today.plusDays(7);
-        return beverageRepository.findExpiringSoonBeverages(today, sevenDaysLater).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return readCoalescer.coalesce("expiring-soon", () -> {
+            LocalDate today = LocalDate.now();
+            LocalDate sevenDaysLater = today.plusDays(7);
+            return beverageRepository.findExpiringSoonBeverages(today, sevenDaysLater).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        });
     }
     
     /**
-     * 取得庫存統計
+     * 取得庫存統計（所有倉庫合計）
      */
     public BeverageStatisticsDTO getStatistics() {
-        List<Beverage> allBeverages = beverageRepository.findAll();
-        LocalDate today = LocalDate.now();
-        
-        long totalQuantity = allBeverages.stream()
-                .mapToLong(Beverage::getQuantity)
-                .sum();
-        
-        long expiredQuantity = beverageRepository.findExpiredBeverages(today).stream()
-                .mapToLong(Beverage::getQuantity)
-                .sum();
-        
-        long expiringSoonQuantity = beverageRepository.findExpiringSoonBeverages(today, today.plusDays(7)).stream()
-                .mapToLong(Beverage::getQuantity)
-                .sum();
-        
+        List<WarehouseStatistics> perWarehouse = summarizeByWarehouse();
         return new BeverageStatisticsDTO(
-                allBeverages.size(),
-                totalQuantity,
-                expiredQuantity,
-                expiringSoonQuantity
+                perWarehouse.stream().mapToLong(WarehouseStatistics::getTotalItems).sum(),
+                perWarehouse.stream().mapToLong(WarehouseStatistics::getTotalQuantity).sum(),
+                perWarehouse.stream().mapToLong(WarehouseStatistics::getExpiredQuantity).sum(),
+                perWarehouse.stream().mapToLong(WarehouseStatistics::getExpiringSoonQuantity).sum()
         );
     }
     
+    /**
+     * 取得指定倉庫的庫存統計
+     */
+    public BeverageStatisticsDTO getStatistics(String warehouse) {
+        String site = resolveWarehouse(warehouse);
+        return summarizeByWarehouse().stream()
+                .filter(stats -> stats.getWarehouse().equals(site))
+                .findFirst()
+                .map(this::convertToStatisticsDTO)
+                .orElseGet(() -> new BeverageStatisticsDTO(site, 0, 0, 0, 0));
+    }
+    
+    /**
+     * 取得各倉庫的庫存統計
+     */
+    public List<BeverageStatisticsDTO> getStatisticsByWarehouse() {
+        return summarizeByWarehouse().stream()
+                .map(this::convertToStatisticsDTO)
+                .collect(Collectors.toList());
+    }
+    
+    private List<WarehouseStatistics> summarizeByWarehouse() {
+        // 總計、單一倉庫、各倉庫統計共用同一個聚合查詢，同時到達的請求只查詢一次
+        return readCoalescer.coalesce("statistics", () -> {
+            LocalDate today = LocalDate.now();
+            return beverageRepository.summarizeByWarehouse(today, today.plusDays(7));
+        });
+    }
+    
     /**
      * 自動隔離過期商品（業界標準流程）
      * 
-     * 通常由定時任務（Scheduler）每日執行
      * 將所有過期且狀態為 NORMAL 的商品自動改為 QUARANTINED
+     * 平時由 {@link ExpiryScheduler} 在過期邊界準時隔離；此方法為全表掃描的手動補救
      */
     @Transactional
     public int quarantineExpiredBeverages() {
-        LocalDate today = LocalDate.now();
-        List<Beverage> expiredBeverages = beverageRepository.findExpiredBeverages(today);
+        List<Long> expiredIds = beverageRepository.findExpiredNormalIds(LocalDate.now());
+        return transitionStatus(expiredIds, BeverageStatus.NORMAL, BeverageStatus.QUARANTINED);
+    }
+    
+    /**
+     * 隔離指定的批次（由 {@link ExpiryScheduler} 在過期邊界呼叫）
+     * 只更新目前仍為 NORMAL 且有效期限早於 today 的批次，回傳實際隔離的筆數
+     */
+    @Transactional
+    public int quarantineLots(List<Long> ids, LocalDate today) {
+        List<Long> expiredIds = beverageRepository.findAllById(ids).stream()
+                .filter(beverage -> beverage.getExpiryDate().isBefore(today))
+                .map(Beverage::getId)
+                .collect(Collectors.toList());
+        return transitionStatus(expiredIds, BeverageStatus.NORMAL, BeverageStatus.QUARANTINED);
+    }
+    
+    /**
+     * 商品召回：隔離商品在生產日期區間內的所有 NORMAL 批次（不論有效期限）
+     * 
+     * 召回在受理時立即登記（{@link RecallRegistry}），從此刻起範圍內的批次不會被配貨，
+     * 之後入庫的同區間批次也直接隔離；批次以 (product_id, production_date) 索引查出，
+     * 再以分段的批量 UPDATE 隔離，回傳受影響批次的報告
+     */
+    @Transactional
+    public RecallResultDTO recallLots(RecallRequestDTO request) {
+        String name = Product.normalizeName(request.getName());
+        int productId = productCatalog.resolveId(name);
+        ProductRecall recall = productRecallRepository.save(new ProductRecall(
+                productId, request.getProductionFrom(), request.getProductionTo(), request.getReason()));
+        recallRegistry.register(recall);
         
-        int quarantinedCount = 0;
-        for (Beverage beverage : expiredBeverages) {
-            if (beverage.getStatus() == BeverageStatus.NORMAL) {
-                beverage.setStatus(BeverageStatus.QUARANTINED);
-                beverageRepository.save(beverage);
-                quarantinedCount++;
-            }
+        List<Long> ids = beverageRepository.findIdsByProductionDateBetween(
+                productId, request.getProductionFrom(), request.getProductionTo());
+        int quarantined = transitionStatus(ids, BeverageStatus.NORMAL, BeverageStatus.QUARANTINED);
+        List<BeverageDTO> lots = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            beverageRepository.findAllById(ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()))).stream()
+                    .sorted(Comparator.comparing(Beverage::getId))
+                    .map(this::convertToDTO)
+                    .forEach(lots::add);
         }
-        
-        return quarantinedCount;
+        return new RecallResultDTO(recall.getId(), productId, name, recall.getProductionFrom(),
+                recall.getProductionTo(), ids.size(), quarantined, lots);
     }
     
     /**
@@ -237,20 +452,21 @@ public class BeverageService {
     /**
      * 報廢商品（業界標準流程）
      * 
-     * 將隔離區中的商品標記為已報廢
+     * 將隔離區中的商品標記為已報廢（未指定原因時為「過期報廢」）
      * 通常需要審批流程，這裡簡化為直接報廢
      */
     @Transactional
     public BeverageDTO disposeBeverage(Long id, String reason) {
         Beverage beverage = beverageRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("商品不存在，ID: " + id));
+                .orElseThrow(() -> new BeverageNotFoundException(id));
         
         if (beverage.getStatus() != BeverageStatus.QUARANTINED) {
-            throw new RuntimeException("只能報廢隔離區中的商品，當前狀態: " + beverage.getStatus());
+            // 只能報廢隔離區中的商品
+            throw new InvalidStateTransitionException(id, beverage.getStatus(), BeverageStatus.DISPOSED);
         }
         
         beverage.setStatus(BeverageStatus.DISPOSED);
-        beverage.setDisposalReason(reason);
+        beverage.setDisposalReason(disposalReason(reason));
         beverage.setDisposedAt(LocalDateTime.now());
         
         Beverage disposed = beverageRepository.save(beverage);
@@ -258,55 +474,147 @@ public class BeverageService {
     }
     
     /**
-     * 取得已報廢的商品列表（DISPOSED 狀態）
+     * 批量報廢隔離區中的商品
+     * 
+     * 以分段的批量 UPDATE 一次設定狀態、報廢原因與報廢時間（每段一個 UPDATE 與一個重新讀取），
+     * 不是 QUARANTINED 的批次不會變更，回傳各結果的批次數
+     */
+    @Transactional
+    public BulkDisposeResultDTO disposeBeverages(BulkDisposeRequestDTO request) {
+        List<Long> ids = request.getIds() != null
+                ? new ArrayList<>(new LinkedHashSet<>(request.getIds()))
+                : beverageRepository.findQuarantinedIdsExpiredBefore(request.getExpiredBefore());
+        String reason = disposalReason(request.getReason());
+        LocalDateTime now = LocalDateTime.now();
+        int disposed = 0;
+        int found = 0;
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()));
+            disposed += beverageRepository.disposeByIds(chunk, reason, now);
+            List<Beverage> lots = beverageRepository.findAllById(chunk);
+            found += lots.size();
+            changePublisher.lotsSaved(lots);
+        }
+        return new BulkDisposeResultDTO(ids.size(), disposed, ids.size() - found, found - disposed);
+    }
+    
+    private static String disposalReason(String reason) {
+        return reason == null || reason.isBlank() ? DEFAULT_DISPOSAL_REASON : reason;
+    }
+    
+    /**
+     * 取得已報廢的商品列表（DISPOSED 狀態，包含已封存的批次）
      */
     public List<BeverageDTO> getDisposedBeverages() {
-        return beverageRepository.findDisposedBeverages().stream()
+        LocalDate today = LocalDate.now();
+        List<BeverageDTO> disposed = beverageRepository.findDisposedBeverages().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        return disposedLotArchive.mergeWithLive(disposed, BeverageDTO::getId, lot -> BeverageMapper.toDTO(lot, today));
+    }
+    
+    /**
+     * 以分段的批量 UPDATE 變更狀態（每段一個 UPDATE），並發布異動
+     * 只更新目前狀態仍為 from 的批次，回傳實際更新的筆數
+     */
+    private int transitionStatus(List<Long> ids, BeverageStatus from, BeverageStatus to) {
+        int updated = 0;
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()));
+            updated += beverageRepository.updateStatusByIds(chunk, from, to, LocalDateTime.now());
+            changePublisher.lotsSaved(beverageRepository.findAllById(chunk));
+        }
+        return updated;
+    }
+    
+    private static int minRemainingDays(StockOutRequestDTO request) {
+        return request.getMinRemainingDays() == null ? 0 : request.getMinRemainingDays();
+    }
+    
+    /**
+     * 寫入批次的商品 ID；正規化後沒有名稱（無法對應商品）時拒絕，不留給啟動時的遷移補齊
+     */
+    private int requireProductId(String name) {
+        String normalized = Product.normalizeName(name);
+        if (normalized == null || normalized.isEmpty()) {
+            throw new BusinessRuleViolationException("PRODUCT_REQUIRED", "批次必須對應商品，飲料名稱不能為空");
+        }
+        return productCatalog.resolveId(normalized);
+    }
+
+    /**
+     * 正規化倉庫代碼，未指定時使用預設倉庫
+     */
+    private String resolveWarehouse(String warehouse) {
+        if (warehouse == null || warehouse.isBlank()) {
+            return Beverage.DEFAULT_WAREHOUSE;
+        }
+        return warehouse.trim();
+    }
+    
+    private BeverageStatisticsDTO convertToStatisticsDTO(WarehouseStatistics stats) {
+        return new BeverageStatisticsDTO(
+                stats.getWarehouse(),
+                stats.getTotalItems(),
+                stats.getTotalQuantity(),
+                stats.getExpiredQuantity(),
+                stats.getExpiringSoonQuantity()
+        );
     }
     
     /**
      * 轉換 Entity 為 DTO
      */
     private BeverageDTO convertToDTO(Beverage beverage) {
-        BeverageDTO dto = new BeverageDTO();
-        dto.setId(beverage.getId());
-        dto.setName(beverage.getName());
-        dto.setQuantity(beverage.getQuantity());
-        dto.setProductionDate(beverage.getProductionDate());
-        dto.setExpiryDate(beverage.getExpiryDate());
-        dto.setCreatedAt(beverage.getCreatedAt());
-        dto.setUpdatedAt(beverage.getUpdatedAt());
-        dto.setExpired(beverage.isExpired());
-        dto.setDaysUntilExpiry(beverage.getDaysUntilExpiry());
-        dto.setExpiringSoon(beverage.isExpiringSoon());
-        dto.setStatus(beverage.getStatus());
-        dto.setDisposalReason(beverage.getDisposalReason());
-        dto.setDisposedAt(beverage.getDisposedAt());
-        return dto;
+        return BeverageMapper.toDTO(beverage);
     }
     
     /**
      * 庫存統計 DTO（內部類別）
      */
     public static class BeverageStatisticsDTO {
+        private final String warehouse;
         private final long totalItems;
         private final long totalQuantity;
         private final long expiredQuantity;
         private final long expiringSoonQuantity;
         
         public BeverageStatisticsDTO(long totalItems, long totalQuantity, long expiredQuantity, long expiringSoonQuantity) {
+            this(null, totalItems, totalQuantity, expiredQuantity, expiringSoonQuantity);
+        }
+        
+        public BeverageStatisticsDTO(String warehouse, long totalItems, long totalQuantity, long expiredQuantity, long expiringSoonQuantity) {
+            this.warehouse = warehouse;
             this.totalItems = totalItems;
             this.totalQuantity = totalQuantity;
             this.expiredQuantity = expiredQuantity;
             this.expiringSoonQuantity = expiringSoonQuantity;
         }
         
+        public String getWarehouse() { return warehouse; }
         public long getTotalItems() { return totalItems; }
         public long getTotalQuantity() { return totalQuantity; }
         public long getExpiredQuantity() { return expiredQuantity; }
         public long getExpiringSoonQuantity() { return expiringSoonQuantity; }
     }
+    
+    /**
+     * 出庫的商品與倉庫；name 為正規化名稱，只用於錯誤訊息
+     * CANONICAL_ORDER 為商品鎖的取得順序：先倉庫、再商品 ID
+     */
+    private record ProductKey(String warehouse, int productId, String name) {
+        static final Comparator<ProductKey> CANONICAL_ORDER =
+                Comparator.comparing(ProductKey::warehouse).thenComparingInt(ProductKey::productId);
+    }
+    
+    /**
+     * 訂單明細的配貨單位：商品、最少剩餘天數與配貨策略
+     * 仍依商品鎖的固定順序排列；同商品時最少剩餘天數較大（較嚴格）的先配貨
+     */
+    private record OrderLine(ProductKey product, int minRemainingDays, AllocationStrategy strategy) {
+        static final Comparator<OrderLine> CANONICAL_ORDER =
+                Comparator.comparing(OrderLine::product, ProductKey.CANONICAL_ORDER)
+                        .thenComparing(Comparator.comparingInt(OrderLine::minRemainingDays).reversed())
+                        .thenComparing(line -> line.strategy().policy());
+    }
 }
-
@@ -0,0 +1,48 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.model.LotSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 讀取模型的批次列表（唯讀）
+ *
+ * 元素在讀取時才轉換為 {@link BeverageDTO}；以 JSON 回應時由 {@link LotJsonCache} 串接快取的片段，
+ * 不需要建立 DTO，也不需要重新序列化未變動的批次（見 LotJsonHttpMessageConverter）
+ * 其他格式（例如 CBOR）仍當作一般的 List 序列化
+ */
+public final class CachedLotList extends AbstractList<BeverageDTO> implements RandomAccess {
+
+    private final List<LotSnapshot> lots;
+    private final LocalDate today;
+    private final LotJsonCache jsonCache;
+
+    CachedLotList(List<LotSnapshot> lots, LocalDate today, LotJsonCache jsonCache) {
+        this.lots = lots;
+        this.today = today;
+        this.jsonCache = jsonCache;
+    }
+
+    @Override
+    public BeverageDTO get(int index) {
+        return BeverageMapper.toDTO(lots.get(index), today);
+    }
+
+    @Override
+    public int size() {
+        return lots.size();
+    }
+
+    /**
+     * 以 JSON 陣列寫出（與 ObjectMapper 序列化 List&lt;BeverageDTO&gt; 的結果相同）
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        jsonCache.writeArray(lots, today, out);
+    }
+}
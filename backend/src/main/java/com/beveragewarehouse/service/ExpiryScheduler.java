@@ -0,0 +1,250 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.event.RebuildableLotIndex;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 過期批次的準時隔離
+ *
+ * 以優先佇列保存所有 NORMAL 批次的過期邊界（有效期限隔天 00:00），
+ * 計時器只在最早的邊界喚醒，並以批量 UPDATE 隔離剛好在該邊界過期的批次；
+ * 每次喚醒的工作量與過期的批次數成正比，不掃描整張資料表
+ *
+ * - 啟動時從資料庫載入 NORMAL 批次的有效期限，重啟後立即補隔離停機期間過期的批次
+ * - 入庫、更新等已提交的異動（afterCommit）即時加入或移除索引
+ * - 批次被出庫用盡、隔離、報廢或刪除後從索引移除
+ * - 隔離失敗時批次放回索引，retry-delay-ms 後重試；另定期與資料庫對帳
+ */
+@Slf4j
+@Component
+public class ExpiryScheduler extends RebuildableLotIndex implements DisposableBean {
+
+    private static final Duration MAX_SLEEP = Duration.ofHours(1);
+
+    private final BeverageService beverageService;
+    private final boolean enabled;
+    private final long retryDelayMillis;
+
+    private final PriorityQueue<LocalDate> boundaries = new PriorityQueue<>();
+    private final Map<LocalDate, Set<Long>> lotsByExpiry = new HashMap<>();
+    private final Map<Long, LocalDate> expiryByLot = new HashMap<>();
+
+    private final ScheduledExecutorService timer;
+    private ScheduledFuture<?> nextRun;
+    private LocalDate nextRunDate;
+
+    /**
+     * 隔離失敗後的重試；等待期間異動不重新排程，也不取消它
+     */
+    private ScheduledFuture<?> retry;
+
+    public ExpiryScheduler(
+            BeverageRepository beverageRepository,
+            BeverageService beverageService,
+            @Value("${warehouse.expiry.scheduler-enabled:true}") boolean enabled,
+            @Value("${warehouse.expiry.retry-delay-ms:60000}") long retryDelayMillis) {
+        super(beverageRepository);
+        this.beverageService = beverageService;
+        this.enabled = enabled;
+        this.retryDelayMillis = retryDelayMillis;
+        this.timer = enabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expiry-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void destroy() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * 定期從資料庫對帳重建
+     */
+    @Scheduled(fixedDelayString = "${warehouse.expiry.reconcile-interval-ms:3600000}",
+            initialDelayString = "${warehouse.expiry.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    @Override
+    protected void reset() {
+        boundaries.clear();
+        lotsByExpiry.clear();
+        expiryByLot.clear();
+    }
+
+    @Override
+    protected void put(LotSnapshot lot) {
+        unindex(lot.id());
+        if (lot.status() == BeverageStatus.NORMAL && lot.quantity() > 0) {
+            index(lot.id(), lot.expiryDate());
+        }
+    }
+
+    @Override
+    protected void remove(Long lotId) {
+        unindex(lotId);
+    }
+
+    @Override
+    protected void afterApply() {
+        reschedule();
+    }
+
+    /**
+     * 隔離所有在 today 之前過期的已索引批次，回傳隔離的批次數
+     * 隔離失敗時批次放回索引後拋出例外，由重試或下一次喚醒再隔離
+     */
+    int runDue(LocalDate today) {
+        Map<Long, LocalDate> expired = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            while (!boundaries.isEmpty() && boundaries.peek().isBefore(today)) {
+                LocalDate expiryDate = boundaries.poll();
+                Set<Long> lots = lotsByExpiry.remove(expiryDate);
+                if (lots != null) {
+                    lots.forEach(id -> expired.put(id, expiryDate));
+                }
+            }
+            // 先移出索引；隔離提交後的異動通知不會再加入（狀態已非 NORMAL）
+            expired.keySet().forEach(expiryByLot::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        int quarantined;
+        try {
+            quarantined = beverageService.quarantineLots(new ArrayList<>(expired.keySet()), today);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                // 期間已由異動重新索引的批次以異動為準；多放回的批次無害（隔離只更新仍為 NORMAL 的批次）
+                expired.forEach((id, expiryDate) -> {
+                    if (!expiryByLot.containsKey(id)) {
+                        index(id, expiryDate);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        log.info("過期排程隔離 {} 個批次", quarantined);
+        return quarantined;
+    }
+
+    /**
+     * 下一個過期邊界對應的有效期限（沒有時為 null）
+     */
+    LocalDate nextExpiry() {
+        lock.readLock().lock();
+        try {
+            return boundaries.peek();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void run() {
+        try {
+            runDue(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.warn("過期排程隔離失敗，{} ms 後重試", retryDelayMillis, e);
+            lock.writeLock().lock();
+            try {
+                nextRun = null;
+                nextRunDate = null;
+                retry = timer.schedule(this::run, retryDelayMillis, TimeUnit.MILLISECONDS);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            retry = null;
+            nextRunDate = null;
+            reschedule();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Long lotId, LocalDate expiryDate) {
+        Set<Long> lots = lotsByExpiry.get(expiryDate);
+        if (lots == null) {
+            lots = new HashSet<>();
+            lotsByExpiry.put(expiryDate, lots);
+            boundaries.add(expiryDate);
+        }
+        lots.add(lotId);
+        expiryByLot.put(lotId, expiryDate);
+    }
+
+    private void unindex(Long lotId) {
+        LocalDate expiryDate = expiryByLot.remove(lotId);
+        if (expiryDate == null) {
+            return;
+        }
+        Set<Long> lots = lotsByExpiry.get(expiryDate);
+        if (lots != null && lots.remove(lotId) && lots.isEmpty()) {
+            lotsByExpiry.remove(expiryDate);
+            boundaries.remove(expiryDate);
+        }
+    }
+
+    /**
+     * 計時器對準最早的邊界；已排定的喚醒不晚於它時不需要變更
+     * 單次等待最多 MAX_SLEEP，系統時間被調整時也能在合理時間內修正
+     * 隔離失敗後等待重試期間不排程（已放回的過期批次會讓計時器立即喚醒）
+     */
+    private void reschedule() {
+        LocalDate earliest = boundaries.peek();
+        if (earliest == null || timer == null || (retry != null && !retry.isDone())) {
+            return;
+        }
+        if (nextRun != null && !nextRun.isDone() && nextRunDate != null && !nextRunDate.isAfter(earliest)) {
+            return;
+        }
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+        LocalDateTime boundary = earliest.plusDays(1).atStartOfDay();
+        long delayMillis = Math.max(0, Math.min(MAX_SLEEP.toMillis(),
+                Duration.between(LocalDateTime.now(), boundary).toMillis()));
+        nextRunDate = earliest;
+        nextRun = timer.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,372 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.archive.DisposedLotArchive;
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.event.InventoryChange;
+import com.beveragewarehouse.event.RebuildableLotIndex;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 讀取模型（CQRS Read Side）
+ *
+ * 由已提交的庫存異動建立，以不可變快照（copy-on-write）發布：
+ * - 讀取端只讀取目前的快照參考，不取得任何鎖，也不使用資料庫連線
+ * - 寫入端在交易提交後把異動排入佇列，由單一套用者批次套用到工作中的批次表（{@link RebuildableLotIndex}：
+ *   墓碑、新舊判斷與重建期間的異動重放），再複製並原子替換快照
+ * - 佇列最多累積 max-staleness-ms 毫秒就會被套用（可見的過時上限）
+ * - 啟用 read-your-writes 時，寫入執行緒之後的讀取會等待包含自己異動的快照：
+ *   請求背景套用後不持有任何鎖地等待，最多 read-your-writes-timeout-ms，逾時則回傳目前的快照
+ * - 定期從資料庫完整重建，修正任何遺漏的異動
+ *
+ * 批次列表以 {@link CachedLotList} 回傳，JSON 回應串接 {@link LotJsonCache} 中的批次片段
+ */
+@Component
+public class InventoryReadModel extends RebuildableLotIndex implements DisposableBean {
+
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final DisposedLotArchive disposedLotArchive;
+    private final LotJsonCache lotJsonCache;
+    private final boolean enabled;
+    private final boolean readYourWrites;
+    private final long readYourWritesTimeoutNanos;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    private final ConcurrentLinkedQueue<PendingBatch> pending = new ConcurrentLinkedQueue<>();
+    private final Object applyLock = new Object();
+    private final ThreadLocal<Long> lastWrittenSequence = new ThreadLocal<>();
+
+    /**
+     * 工作中的批次表（持有 {@link #lock} 時使用），發布時複製為快照
+     */
+    private final Map<Long, LotSnapshot> lots = new HashMap<>();
+
+    /**
+     * read-your-writes 讀取端請求的背景套用（同時的請求合併為一次）
+     */
+    private final ExecutorService applier;
+    private final AtomicBoolean applyRequested = new AtomicBoolean();
+
+    private long publishedSequence;
+
+    /**
+     * 已套用到工作批次表的異動序號（持有 applyLock 時使用）
+     */
+    private long appliedSequence;
+
+    public InventoryReadModel(
+            BeverageRepository beverageRepository,
+            DisposedLotArchive disposedLotArchive,
+            LotJsonCache lotJsonCache,
+            @Value("${warehouse.read-model.enabled:true}") boolean enabled,
+            @Value("${warehouse.read-model.read-your-writes:true}") boolean readYourWrites,
+            @Value("${warehouse.read-model.read-your-writes-timeout-ms:1000}") long readYourWritesTimeoutMillis) {
+        super(beverageRepository);
+        this.disposedLotArchive = disposedLotArchive;
+        this.lotJsonCache = lotJsonCache;
+        this.enabled = enabled;
+        this.readYourWrites = readYourWrites;
+        this.readYourWritesTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesTimeoutMillis);
+        this.applier = enabled && readYourWrites ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-model-apply");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void destroy() {
+        if (applier != null) {
+            applier.shutdownNow();
+        }
+    }
+
+    // ==================== 寫入端 ====================
+
+    @Override
+    public void onInventoryChanges(List<InventoryChange> changes) {
+        if (!enabled) {
+            return;
+        }
+        long sequence;
+        synchronized (pending) {
+            sequence = ++publishedSequence;
+            pending.add(new PendingBatch(sequence, System.currentTimeMillis(), changes));
+        }
+        lastWrittenSequence.set(sequence);
+    }
+
+    /**
+     * 套用佇列中的異動並發布新的快照（排程執行，間隔即為過時上限）
+     */
+    @Scheduled(fixedDelayString = "${warehouse.read-model.max-staleness-ms:200}")
+    public void applyPending() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+        synchronized (applyLock) {
+            List<InventoryChange> changes = new ArrayList<>();
+            long sequence = appliedSequence;
+            PendingBatch batch;
+            while ((batch = pending.poll()) != null) {
+                changes.addAll(batch.changes());
+                sequence = batch.sequence();
+            }
+            if (sequence == appliedSequence) {
+                return;
+            }
+            super.onInventoryChanges(changes);
+            appliedSequence = sequence;
+            publish();
+        }
+    }
+
+    /**
+     * 定期從資料庫完整重建，修正任何遺漏的異動
+     */
+    @Scheduled(fixedDelayString = "${warehouse.read-model.rebuild-interval-ms:300000}",
+            initialDelayString = "${warehouse.read-model.rebuild-interval-ms:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * 先套用已排入的異動（在載入之前提交，不能留到重建之後才套用），再開始記錄重建期間的異動
+     */
+    @Override
+    public void beginRebuild() {
+        applyPending();
+        super.beginRebuild();
+    }
+
+    /**
+     * 重建後立即發布；之後排入的異動稍後以 updatedAt 判斷新舊後套用
+     */
+    @Override
+    public void rebuild(List<LotSnapshot> loaded) {
+        if (!enabled) {
+            return;
+        }
+        super.rebuild(loaded);
+        synchronized (applyLock) {
+            publish();
+        }
+    }
+
+    @Override
+    protected void reset() {
+        lots.clear();
+    }
+
+    @Override
+    protected void put(LotSnapshot lot) {
+        lots.put(lot.id(), lot);
+    }
+
+    @Override
+    protected void remove(Long lotId) {
+        lots.remove(lotId);
+    }
+
+    @Override
+    protected boolean isStale(LotSnapshot incoming) {
+        LotSnapshot existing = lots.get(incoming.id());
+        return existing != null && isOlder(incoming.updatedAt(), existing.updatedAt());
+    }
+
+    /**
+     * 複製工作批次表為新的快照（呼叫端持有 applyLock）
+     */
+    private void publish() {
+        Map<Long, LotSnapshot> copy;
+        lock.readLock().lock();
+        try {
+            copy = new HashMap<>(lots);
+        } finally {
+            lock.readLock().unlock();
+        }
+        current.set(new Snapshot(appliedSequence, Collections.unmodifiableMap(copy), System.currentTimeMillis()));
+    }
+
+    // ==================== 讀取端 ====================
+
+    /**
+     * 目前快照；若啟用 read-your-writes 且本執行緒寫入的異動尚未發布，請求背景套用並等待（不取得任何鎖）
+     */
+    Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (!readYourWrites) {
+            return snapshot;
+        }
+        Long written = lastWrittenSequence.get();
+        if (written == null || snapshot.sequence() >= written) {
+            return snapshot;
+        }
+        requestApply();
+        long deadline = System.nanoTime() + readYourWritesTimeoutNanos;
+        while (snapshot.sequence() < written && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(WAIT_NANOS);
+            snapshot = current.get();
+        }
+        return snapshot;
+    }
+
+    private void requestApply() {
+        if (applier == null || !applyRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            applier.execute(() -> {
+                applyRequested.set(false);
+                applyPending();
+            });
+        } catch (RejectedExecutionException e) {
+            // 關閉中：由排程套用或逾時後回傳目前的快照
+            applyRequested.set(false);
+        }
+    }
+
+    /**
+     * 目前讀取模型落後已提交資料的毫秒數（佇列為空時為 0）
+     */
+    public long stalenessMillis() {
+        PendingBatch oldest = pending.peek();
+        return oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.enqueuedAt());
+    }
+
+    /**
+     * 目前快照已套用的異動序號
+     */
+    public long version() {
+        return current.get().sequence();
+    }
+
+    public List<BeverageDTO> getAllBeverages() {
+        return query(lot -> true);
+    }
+
+    public List<BeverageDTO> getBeveragesByWarehouse(String warehouse) {
+        return query(lot -> lot.warehouse().equals(warehouse));
+    }
+
+    public Optional<BeverageDTO> getBeverageById(Long id) {
+        LotSnapshot lot = snapshot().lots().get(id);
+        return lot == null ? Optional.empty() : Optional.of(BeverageMapper.toDTO(lot, LocalDate.now()));
+    }
+
+    public List<BeverageDTO> getExpiredBeverages() {
+        LocalDate today = LocalDate.now();
+        return query(lot -> lot.expiryDate().isBefore(today));
+    }
+
+    public List<BeverageDTO> getExpiringSoonBeverages() {
+        LocalDate today = LocalDate.now();
+        LocalDate sevenDaysLater = today.plusDays(7);
+        return query(lot -> !lot.expiryDate().isBefore(today) && !lot.expiryDate().isAfter(sevenDaysLater));
+    }
+
+    public List<BeverageDTO> getQuarantinedBeverages() {
+        return query(lot -> lot.status() == BeverageStatus.QUARANTINED);
+    }
+
+    /**
+     * 已報廢批次（包含已封存、不在快照中的批次）
+     */
+    public List<BeverageDTO> getDisposedBeverages() {
+        LocalDate today = LocalDate.now();
+        List<LotSnapshot> lots = disposedLotArchive.mergeWithLive(select(lot -> lot.status() == BeverageStatus.DISPOSED),
+                LotSnapshot::id, lot -> lot);
+        return new CachedLotList(lots, today, lotJsonCache);
+    }
+
+    public BeverageService.BeverageStatisticsDTO getStatistics() {
+        return summarize(null, snapshot().lots().values(), LocalDate.now());
+    }
+
+    public BeverageService.BeverageStatisticsDTO getStatistics(String warehouse) {
+        List<LotSnapshot> lots = snapshot().lots().values().stream()
+                .filter(lot -> lot.warehouse().equals(warehouse))
+                .collect(Collectors.toList());
+        return summarize(warehouse, lots, LocalDate.now());
+    }
+
+    public List<BeverageService.BeverageStatisticsDTO> getStatisticsByWarehouse() {
+        LocalDate today = LocalDate.now();
+        Map<String, List<LotSnapshot>> byWarehouse = snapshot().lots().values().stream()
+                .collect(Collectors.groupingBy(LotSnapshot::warehouse, TreeMap::new, Collectors.toList()));
+        return byWarehouse.entrySet().stream()
+                .map(entry -> summarize(entry.getKey(), entry.getValue(), today))
+                .collect(Collectors.toList());
+    }
+
+    private List<BeverageDTO> query(Predicate<LotSnapshot> filter) {
+        return new CachedLotList(select(filter), LocalDate.now(), lotJsonCache);
+    }
+
+    private List<LotSnapshot> select(Predicate<LotSnapshot> filter) {
+        return snapshot().lots().values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(LotSnapshot::id))
+                .collect(Collectors.toList());
+    }
+
+    private BeverageService.BeverageStatisticsDTO summarize(String warehouse, Iterable<LotSnapshot> lots, LocalDate today) {
+        LocalDate sevenDaysLater = today.plusDays(7);
+        long totalItems = 0;
+        long totalQuantity = 0;
+        long expiredQuantity = 0;
+        long expiringSoonQuantity = 0;
+        for (LotSnapshot lot : lots) {
+            totalItems++;
+            totalQuantity += lot.quantity();
+            if (lot.expiryDate().isBefore(today)) {
+                expiredQuantity += lot.quantity();
+            } else if (!lot.expiryDate().isAfter(sevenDaysLater)) {
+                expiringSoonQuantity += lot.quantity();
+            }
+        }
+        return new BeverageService.BeverageStatisticsDTO(
+                warehouse, totalItems, totalQuantity, expiredQuantity, expiringSoonQuantity);
+    }
+
+    /**
+     * 不可變快照：sequence 為已套用的最後異動序號
+     */
+    record Snapshot(long sequence, Map<Long, LotSnapshot> lots, long appliedAt) {
+        static final Snapshot EMPTY = new Snapshot(0, Map.of(), 0);
+    }
+
+    private record PendingBatch(long sequence, long enqueuedAt, List<InventoryChange> changes) {
+    }
+}
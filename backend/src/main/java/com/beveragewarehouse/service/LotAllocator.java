@@ -0,0 +1,137 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.repository.LotCandidate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 出庫配貨：決定並鎖定要扣減的批次（依 FEFO 順序回傳）
+ *
+ * 兩種鎖定模式（warehouse.allocation.lock-mode）：
+ * - LOCK_ALL：一次鎖定該商品在倉庫中的所有可用批次；同商品的出庫完全序列化，SQL 陳述式最少
+ * - SKIP_LOCKED：依 FEFO 逐批鎖定，跳過其他交易正在扣減的批次，同商品的出庫可以扣減不同批次並行進行；
+ *   只有在被跳過的批次確實需要時（FEFO 視窗內沒有其他批次）才等待，等待上限為 lock-timeout-ms（以秒為單位生效）
+ *
+ * fefo-window-days：批次被鎖定時，允許改出有效期限最多晚 N 天的批次（0 = 只在同一天到期的批次間放寬）
+ *
+ * 生效中的召回範圍內的批次（{@link RecallRegistry}）不會被配貨，即使隔離的 UPDATE 尚未提交
+ *
+ * SKIP_LOCKED 模式依配貨策略的鎖定順序（{@link AllocationStrategy#lockOrder}）逐批鎖定；
+ * 跳過被鎖定的批次時，仍不會改出有效期限比它晚超過 fefo-window-days 的批次（改為等待）。
+ * 配貨策略需要所有可用批次才能決定扣減順序時（{@link AllocationStrategy#needsAllLots()}，只有自訂策略），
+ * 兩種模式都一次鎖定所有可用批次
+ */
+@Component
+public class LotAllocator {
+
+    public enum LockMode {
+        LOCK_ALL,
+        SKIP_LOCKED
+    }
+
+    private final BeverageRepository beverageRepository;
+    private final RecallRegistry recallRegistry;
+    private final LockMode lockMode;
+    private final long lockTimeoutMillis;
+    private final int fefoWindowDays;
+
+    public LotAllocator(
+            BeverageRepository beverageRepository,
+            RecallRegistry recallRegistry,
+            @Value("${warehouse.allocation.lock-mode:LOCK_ALL}") LockMode lockMode,
+            @Value("${warehouse.allocation.lock-timeout-ms:2000}") long lockTimeoutMillis,
+            @Value("${warehouse.allocation.fefo-window-days:0}") int fefoWindowDays) {
+        this.beverageRepository = beverageRepository;
+        this.recallRegistry = recallRegistry;
+        this.lockMode = lockMode;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.fefoWindowDays = fefoWindowDays;
+    }
+
+    public LockMode getLockMode() {
+        return lockMode;
+    }
+
+    /**
+     * 鎖定商品足以扣減 quantity 的批次；庫存不足時回傳所有能鎖定的可用批次（由呼叫端判斷不足）
+     * 必須在交易中呼叫
+     *
+     * @param earliestExpiry 可配貨的最早有效期限（今天，或今天 + 最少剩餘天數），
+     *                       作為配貨索引中 expiry_date 範圍掃描的起點，不是查詢後再過濾
+     * @param strategy       配貨策略（決定鎖定順序，或是否需要鎖定所有可用批次）
+     */
+    public List<Beverage> lockLots(int productId, String warehouse, LocalDate earliestExpiry, int quantity,
+                                   AllocationStrategy strategy) {
+        if (lockMode == LockMode.LOCK_ALL || strategy.needsAllLots()) {
+            List<Beverage> locked = new ArrayList<>(
+                    beverageRepository.findAvailableBeveragesByProductOrderByExpiryWithLock(productId, warehouse, earliestExpiry));
+            locked.removeIf(recallRegistry::isRecalled);
+            return locked;
+        }
+        List<LotCandidate> candidates = strategy.lockOrder(
+                beverageRepository.findAllocationCandidates(productId, warehouse, earliestExpiry), quantity);
+        return lockLotsSkippingLocked(candidates, earliestExpiry, quantity);
+    }
+
+    /**
+     * 依鎖定順序逐批嘗試鎖定候選批次，被其他交易鎖定的批次先延後；
+     * 下一個候選批次超出最早延後批次的 FEFO 視窗時，改為等待延後的批次
+     * 鎖定時重新檢查批次仍可用，剩餘數量以鎖定的實體計算
+     */
+    private List<Beverage> lockLotsSkippingLocked(List<LotCandidate> candidates, LocalDate earliestExpiry,
+                                                  int quantity) {
+        Deque<LotCandidate> deferred = new ArrayDeque<>();
+        List<Beverage> locked = new ArrayList<>();
+        int next = 0;
+        int remaining = quantity;
+        while (remaining > 0) {
+            LotCandidate candidate = next < candidates.size() ? candidates.get(next) : null;
+            Optional<Beverage> lot;
+            if (candidate != null && withinWindow(candidate, deferred)) {
+                next++;
+                lot = beverageRepository.lockAvailableLotSkipLocked(candidate.getId(), earliestExpiry);
+                if (lot.isEmpty()) {
+                    deferred.addLast(candidate);
+                    continue;
+                }
+            } else if (!deferred.isEmpty()) {
+                // 被跳過的批次確實需要：等待其他交易釋放（批次可能已被扣完）
+                lot = beverageRepository.lockAvailableLot(deferred.pollFirst().getId(), earliestExpiry, lockTimeoutMillis);
+                if (lot.isEmpty()) {
+                    continue;
+                }
+            } else {
+                break;
+            }
+            if (recallRegistry.isRecalled(lot.get())) {
+                continue;
+            }
+            locked.add(lot.get());
+            remaining -= lot.get().getQuantity();
+        }
+        return locked;
+    }
+
+    /**
+     * 候選批次的有效期限是否不晚於延後批次中最早到期者 + fefo-window-days
+     * （非 FEFO 的鎖定順序中，先延後的批次不一定最早到期）
+     */
+    private boolean withinWindow(LotCandidate candidate, Deque<LotCandidate> deferred) {
+        LocalDate limit = null;
+        for (LotCandidate lot : deferred) {
+            if (limit == null || lot.getExpiryDate().isBefore(limit)) {
+                limit = lot.getExpiryDate();
+            }
+        }
+        return limit == null || !candidate.getExpiryDate().isAfter(limit.plusDays(fefoWindowDays));
+    }
+}
@@ -0,0 +1,247 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.LotCriteriaDTO;
+import com.beveragewarehouse.dto.LotFilterRequestDTO;
+import com.beveragewarehouse.dto.LotFilterResultDTO;
+import com.beveragewarehouse.event.RebuildableLotIndex;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 批次多條件篩選索引（記憶體點陣圖）
+ *
+ * 每個屬性值或區間桶各有一個 {@link CompressedBitmap}，位置為批次 ID：
+ * - 商品 ID、狀態、倉庫：每個值一個點陣圖
+ * - 過期日、生產日（epoch day）、數量：每個值一個點陣圖，依值排序，範圍條件為區間內點陣圖的聯集
+ *
+ * 一組條件的結果為各條件點陣圖的交集，多組條件的結果再取聯集，篩選過程不存取資料庫
+ * 由已提交的庫存異動（afterCommit）更新，每個異動先移除批次舊的索引再加入新的；
+ * 每 reconcile-interval-ms 從資料庫對帳重建一次（{@link RebuildableLotIndex}）
+ */
+@Component
+public class LotFilterIndex extends RebuildableLotIndex {
+
+    private final ProductCatalog productCatalog;
+
+    private final Map<Long, LotSnapshot> lots = new HashMap<>();
+    private CompressedBitmap all = new CompressedBitmap();
+    private final Map<Integer, CompressedBitmap> byProduct = new HashMap<>();
+    private final Map<BeverageStatus, CompressedBitmap> byStatus = new EnumMap<>(BeverageStatus.class);
+    private final Map<String, CompressedBitmap> byWarehouse = new HashMap<>();
+    private final NavigableMap<Long, CompressedBitmap> byExpiry = new TreeMap<>();
+    private final NavigableMap<Long, CompressedBitmap> byProduction = new TreeMap<>();
+    private final NavigableMap<Integer, CompressedBitmap> byQuantity = new TreeMap<>();
+
+    public LotFilterIndex(BeverageRepository beverageRepository, ProductCatalog productCatalog) {
+        super(beverageRepository);
+        this.productCatalog = productCatalog;
+    }
+
+    /**
+     * 定期從資料庫對帳重建（清除墓碑、修正遺漏的異動）
+     */
+    @Scheduled(fixedDelayString = "${warehouse.filter-index.reconcile-interval-ms:300000}",
+            initialDelayString = "${warehouse.filter-index.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * 依條件篩選批次：組內條件取交集、組與組之間取聯集，結果依 ID 排序
+     */
+    public LotFilterResultDTO filter(LotFilterRequestDTO request) {
+        // 商品名稱在加鎖前轉成商品 ID（可能查詢商品主檔）
+        List<Set<Integer>> productIds = new ArrayList<>(request.getAnyOf().size());
+        for (LotCriteriaDTO criteria : request.getAnyOf()) {
+            productIds.add(resolveProductIds(criteria.getNames()));
+        }
+        int limit = request.getLimit() == null ? 100 : request.getLimit();
+        LocalDate today = LocalDate.now();
+        lock.readLock().lock();
+        try {
+            CompressedBitmap matched = new CompressedBitmap();
+            for (int i = 0; i < request.getAnyOf().size(); i++) {
+                matched = matched.or(match(request.getAnyOf().get(i), productIds.get(i)));
+            }
+            List<BeverageDTO> results = new ArrayList<>((int) Math.min(limit, matched.cardinality()));
+            matched.forEach(id -> {
+                if (results.size() < limit) {
+                    results.add(BeverageMapper.toDTO(lots.get((long) id), today));
+                }
+            });
+            return new LotFilterResultDTO(matched.cardinality(), results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Integer> resolveProductIds(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                productCatalog.findId(name).ifPresent(ids::add);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 一組條件的交集（未指定任何條件時為所有批次；回傳的點陣圖只供讀取）
+     */
+    private CompressedBitmap match(LotCriteriaDTO criteria, Set<Integer> productIds) {
+        CompressedBitmap result = all;
+        if (productIds != null) {
+            result = result.and(union(byProduct, productIds));
+        }
+        if (criteria.getStatuses() != null) {
+            result = result.and(union(byStatus, criteria.getStatuses()));
+        }
+        if (criteria.getWarehouses() != null) {
+            List<String> warehouses = criteria.getWarehouses().stream()
+                    .filter(warehouse -> warehouse != null)
+                    .map(String::trim)
+                    .toList();
+            result = result.and(union(byWarehouse, warehouses));
+        }
+        if (criteria.getExpiryFrom() != null || criteria.getExpiryTo() != null) {
+            result = result.and(range(byExpiry, epochDay(criteria.getExpiryFrom()), epochDay(criteria.getExpiryTo())));
+        }
+        if (criteria.getProductionFrom() != null || criteria.getProductionTo() != null) {
+            result = result.and(range(byProduction,
+                    epochDay(criteria.getProductionFrom()), epochDay(criteria.getProductionTo())));
+        }
+        if (criteria.getMinQuantity() != null || criteria.getMaxQuantity() != null) {
+            result = result.and(range(byQuantity, criteria.getMinQuantity(), criteria.getMaxQuantity()));
+        }
+        return result;
+    }
+
+    private static <K> CompressedBitmap union(Map<K, CompressedBitmap> bitmaps, Iterable<K> values) {
+        List<CompressedBitmap> matched = new ArrayList<>();
+        for (K value : values) {
+            CompressedBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                matched.add(bitmap);
+            }
+        }
+        return CompressedBitmap.orAll(matched);
+    }
+
+    /**
+     * 區間內（包含兩端，null 為不限）所有值的點陣圖聯集
+     */
+    private static <K extends Comparable<K>> CompressedBitmap range(NavigableMap<K, CompressedBitmap> bitmaps,
+                                                                    K from, K to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            return new CompressedBitmap();
+        }
+        NavigableMap<K, CompressedBitmap> selected = bitmaps;
+        if (from != null) {
+            selected = selected.tailMap(from, true);
+        }
+        if (to != null) {
+            selected = selected.headMap(to, true);
+        }
+        return CompressedBitmap.orAll(selected.values());
+    }
+
+    private static Long epochDay(LocalDate date) {
+        return date == null ? null : date.toEpochDay();
+    }
+
+    @Override
+    protected void reset() {
+        lots.clear();
+        all = new CompressedBitmap();
+        byProduct.clear();
+        byStatus.clear();
+        byWarehouse.clear();
+        byExpiry.clear();
+        byProduction.clear();
+        byQuantity.clear();
+    }
+
+    @Override
+    protected void put(LotSnapshot lot) {
+        LotSnapshot existing = lots.put(lot.id(), lot);
+        if (existing != null) {
+            unindex(existing);
+        }
+        index(lot);
+    }
+
+    @Override
+    protected void remove(Long lotId) {
+        LotSnapshot existing = lots.remove(lotId);
+        if (existing != null) {
+            unindex(existing);
+        }
+    }
+
+    @Override
+    protected boolean isStale(LotSnapshot incoming) {
+        LotSnapshot existing = lots.get(incoming.id());
+        return existing != null && isOlder(incoming.updatedAt(), existing.updatedAt());
+    }
+
+    private void index(LotSnapshot lot) {
+        int position = position(lot);
+        all.add(position);
+        if (lot.productId() != null) {
+            byProduct.computeIfAbsent(lot.productId(), id -> new CompressedBitmap()).add(position);
+        }
+        byStatus.computeIfAbsent(lot.status(), status -> new CompressedBitmap()).add(position);
+        byWarehouse.computeIfAbsent(lot.warehouse(), warehouse -> new CompressedBitmap()).add(position);
+        byExpiry.computeIfAbsent(lot.expiryDate().toEpochDay(), day -> new CompressedBitmap()).add(position);
+        byProduction.computeIfAbsent(lot.productionDate().toEpochDay(), day -> new CompressedBitmap()).add(position);
+        byQuantity.computeIfAbsent(lot.quantity(), quantity -> new CompressedBitmap()).add(position);
+    }
+
+    private void unindex(LotSnapshot lot) {
+        int position = position(lot);
+        all.remove(position);
+        if (lot.productId() != null) {
+            removeFrom(byProduct, lot.productId(), position);
+        }
+        removeFrom(byStatus, lot.status(), position);
+        removeFrom(byWarehouse, lot.warehouse(), position);
+        removeFrom(byExpiry, lot.expiryDate().toEpochDay(), position);
+        removeFrom(byProduction, lot.productionDate().toEpochDay(), position);
+        removeFrom(byQuantity, lot.quantity(), position);
+    }
+
+    private static <K> void removeFrom(Map<K, CompressedBitmap> bitmaps, K key, int position) {
+        CompressedBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(position);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 點陣圖位置即批次 ID（批次 ID 超過 int 範圍時拒絕，不會靜默截斷）
+     */
+    private static int position(LotSnapshot lot) {
+        return Math.toIntExact(lot.id());
+    }
+}
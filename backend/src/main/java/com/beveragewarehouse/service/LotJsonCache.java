@@ -0,0 +1,147 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.event.InventoryChange;
+import com.beveragewarehouse.event.InventoryChangeListener;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批次 JSON 片段快取
+ *
+ * 每個批次保存一份已編碼的 JSON（與 Spring 的 ObjectMapper 輸出 BeverageDTO 相同），以批次 ID 為鍵；
+ * 快取內容只在快照相同（updatedAt 為版本，其餘欄位一併比對）且日期相同時使用：
+ * 計算欄位（expired、daysUntilExpiry、expiringSoon）依日期而變，跨日後舊的片段一律不再命中並整批清除
+ *
+ * 列表回應以片段串接成陣列（{@link CachedLotList}），只有變動過的批次需要重新序列化
+ * 已移除或更新的批次由已提交的庫存異動清除；超過 max-entries 時新的批次只編碼、不快取
+ */
+@Slf4j
+@Component
+public class LotJsonCache implements InventoryChangeListener {
+
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 快取內容的日期（epoch day）
+     */
+    private volatile long day = Long.MIN_VALUE;
+
+    public LotJsonCache(
+            ObjectMapper objectMapper,
+            @Value("${warehouse.json-cache.enabled:true}") boolean enabled,
+            @Value("${warehouse.json-cache.max-entries:200000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public void onInventoryChanges(List<InventoryChange> changes) {
+        for (InventoryChange change : changes) {
+            entries.remove(change.lotId());
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        entries.clear();
+    }
+
+    /**
+     * 以 JSON 陣列寫出批次（依傳入順序）
+     */
+    public void writeArray(List<LotSnapshot> lots, LocalDate today, OutputStream out) throws IOException {
+        if (lots.isEmpty()) {
+            out.write(EMPTY_ARRAY);
+            return;
+        }
+        out.write('[');
+        for (int i = 0; i < lots.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(encode(lots.get(i), today));
+        }
+        out.write(']');
+    }
+
+    /**
+     * 批次在指定日期的 JSON（快取命中時直接回傳快取的位元組，呼叫端不可修改）
+     */
+    public byte[] encode(LotSnapshot lot, LocalDate today) {
+        if (!enabled) {
+            return serialize(lot, today);
+        }
+        long epochDay = today.toEpochDay();
+        if (epochDay != day) {
+            if (epochDay < day) {
+                // 跨日前開始的回應：以當時的日期編碼，不寫入快取
+                return serialize(lot, today);
+            }
+            rollover(epochDay);
+        }
+        Entry entry = entries.get(lot.id());
+        if (entry != null && entry.day() == epochDay && entry.lot().equals(lot)) {
+            hits.increment();
+            return entry.json();
+        }
+        misses.increment();
+        byte[] json = serialize(lot, today);
+        if (entry != null || entries.size() < maxEntries) {
+            entries.put(lot.id(), new Entry(lot, epochDay, json));
+        }
+        return json;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private synchronized void rollover(long epochDay) {
+        if (epochDay > day) {
+            entries.clear();
+            day = epochDay;
+            log.debug("批次 JSON 快取跨日清除，日期: {}", LocalDate.ofEpochDay(epochDay));
+        }
+    }
+
+    private byte[] serialize(LotSnapshot lot, LocalDate today) {
+        try {
+            return objectMapper.writeValueAsBytes(BeverageMapper.toDTO(lot, today));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("無法編碼批次 JSON: " + lot.id(), e);
+        }
+    }
+
+    private record Entry(LotSnapshot lot, long day, byte[] json) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.model.Product;
+import com.beveragewarehouse.repository.ProductRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 商品目錄：商品名稱與整數 ID 的對應（記憶體快取）
+ *
+ * 商品建立後名稱不會改變，快取不需要失效；
+ * 新商品在獨立交易中建立並立即提交，呼叫端交易回滾時快取中的 ID 仍然有效
+ */
+@Component
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+    public ProductCatalog(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 查詢商品 ID（不建立）；名稱會先正規化
+     */
+    public Optional<Integer> findId(String name) {
+        String normalized = Product.normalizeName(name);
+        Integer cached = idsByName.get(normalized);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Integer> id = productRepository.findByName(normalized).map(Product::getId);
+        id.ifPresent(found -> idsByName.put(normalized, found));
+        return id;
+    }
+
+    /**
+     * 清除名稱快取（商品主檔被整批載入之後）
+     */
+    public void invalidate() {
+        idsByName.clear();
+    }
+
+    /**
+     * 取得商品 ID，商品不存在時建立
+     */
+    public int resolveId(String name) {
+        Optional<Integer> existing = findId(name);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        String normalized = Product.normalizeName(name);
+        try {
+            Integer id = requiresNew.execute(status -> productRepository.save(new Product(normalized)).getId());
+            idsByName.put(normalized, id);
+            return id;
+        } catch (DataIntegrityViolationException e) {
+            // 其他交易同時建立了同名商品（唯一鍵衝突），改用已提交的商品
+            return findId(normalized).orElseThrow(() -> e);
+        }
+    }
+}
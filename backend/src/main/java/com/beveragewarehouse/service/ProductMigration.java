@@ -0,0 +1,65 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.event.InventoryChangePublisher;
+import com.beveragewarehouse.model.Product;
+import com.beveragewarehouse.repository.BeverageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 既有批次的商品 ID 遷移（啟動時執行，可重複執行）
+ *
+ * 1. 移除舊的以名稱為鍵的配貨索引 idx_beverages_allocation
+ * 2. 尚未有商品 ID 的批次，依正規化名稱建立或對應商品，並把批次名稱改為正規化名稱
+ * 3. 補齊後把 product_id 設為 NOT NULL，並加上參照 products 的外鍵 fk_beverages_product
+ *    （ddl-auto=update 不會變更既有欄位的限制）
+ * 4. 有批次被遷移時通知讀取模型等監聽器重建
+ *
+ * 在 Web 伺服器開始接受請求之前完成
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductMigration implements SmartInitializingSingleton {
+
+    private final BeverageRepository beverageRepository;
+    private final ProductCatalog productCatalog;
+    private final InventoryChangePublisher changePublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    /**
+     * 回傳遷移的批次數
+     */
+    public int migrate() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_beverages_allocation");
+        Integer migrated = transactionTemplate.execute(status -> {
+            int count = 0;
+            List<String> names = beverageRepository.findNamesWithoutProduct();
+            for (String name : names) {
+                int productId = productCatalog.resolveId(name);
+                count += beverageRepository.assignProduct(name, productId, Product.normalizeName(name));
+            }
+            return count;
+        });
+        jdbcTemplate.execute("ALTER TABLE beverages ALTER COLUMN product_id SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE beverages ADD CONSTRAINT IF NOT EXISTS fk_beverages_product "
+                + "FOREIGN KEY (product_id) REFERENCES products (id)");
+        if (migrated != null && migrated > 0) {
+            log.info("已為 {} 個既有批次補上商品 ID", migrated);
+            changePublisher.rebuildAll();
+        }
+        return migrated == null ? 0 : migrated;
+    }
+}
@@ -0,0 +1,271 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.ProductSearchResultDTO;
+import com.beveragewarehouse.event.InventoryChange;
+import com.beveragewarehouse.event.InventoryChangeListener;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.model.Product;
+import com.beveragewarehouse.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品名稱搜尋索引（記憶體）
+ *
+ * - 前綴比對：字典樹（trie），走到查詢字串的節點後依字典順序列出底下的商品
+ * - 子字串與模糊比對：以前後補空白的二元組（bigram）反向索引找出候選，
+ *   名稱包含查詢字串者為子字串比對，其餘依 Dice 係數（共同二元組比例）排序
+ * - 單一字元的查詢：另以單字元反向索引找出名稱中任何位置含有該字元的商品
+ *
+ * 名稱以 {@link Product#normalizeName} 正規化並轉小寫後建立索引；
+ * 啟動時從商品主檔載入，之後入庫帶來的新商品由已提交的庫存異動逐一加入
+ * 可出庫數量由 {@link AvailableToPromise} 提供，搜尋過程不存取資料庫
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements InventoryChangeListener, SmartInitializingSingleton {
+
+    /** 模糊比對的最低 Dice 係數 */
+    private static final double MIN_SIMILARITY = 0.4;
+
+    private final ProductRepository productRepository;
+    private final AvailableToPromise availableToPromise;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrieNode root = new TrieNode();
+    private final Map<Integer, IndexedName> namesById = new HashMap<>();
+    private final Map<String, Set<Integer>> productsByBigram = new HashMap<>();
+    private final Map<Integer, Set<Integer>> productsByCodePoint = new HashMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository, AvailableToPromise availableToPromise) {
+        this.productRepository = productRepository;
+        this.availableToPromise = availableToPromise;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * 從商品主檔重新載入
+     */
+    @Override
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.productIds.clear();
+            namesById.clear();
+            productsByBigram.clear();
+            productsByCodePoint.clear();
+            for (Product product : products) {
+                add(product.getId(), product.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("商品搜尋索引已載入，商品數: {}", products.size());
+    }
+
+    @Override
+    public void onInventoryChanges(List<InventoryChange> changes) {
+        List<LotSnapshot> newProducts = null;
+        lock.readLock().lock();
+        try {
+            for (InventoryChange change : changes) {
+                LotSnapshot lot = change.lot();
+                if (lot != null && lot.productId() != null && !namesById.containsKey(lot.productId())) {
+                    if (newProducts == null) {
+                        newProducts = new ArrayList<>();
+                    }
+                    newProducts.add(lot);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (newProducts == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (LotSnapshot lot : newProducts) {
+                if (!namesById.containsKey(lot.productId())) {
+                    add(lot.productId(), lot.name());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 依名稱搜尋商品：前綴比對優先，其次子字串比對，最後模糊比對
+     *
+     * @param warehouse 只計算該倉庫的可出庫數量；null 時為所有倉庫合計
+     */
+    public List<ProductSearchResultDTO> search(String query, String warehouse, int limit) {
+        String key = searchKey(query);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            TrieNode node = root.find(key);
+            if (node != null) {
+                node.collect(matches, seen, limit);
+            }
+            if (matches.size() < limit) {
+                matches.addAll(fuzzyMatches(key, seen, limit - matches.size()));
+            }
+            List<ProductSearchResultDTO> results = new ArrayList<>(matches.size());
+            for (Match match : matches) {
+                long available = warehouse == null
+                        ? availableToPromise.available(match.productId())
+                        : availableToPromise.available(warehouse, match.productId());
+                results.add(new ProductSearchResultDTO(match.productId(), namesById.get(match.productId()).name(),
+                        available, match.type()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> fuzzyMatches(String key, Set<Integer> excluded, int limit) {
+        Set<String> queryBigrams = bigrams(key);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String bigram : queryBigrams) {
+            for (Integer productId : productsByBigram.getOrDefault(bigram, Set.of())) {
+                if (!excluded.contains(productId)) {
+                    shared.merge(productId, 1, Integer::sum);
+                }
+            }
+        }
+        // 單一字元的二元組只有「前空白 + 字元」與「字元 + 後空白」，名稱中間的字元要由單字元索引找出
+        if (key.codePointCount(0, key.length()) == 1) {
+            for (Integer productId : productsByCodePoint.getOrDefault(key.codePointAt(0), Set.of())) {
+                if (!excluded.contains(productId)) {
+                    shared.putIfAbsent(productId, 0);
+                }
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> candidate : shared.entrySet()) {
+            IndexedName indexed = namesById.get(candidate.getKey());
+            if (indexed.key().contains(key)) {
+                matches.add(new Match(candidate.getKey(), ProductSearchResultDTO.MatchType.SUBSTRING, 1.0, indexed.key()));
+                continue;
+            }
+            double similarity = 2.0 * candidate.getValue() / (queryBigrams.size() + indexed.bigramCount());
+            if (similarity >= MIN_SIMILARITY) {
+                matches.add(new Match(candidate.getKey(), ProductSearchResultDTO.MatchType.FUZZY, similarity, indexed.key()));
+            }
+        }
+        matches.sort(Comparator.comparing(Match::type)
+                .thenComparing(Comparator.comparingDouble(Match::score).reversed())
+                .thenComparingInt(match -> match.key().length())
+                .thenComparing(Match::key));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private void add(Integer productId, String name) {
+        String key = searchKey(name);
+        Set<String> bigrams = bigrams(key);
+        namesById.put(productId, new IndexedName(name, key, bigrams.size()));
+        root.insert(key, productId);
+        for (String bigram : bigrams) {
+            productsByBigram.computeIfAbsent(bigram, b -> new HashSet<>()).add(productId);
+        }
+        key.codePoints().distinct()
+                .forEach(codePoint -> productsByCodePoint.computeIfAbsent(codePoint, c -> new HashSet<>()).add(productId));
+    }
+
+    private static String searchKey(String name) {
+        return name == null ? "" : Product.normalizeName(name).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 前後補空白的二元組（以 code point 計算，單字元的查詢也有兩個二元組）
+     */
+    private static Set<String> bigrams(String key) {
+        int[] codePoints = (" " + key + " ").codePoints().toArray();
+        Set<String> bigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            bigrams.add(new String(codePoints, i, 2));
+        }
+        return bigrams;
+    }
+
+    /**
+     * 已索引的商品名稱：原始名稱、比對用的鍵與二元組數量
+     */
+    private record IndexedName(String name, String key, int bigramCount) {
+    }
+
+    private record Match(int productId, ProductSearchResultDTO.MatchType type, double score, String key) {
+    }
+
+    /**
+     * 字典樹節點；子節點依字元排序，前綴比對的結果依名稱字典順序列出
+     */
+    private static final class TrieNode {
+
+        private final TreeMap<Integer, TrieNode> children = new TreeMap<>();
+        private final Set<Integer> productIds = new LinkedHashSet<>();
+
+        void insert(String key, int productId) {
+            TrieNode node = this;
+            for (int codePoint : key.codePoints().toArray()) {
+                node = node.children.computeIfAbsent(codePoint, c -> new TrieNode());
+            }
+            node.productIds.add(productId);
+        }
+
+        TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int codePoint : prefix.codePoints().toArray()) {
+                node = node.children.get(codePoint);
+                if (node == null) {
+                    return null;
+                }
+            }
+            return node;
+        }
+
+        void collect(List<Match> matches, Set<Integer> seen, int limit) {
+            for (Integer productId : productIds) {
+                if (matches.size() >= limit) {
+                    return;
+                }
+                if (seen.add(productId)) {
+                    matches.add(new Match(productId, ProductSearchResultDTO.MatchType.PREFIX, 1.0, ""));
+                }
+            }
+            for (TrieNode child : children.values()) {
+                if (matches.size() >= limit) {
+                    return;
+                }
+                child.collect(matches, seen, limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.beveragewarehouse.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 查詢合併（服務層）
+ *
+ * 大量用戶端同時重新整理儀表板時，相同的查詢（統計、過期清單等）只會有一個送到資料庫，
+ * 其餘請求共用結果。呼叫端已在交易中時不合併，因為該交易可能包含其他請求看不到的未提交異動
+ */
+@Component
+public class ReadCoalescer {
+
+    private final SingleFlight<String, Object> singleFlight;
+
+    public ReadCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${warehouse.coalescing.ttl-ms:0}") long ttlMillis) {
+        this.singleFlight = new SingleFlight<>(ttlMillis);
+        FunctionCounter.builder("warehouse.coalescing.executions", singleFlight, SingleFlight::getExecutions)
+                .description("實際送到資料庫的合併查詢次數")
+                .register(meterRegistry);
+        FunctionCounter.builder("warehouse.coalescing.shared", singleFlight, SingleFlight::getShared)
+                .description("共用其他請求結果的查詢次數")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(String key, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return (T) singleFlight.execute(key, loader::get);
+    }
+}
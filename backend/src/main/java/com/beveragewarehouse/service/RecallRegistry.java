@@ -0,0 +1,106 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.ProductRecall;
+import com.beveragewarehouse.repository.ProductRecallRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生效中的商品召回（記憶體）
+ *
+ * 召回在受理的交易中登記，不必等待交易提交：配貨（{@link LotAllocator}）與入庫立即排除範圍內的批次，
+ * 即使批次的狀態 UPDATE 還沒提交；受理的交易回滾時撤銷登記
+ * 每個商品的召回清單以 copy-on-write 替換，讀取端不加鎖
+ */
+@Slf4j
+@Component
+public class RecallRegistry implements SmartInitializingSingleton {
+
+    private final ProductRecallRepository productRecallRepository;
+    private final Map<Integer, List<ProductRecall>> recallsByProduct = new ConcurrentHashMap<>();
+
+    public RecallRegistry(ProductRecallRepository productRecallRepository) {
+        this.productRecallRepository = productRecallRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * 從資料庫重新載入所有召回（例如資料被整批載入之後）
+     */
+    public void reload() {
+        List<ProductRecall> recalls = productRecallRepository.findAll();
+        recallsByProduct.clear();
+        recalls.forEach(this::add);
+        log.debug("已載入 {} 筆商品召回", recalls.size());
+    }
+
+    /**
+     * 登記召回；在交易中呼叫時，交易回滾後撤銷
+     */
+    public void register(ProductRecall recall) {
+        add(recall);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remove(recall);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 批次是否在生效中的召回範圍內
+     */
+    public boolean isRecalled(Integer productId, LocalDate productionDate) {
+        if (productId == null || productionDate == null) {
+            return false;
+        }
+        List<ProductRecall> recalls = recallsByProduct.get(productId);
+        if (recalls == null) {
+            return false;
+        }
+        for (ProductRecall recall : recalls) {
+            if (recall.covers(productId, productionDate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isRecalled(Beverage beverage) {
+        return isRecalled(beverage.getProductId(), beverage.getProductionDate());
+    }
+
+    private void add(ProductRecall recall) {
+        recallsByProduct.compute(recall.getProductId(), (productId, recalls) -> {
+            List<ProductRecall> updated = recalls == null ? new ArrayList<>() : new ArrayList<>(recalls);
+            updated.add(recall);
+            return List.copyOf(updated);
+        });
+    }
+
+    private void remove(ProductRecall recall) {
+        recallsByProduct.computeIfPresent(recall.getProductId(), (productId, recalls) -> {
+            List<ProductRecall> updated = new ArrayList<>(recalls);
+            updated.remove(recall);
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+    }
+}
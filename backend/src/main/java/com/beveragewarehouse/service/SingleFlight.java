@@ -0,0 +1,89 @@
+package com.beveragewarehouse.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 單飛（Single-flight）請求合併
+ *
+ * 同一個 key 同時只會有一個計算在執行，期間到達的相同請求等待並共用其結果；
+ * ttlMillis 大於 0 時，計算完成後的結果會再被重用 ttlMillis 毫秒（micro-TTL）
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Completed<V>> recent = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public SingleFlight(long ttlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (ttlNanos > 0) {
+            Completed<V> completed = recent.get(key);
+            if (completed != null && System.nanoTime() - completed.completedAt() < ttlNanos) {
+                shared.increment();
+                return completed.value();
+            }
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.increment();
+            return await(existing);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            if (ttlNanos > 0) {
+                recent.put(key, new Completed<>(value, System.nanoTime()));
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 實際執行的計算次數
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * 共用其他請求結果的次數
+     */
+    public long getShared() {
+        return shared.sum();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Completed<V>(V value, long completedAt) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.beveragewarehouse.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 出入庫併發限制（負載削減）
+ *
+ * 在 {@link BeverageService#stockOut} 與 {@link BeverageService#stockIn} 前各放一個
+ * {@link AdaptiveConcurrencyLimiter}，每個商品各有一個有上限的等待佇列；
+ * 訂單出庫與單品出庫共用出庫限制器，以明細的商品為鍵。
+ * 限制器狀態以 Micrometer 指標公開：
+ * warehouse.limiter.limit / inflight / waiting / rtt / rejected（tag: operation）
+ */
+@Component
+public class StockMovementLimiter {
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter stockOutLimiter;
+    private final AdaptiveConcurrencyLimiter stockInLimiter;
+
+    public StockMovementLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${warehouse.limiter.enabled:true}") boolean enabled,
+            @Value("${warehouse.limiter.initial-limit:20}") int initialLimit,
+            @Value("${warehouse.limiter.min-limit:4}") int minLimit,
+            @Value("${warehouse.limiter.max-limit:200}") int maxLimit,
+            @Value("${warehouse.limiter.queue-per-product:50}") int queuePerProduct,
+            @Value("${warehouse.limiter.max-wait-ms:200}") long maxWaitMillis) {
+        this.enabled = enabled;
+        this.stockOutLimiter = new AdaptiveConcurrencyLimiter(
+                "stock-out", initialLimit, minLimit, maxLimit, queuePerProduct, maxWaitMillis);
+        this.stockInLimiter = new AdaptiveConcurrencyLimiter(
+                "stock-in", initialLimit, minLimit, maxLimit, queuePerProduct, maxWaitMillis);
+        registerMetrics(meterRegistry, stockOutLimiter);
+        registerMetrics(meterRegistry, stockInLimiter);
+    }
+
+    /**
+     * 在出庫限制器下執行
+     */
+    public <T> T stockOut(String productKey, Supplier<T> action) {
+        return execute(stockOutLimiter, productKey, action);
+    }
+
+    /**
+     * 在出庫限制器下執行訂單出庫：整筆訂單只占一個執行許可，等待時排入每個明細商品的佇列
+     */
+    public <T> T stockOutOrder(Collection<String> productKeys, Supplier<T> action) {
+        return execute(stockOutLimiter, productKeys, action);
+    }
+
+    /**
+     * 在入庫限制器下執行
+     */
+    public <T> T stockIn(String productKey, Supplier<T> action) {
+        return execute(stockInLimiter, productKey, action);
+    }
+
+    private <T> T execute(AdaptiveConcurrencyLimiter limiter, String productKey, Supplier<T> action) {
+        return execute(limiter, List.of(productKey), action);
+    }
+
+    private <T> T execute(AdaptiveConcurrencyLimiter limiter, Collection<String> productKeys, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(productKeys);
+        try {
+            T result = action.get();
+            permit.success();
+            return result;
+        } catch (PessimisticLockingFailureException | QueryTimeoutException e) {
+            // 鎖等待逾時或死結：系統壅塞的訊號
+            permit.dropped();
+            throw e;
+        } catch (RuntimeException e) {
+            permit.ignore();
+            throw e;
+        }
+    }
+
+    private static void registerMetrics(MeterRegistry registry, AdaptiveConcurrencyLimiter limiter) {
+        String operation = limiter.getName();
+        Gauge.builder("warehouse.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("目前允許的併發上限")
+                .tag("operation", operation)
+                .register(registry);
+        Gauge.builder("warehouse.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("執行中的請求數")
+                .tag("operation", operation)
+                .register(registry);
+        Gauge.builder("warehouse.limiter.waiting", limiter, AdaptiveConcurrencyLimiter::getWaiting)
+                .description("等待佇列中的請求數")
+                .tag("operation", operation)
+                .register(registry);
+        Gauge.builder("warehouse.limiter.rtt", limiter, AdaptiveConcurrencyLimiter::getAverageRttMillis)
+                .description("長期平均延遲（毫秒）")
+                .tag("operation", operation)
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("warehouse.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .description("被拒絕（429）的請求數")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,297 @@
+package com.beveragewarehouse.snapshot;
+
+import com.beveragewarehouse.event.InventoryChangePublisher;
+import com.beveragewarehouse.service.ProductCatalog;
+import com.beveragewarehouse.service.RecallRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 記憶體資料庫的定期快照與啟動時還原
+ *
+ * - 依 interval-ms 把庫存資料表（商品、召回、批次）匯出為壓縮的快照檔（{@link SnapshotFile}），保留最新 retain 個
+ * - 匯出在快照隔離（SNAPSHOT）的唯讀交易中進行：所有資料表來自同一個時間點，不取得任何鎖，出入庫不需要暫停
+ * - 啟動時（Web 伺服器開始接受請求之前）資料庫為空則載入最新的快照，再重新載入召回並通知所有監聽器重建；
+ *   最新的快照無法載入時清空已載入的列，改用前一個保留的快照
+ * - 正常關閉時再匯出一次（on-shutdown），重新啟動不會遺失最後一個間隔內的異動
+ *
+ * 程序異常結束時會遺失最後一次快照之後的異動；需要完整持久化時請使用 prod 設定的檔案資料庫
+ */
+@Slf4j
+@Component
+public class InventorySnapshotter implements SmartInitializingSingleton, DisposableBean {
+
+    /**
+     * 匯出與載入的資料表（依序）
+     */
+    static final List<String> TABLES = List.of("products", "product_recalls", "beverages");
+
+    private final DataSource dataSource;
+    private final InventoryChangePublisher changePublisher;
+    private final RecallRegistry recallRegistry;
+    private final ProductCatalog productCatalog;
+    private final boolean enabled;
+    private final Path directory;
+    private final int retain;
+    private final boolean onShutdown;
+
+    public InventorySnapshotter(
+            DataSource dataSource,
+            InventoryChangePublisher changePublisher,
+            RecallRegistry recallRegistry,
+            ProductCatalog productCatalog,
+            @Value("${warehouse.snapshot.enabled:false}") boolean enabled,
+            @Value("${warehouse.snapshot.dir:./data/snapshots}") String directory,
+            @Value("${warehouse.snapshot.retain:3}") int retain,
+            @Value("${warehouse.snapshot.on-shutdown:true}") boolean onShutdown) {
+        this.dataSource = dataSource;
+        this.changePublisher = changePublisher;
+        this.recallRegistry = recallRegistry;
+        this.productCatalog = productCatalog;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.retain = Math.max(1, retain);
+        this.onShutdown = onShutdown;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            restoreLatest();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (enabled && onShutdown) {
+            snapshot();
+        }
+    }
+
+    /**
+     * 排程匯出
+     */
+    @Scheduled(fixedDelayString = "${warehouse.snapshot.interval-ms:60000}",
+            initialDelayString = "${warehouse.snapshot.interval-ms:60000}")
+    public void scheduledSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // 保留上一次成功的快照，下次排程再試
+            log.error("庫存快照失敗", e);
+        }
+    }
+
+    /**
+     * 匯出新的快照檔並刪除超過保留數量的舊快照，回傳快照檔路徑
+     */
+    public synchronized Path snapshot() {
+        long start = System.nanoTime();
+        Path file = directory.resolve(String.format("%s%016d%s",
+                SnapshotFile.PREFIX, System.currentTimeMillis(), SnapshotFile.SUFFIX));
+        long rows;
+        try {
+            Files.createDirectories(directory);
+            rows = export(file);
+            prune();
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法寫入庫存快照: " + file, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("無法匯出庫存快照: " + file, e);
+        }
+        log.info("已匯出庫存快照 {}（{} 列，{} ms）", file.getFileName(), rows,
+                (System.nanoTime() - start) / 1_000_000);
+        return file;
+    }
+
+    private long export(Path file) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+            }
+            try {
+                return SnapshotFile.write(connection, TABLES, file);
+            } finally {
+                connection.rollback();
+                // 連線會回到連線池，還原隔離等級與 auto-commit
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL READ COMMITTED");
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * 資料庫為空時由新到舊載入第一個可用的快照；沒有快照或資料庫已有資料時不做任何事
+     * 載入失敗（檔案截斷、損毀）的快照會清空已載入的資料表再嘗試前一個，全部失敗時拋出例外
+     */
+    public synchronized Optional<RestoreResult> restoreLatest() {
+        try {
+            Files.createDirectories(directory);
+            deleteIncomplete();
+            List<Path> files = snapshotFiles();
+            if (files.isEmpty()) {
+                return Optional.empty();
+            }
+            if (!isDatabaseEmpty()) {
+                log.warn("資料庫已有資料，不載入庫存快照 {}", files.get(files.size() - 1).getFileName());
+                return Optional.empty();
+            }
+            Exception failure = null;
+            for (int i = files.size() - 1; i >= 0; i--) {
+                Path file = files.get(i);
+                long start = System.nanoTime();
+                Map<String, Long> counts;
+                try {
+                    counts = load(file);
+                } catch (IOException | SQLException | RuntimeException e) {
+                    log.warn("無法載入庫存快照 {}，改用前一個快照", file.getFileName(), e);
+                    clearTables();
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                    continue;
+                }
+                return Optional.of(rebuild(file, counts, start));
+            }
+            throw new IllegalStateException("所有庫存快照都無法載入: " + directory, failure);
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法讀取庫存快照目錄: " + directory, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("無法載入庫存快照", e);
+        }
+    }
+
+    /**
+     * 載入快照檔；載入中途會提交（分段提交、identity 重設），失敗時由呼叫端清空資料表
+     */
+    private Map<String, Long> load(Path file) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                Map<String, Long> counts = SnapshotFile.read(file, connection);
+                connection.commit();
+                return counts;
+            } catch (IOException | SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private RestoreResult rebuild(Path file, Map<String, Long> counts, long start) {
+        long loaded = System.nanoTime();
+        productCatalog.invalidate();
+        recallRegistry.reload();
+        changePublisher.rebuildAll();
+        long rebuilt = System.nanoTime();
+        RestoreResult result = new RestoreResult(file, counts,
+                (loaded - start) / 1_000_000, (rebuilt - loaded) / 1_000_000);
+        log.info("已載入庫存快照 {}：{}（載入 {} ms，重建 {} ms）", file.getFileName(), counts,
+                result.loadMillis(), result.rebuildMillis());
+        return result;
+    }
+
+    /**
+     * 清空載入失敗時已提交的列（依外鍵反向刪除）
+     */
+    private void clearTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = TABLES.size() - 1; i >= 0; i--) {
+                statement.executeUpdate("DELETE FROM " + TABLES.get(i));
+            }
+        }
+    }
+
+    private boolean isDatabaseEmpty() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    resultSet.next();
+                    if (resultSet.getLong(1) > 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 依檔名（建立時間）遞增排序的快照檔
+     */
+    List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SnapshotFile.PREFIX) && name.endsWith(SnapshotFile.SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> files = snapshotFiles();
+        for (int i = 0; i < files.size() - retain; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * 刪除寫到一半的暫存檔（匯出中程序結束，尚未發布）
+     */
+    private void deleteIncomplete() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : listing.collect(Collectors.toList())) {
+                if (file.getFileName().toString().endsWith(SnapshotFile.TEMP_SUFFIX)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 還原結果：各資料表載入的列數、載入與監聽器重建的耗時
+     */
+    public record RestoreResult(Path file, Map<String, Long> rows, long loadMillis, long rebuildMillis) {
+    }
+}
@@ -0,0 +1,333 @@
+package com.beveragewarehouse.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 庫存快照檔（gzip 壓縮）
+ *
+ * 檔案格式（整個檔案為一個 gzip 串流）：
+ * - magic、版本、建立時間（epoch 毫秒）
+ * - 每個資料表：表名、欄位（名稱、編碼）、逐列資料（每列前一個位元組 1，資料表結尾 0）
+ * - 每個欄位值前一個位元組表示是否為 NULL
+ *
+ * 匯出時依欄位名稱記錄，匯入時只寫入目前資料表也有的欄位（新欄位使用預設值），
+ * Hibernate 更新結構後仍可以載入舊的快照
+ * 寫入時先寫到暫存檔並 fsync，再以原子 rename 發布，不會留下寫到一半的快照檔
+ */
+final class SnapshotFile {
+
+    static final String PREFIX = "inventory-";
+    static final String SUFFIX = ".snap.gz";
+    static final String TEMP_SUFFIX = SUFFIX + ".tmp";
+
+    private static final int MAGIC = 0x42575331; // "BWS1"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int FETCH_SIZE = 1000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int COMMIT_SIZE = 50_000;
+
+    /**
+     * 欄位編碼（依 JDBC 型別決定，其他型別以字串保存）
+     */
+    private enum Codec {
+        LONG, INT, STRING, DATE, TIMESTAMP, BOOLEAN, DOUBLE;
+
+        static Codec of(int sqlType) {
+            return switch (sqlType) {
+                case Types.BIGINT -> LONG;
+                case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+                case Types.DATE -> DATE;
+                case Types.TIMESTAMP -> TIMESTAMP;
+                case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+                case Types.DOUBLE, Types.FLOAT, Types.REAL -> DOUBLE;
+                default -> STRING;
+            };
+        }
+    }
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * 匯出資料表（依 ID 排序）到快照檔，回傳總列數
+     * 各資料表在呼叫端的同一個交易中讀取；交易為快照隔離時，所有資料表來自同一個時間點
+     */
+    static long write(Connection connection, List<String> tables, Path path) throws IOException, SQLException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // 不關閉 channel 就結束 gzip 串流，之後才能 fsync
+            OutputStream unclosable = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FastGzipOutputStream(unclosable), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(tables.size());
+                for (String table : tables) {
+                    rows += writeTable(connection, table, out);
+                }
+            }
+            channel.force(true);
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    private static long writeTable(Connection connection, String table, DataOutputStream out)
+            throws IOException, SQLException {
+        long rows = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery("SELECT * FROM " + table + " ORDER BY id")) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                Codec[] codecs = new Codec[metaData.getColumnCount()];
+                out.writeUTF(table);
+                out.writeInt(codecs.length);
+                for (int i = 0; i < codecs.length; i++) {
+                    codecs[i] = Codec.of(metaData.getColumnType(i + 1));
+                    out.writeUTF(metaData.getColumnName(i + 1));
+                    out.writeByte(codecs[i].ordinal());
+                }
+                while (resultSet.next()) {
+                    out.writeByte(1);
+                    for (int i = 0; i < codecs.length; i++) {
+                        writeValue(resultSet, i + 1, codecs[i], out);
+                    }
+                    rows++;
+                }
+                out.writeByte(0);
+            }
+        }
+        return rows;
+    }
+
+    private static void writeValue(ResultSet resultSet, int column, Codec codec, DataOutputStream out)
+            throws IOException, SQLException {
+        switch (codec) {
+            case LONG -> {
+                long value = resultSet.getLong(column);
+                if (writePresence(resultSet, out)) {
+                    out.writeLong(value);
+                }
+            }
+            case INT -> {
+                int value = resultSet.getInt(column);
+                if (writePresence(resultSet, out)) {
+                    out.writeInt(value);
+                }
+            }
+            case BOOLEAN -> {
+                boolean value = resultSet.getBoolean(column);
+                if (writePresence(resultSet, out)) {
+                    out.writeBoolean(value);
+                }
+            }
+            case DOUBLE -> {
+                double value = resultSet.getDouble(column);
+                if (writePresence(resultSet, out)) {
+                    out.writeDouble(value);
+                }
+            }
+            case DATE -> {
+                LocalDate value = resultSet.getObject(column, LocalDate.class);
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeLong(value.toEpochDay());
+                }
+            }
+            case TIMESTAMP -> {
+                LocalDateTime value = resultSet.getObject(column, LocalDateTime.class);
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(value.getNano());
+                }
+            }
+            case STRING -> {
+                String value = resultSet.getString(column);
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeUTF(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * 寫入是否有值（在 getXxx 之後呼叫），回傳 true 時呼叫端接著寫入值
+     */
+    private static boolean writePresence(ResultSet resultSet, DataOutputStream out) throws IOException, SQLException {
+        boolean present = !resultSet.wasNull();
+        out.writeBoolean(present);
+        return present;
+    }
+
+    /**
+     * 把快照檔載入目前的資料表（呼叫端負責交易與確認資料表為空），回傳各資料表載入的列數
+     * 載入後把 ID 的 identity 重設為最大 ID + 1
+     * 每 COMMIT_SIZE 列提交一次（限制單一交易未提交的資料量），載入失敗時呼叫端必須清空資料表，不能只靠 rollback
+     */
+    static Map<String, Long> read(Path path, Connection connection) throws IOException, SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是有效的快照檔: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("不支援的快照版本 " + version + ": " + path);
+            }
+            in.readLong();
+            int tables = in.readInt();
+            for (int t = 0; t < tables; t++) {
+                String table = in.readUTF();
+                counts.put(table, readTable(connection, table, in));
+            }
+        }
+        return counts;
+    }
+
+    private static long readTable(Connection connection, String table, DataInputStream in)
+            throws IOException, SQLException {
+        int columnCount = in.readInt();
+        String[] names = new String[columnCount];
+        Codec[] codecs = new Codec[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = in.readUTF();
+            codecs[i] = Codec.values()[in.readByte()];
+        }
+        Set<String> existing = existingColumns(connection, table);
+        List<Integer> targets = new ArrayList<>();
+        int idColumn = -1;
+        for (int i = 0; i < columnCount; i++) {
+            if (existing.contains(names[i].toUpperCase(Locale.ROOT))) {
+                targets.add(i);
+            }
+            if (names[i].equalsIgnoreCase("id") && (codecs[i] == Codec.LONG || codecs[i] == Codec.INT)) {
+                idColumn = i;
+            }
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+        StringBuilder params = new StringBuilder();
+        for (int i = 0; i < targets.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(names[targets.get(i)]);
+            params.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") VALUES (").append(params).append(')');
+
+        long rows = 0;
+        long maxId = 0;
+        Object[] values = new Object[columnCount];
+        try (PreparedStatement insert = connection.prepareStatement(sql.toString())) {
+            while (in.readByte() == 1) {
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = readValue(codecs[i], in);
+                }
+                for (int i = 0; i < targets.size(); i++) {
+                    insert.setObject(i + 1, values[targets.get(i)]);
+                }
+                insert.addBatch();
+                if (idColumn >= 0 && values[idColumn] != null) {
+                    maxId = Math.max(maxId, ((Number) values[idColumn]).longValue());
+                }
+                if (++rows % INSERT_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    if (rows % COMMIT_SIZE == 0) {
+                        connection.commit();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        if (maxId > 0 && existing.contains("ID")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+            }
+        }
+        return rows;
+    }
+
+    private static Object readValue(Codec codec, DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return switch (codec) {
+            case LONG -> in.readLong();
+            case INT -> in.readInt();
+            case BOOLEAN -> in.readBoolean();
+            case DOUBLE -> in.readDouble();
+            case DATE -> LocalDate.ofEpochDay(in.readLong());
+            case TIMESTAMP -> LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            case STRING -> in.readUTF();
+        };
+    }
+
+    private static Set<String> existingColumns(Connection connection, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet resultSet = metaData.getColumns(null, null, table.toUpperCase(Locale.ROOT), null)) {
+            while (resultSet.next()) {
+                columns.add(resultSet.getString("COLUMN_NAME").toUpperCase(Locale.ROOT));
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new SQLException("資料表不存在: " + table);
+        }
+        return columns;
+    }
+
+    /**
+     * 以最快的壓縮等級輸出 gzip：快照在背景執行，縮短匯出時間比檔案大小重要
+     */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
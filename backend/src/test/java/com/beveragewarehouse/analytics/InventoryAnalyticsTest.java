@@ -0,0 +1,176 @@
+package com.beveragewarehouse.analytics;
+
+import com.beveragewarehouse.dto.InventoryAnalyticsDTO;
+import com.beveragewarehouse.event.InventoryChange;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 庫存分析快照測試
+ * 
+ * 測試目標：
+ * 1. 各狀態總計、庫齡分組、報廢預估的計算
+ * 2. 更新與移除（最後一列補位）後彙總保持正確，延遲到達的舊異動被忽略
+ * 3. 跨越多個 fork-join 區段時與逐筆計算的結果一致
+ * 4. 欄位儲存清空（重建）時沿用緩衝區，用量連續多個週期偏低才縮小
+ */
+class InventoryAnalyticsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+    private static final LocalDateTime NOW = TODAY.atStartOfDay();
+
+    private final InventoryAnalytics analytics = new InventoryAnalytics(null);
+
+    @Test
+    @DisplayName("總計、庫齡分組與報廢預估")
+    void testAggregates() {
+        apply(lot(1, 1, "MAIN", 10, TODAY.minusDays(5), TODAY.plusDays(3), BeverageStatus.NORMAL));
+        apply(lot(2, 1, "MAIN", 20, TODAY.minusDays(40), TODAY.plusDays(60), BeverageStatus.NORMAL));
+        apply(lot(3, 2, "EAST", 5, TODAY.minusDays(200), TODAY.minusDays(1), BeverageStatus.NORMAL));
+        apply(lot(4, 2, "EAST", 7, TODAY.minusDays(100), TODAY.minusDays(10), BeverageStatus.QUARANTINED));
+
+        InventoryAnalyticsDTO result = analytics.analyze(null, 30, TODAY);
+
+        assertEquals(4, result.getTotalLots());
+        assertEquals(42, result.getTotalQuantity());
+        assertEquals(3, result.getLotsByStatus().get(BeverageStatus.NORMAL));
+        assertEquals(7, result.getQuantityByStatus().get(BeverageStatus.QUARANTINED));
+        assertEquals(Map.of("0-30", 10L, "31-90", 20L, "91-180", 0L, "181+", 5L), result.getAgingQuantity());
+        assertEquals(15, result.getProjectedWasteQuantity());
+        assertEquals(List.of(1, 2), result.getProjectedWasteByProduct().stream()
+                .map(InventoryAnalyticsDTO.ProductWasteDTO::getProductId).toList());
+        assertEquals("商品1", result.getProjectedWasteByProduct().get(0).getName());
+
+        InventoryAnalyticsDTO east = analytics.analyze("EAST", 30, TODAY);
+        assertEquals(2, east.getTotalLots());
+        assertEquals(0, analytics.analyze("NONE", 30, TODAY).getTotalLots());
+    }
+
+    @Test
+    @DisplayName("更新、移除與延遲到達的舊異動")
+    void testUpdatesAndRemovals() {
+        for (int id = 1; id <= 5; id++) {
+            apply(lot(id, id, "MAIN", 10, TODAY, TODAY.plusDays(100), BeverageStatus.NORMAL));
+        }
+        apply(lot(2, 2, "MAIN", 4, TODAY, TODAY.plusDays(100), BeverageStatus.NORMAL, NOW.plusMinutes(1)));
+        analytics.onInventoryChanges(List.of(InventoryChange.remove(1L)));
+        // 延遲到達的舊 UPSERT：不覆蓋較新的狀態，也不讓已移除的批次復活
+        apply(lot(2, 2, "MAIN", 10, TODAY, TODAY.plusDays(100), BeverageStatus.NORMAL));
+        apply(lot(1, 1, "MAIN", 10, TODAY, TODAY.plusDays(100), BeverageStatus.NORMAL));
+        // 移除後補位的批次仍可更新
+        apply(lot(5, 5, "MAIN", 1, TODAY, TODAY.plusDays(100), BeverageStatus.DISPOSED, NOW.plusMinutes(1)));
+
+        InventoryAnalyticsDTO result = analytics.analyze(null, 30, TODAY);
+
+        assertEquals(4, analytics.lotCount());
+        assertEquals(4 + 10 + 10 + 1, result.getTotalQuantity());
+        assertEquals(1, result.getLotsByStatus().get(BeverageStatus.DISPOSED));
+    }
+
+    @Test
+    @DisplayName("平行掃描與逐筆計算結果一致")
+    void testParallelScanMatchesSequential() {
+        Random random = new Random(42);
+        BeverageStatus[] statuses = BeverageStatus.values();
+        List<InventoryChange> changes = new ArrayList<>();
+        long expectedQuantity = 0;
+        long expectedWaste = 0;
+        long expectedEastLots = 0;
+        for (int id = 1; id <= 100_000; id++) {
+            BeverageStatus status = statuses[random.nextInt(statuses.length)];
+            String warehouse = random.nextBoolean() ? "MAIN" : "EAST";
+            int quantity = random.nextInt(100);
+            LocalDate expiry = TODAY.plusDays(random.nextInt(120) - 20);
+            changes.add(InventoryChange.upsert(lot(id, random.nextInt(500), warehouse, quantity,
+                    TODAY.minusDays(random.nextInt(300)), expiry, status)));
+            expectedQuantity += quantity;
+            if (status == BeverageStatus.NORMAL && quantity > 0 && expiry.isBefore(TODAY.plusDays(14))) {
+                expectedWaste += quantity;
+            }
+            if (warehouse.equals("EAST")) {
+                expectedEastLots++;
+            }
+        }
+        analytics.onInventoryChanges(changes);
+
+        InventoryAnalyticsDTO result = analytics.analyze(null, 14, TODAY);
+
+        assertEquals(100_000, result.getTotalLots());
+        assertEquals(expectedQuantity, result.getTotalQuantity());
+        assertEquals(expectedWaste, result.getProjectedWasteQuantity());
+        assertEquals(InventoryAnalytics.MAX_WASTE_PRODUCTS, result.getProjectedWasteByProduct().size());
+        assertEquals(expectedEastLots, analytics.analyze("EAST", 14, TODAY).getTotalLots());
+    }
+
+    @Test
+    @DisplayName("清空時沿用緩衝區，連續三個週期用量低於 1/4 才縮小")
+    void testColumnStoreClearReusesBuffers() {
+        ColumnStore store = new ColumnStore();
+        fill(store, 5000);
+        int capacity = store.capacity();
+        assertEquals(8192, capacity);
+
+        // 重建：清空後重新載入相同數量，不重新配置
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(capacity, store.capacity());
+        fill(store, 5000);
+        assertEquals(capacity, store.capacity());
+        assertEquals(4999L, store.lotId(4999));
+        assertEquals(4999 % 7, store.quantity(4999));
+
+        // 用量偏低兩個週期後回升：重新計算，不縮小
+        for (int i = 0; i < 2; i++) {
+            store.clear();
+            fill(store, 100);
+        }
+        store.clear();
+        fill(store, 5000);
+        store.clear();
+        assertEquals(capacity, store.capacity());
+
+        // 連續三個週期偏低：縮小到能容納最高列數兩倍的容量
+        fill(store, 300);
+        store.clear();
+        fill(store, 700);
+        store.clear();
+        assertEquals(capacity, store.capacity());
+        fill(store, 100);
+        store.clear();
+        assertEquals(2048, store.capacity());
+        fill(store, 100);
+        assertEquals(99L, store.lotId(99));
+    }
+
+    private static void fill(ColumnStore store, int rows) {
+        for (int i = 0; i < rows; i++) {
+            store.append(i, i % 3, 0, i % 7, i, i - 30, (byte) 0, i);
+        }
+    }
+
+    private void apply(LotSnapshot lot) {
+        analytics.onInventoryChanges(List.of(InventoryChange.upsert(lot)));
+    }
+
+    private static LotSnapshot lot(long id, int productId, String warehouse, int quantity,
+                                   LocalDate productionDate, LocalDate expiryDate, BeverageStatus status) {
+        return lot(id, productId, warehouse, quantity, productionDate, expiryDate, status, NOW);
+    }
+
+    private static LotSnapshot lot(long id, int productId, String warehouse, int quantity, LocalDate productionDate,
+                                   LocalDate expiryDate, BeverageStatus status, LocalDateTime updatedAt) {
+        return new LotSnapshot(id, productId, "商品" + productId, warehouse, null, quantity, productionDate,
+                expiryDate, NOW, updatedAt, status, null, null);
+    }
+}
@@ -0,0 +1,145 @@
+package com.beveragewarehouse.archive;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.service.BeverageService;
+import com.beveragewarehouse.service.InventoryReadModel;
+import com.beveragewarehouse.service.ProductCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 報廢批次封存測試
+ * 
+ * 測試目標：
+ * 1. 只封存報廢超過保存期限的批次，依 batch-size 分成多個區段檔
+ * 2. 封存後資料列移出資料表，已報廢查詢（資料庫與讀取模型）仍包含封存的批次
+ * 3. 區段檔重新開啟（重啟）後內容完整
+ * 4. 重複查詢與之後的封存不會重新解壓已讀取的區段
+ */
+@SpringBootTest(properties = {
+        "warehouse.archive.enabled=true",
+        "warehouse.archive.dir=target/test-archive/${random.uuid}",
+        "warehouse.archive.retention-days=90",
+        "warehouse.archive.batch-size=2"
+})
+@ActiveProfiles("test")
+class DisposedLotArchiveTest {
+
+    @Autowired
+    private DisposedLotArchive archive;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private InventoryReadModel readModel;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("封存超過保存期限的報廢批次，查詢時與資料表合併")
+    void testArchiveAndQuery() {
+        LocalDateTime old = LocalDateTime.now().minusDays(120);
+        Long first = saveDisposed(old, "A-01");
+        Long second = saveDisposed(old, null);
+        Long third = saveDisposed(old.plusDays(5), "B-02");
+        Long recent = saveDisposed(LocalDateTime.now().minusDays(3), null);
+        int segmentsBefore = archive.segmentCount();
+
+        assertEquals(3, archive.archive());
+
+        assertEquals(segmentsBefore + 2, archive.segmentCount());
+        assertTrue(beverageRepository.findById(first).isEmpty());
+        assertTrue(beverageRepository.findById(third).isEmpty());
+        assertTrue(beverageRepository.findById(recent).isPresent());
+
+        List<BeverageDTO> disposed = beverageService.getDisposedBeverages();
+        assertEquals(List.of(first, second, third, recent), disposed.stream().map(BeverageDTO::getId).toList());
+        BeverageDTO archived = disposed.get(0);
+        assertEquals("封存測試飲料", archived.getName());
+        assertEquals("A-01", archived.getBin());
+        assertEquals("過期報廢", archived.getDisposalReason());
+        assertEquals(BeverageStatus.DISPOSED, archived.getStatus());
+        assertEquals(old.withNano(0), archived.getDisposedAt().withNano(0));
+
+        assertEquals(4, readModel.getDisposedBeverages().size());
+        assertEquals(0, archive.archive());
+    }
+
+    @Test
+    @DisplayName("重複查詢不會重新解壓區段，新封存的批次直接併入快取")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void testSegmentsDecodedOnce() {
+        LocalDateTime old = LocalDateTime.now().minusDays(120);
+        Long first = saveDisposed(old, null);
+        archive.archive();
+        beverageService.getDisposedBeverages();
+        long decodes = archive.segmentDecodes();
+
+        readModel.getDisposedBeverages();
+        beverageService.getDisposedBeverages();
+        Long second = saveDisposed(old, null);
+        archive.archive();
+        List<Long> ids = beverageService.getDisposedBeverages().stream().map(BeverageDTO::getId).toList();
+
+        assertEquals(decodes, archive.segmentDecodes());
+        assertTrue(ids.indexOf(first) >= 0 && ids.indexOf(first) < ids.indexOf(second));
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+
+    @Test
+    @DisplayName("區段檔寫入後重新開啟，內容完整")
+    void testSegmentRoundTrip(@TempDir Path directory) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        LotSnapshot lot = new LotSnapshot(42L, 7, "綠茶", "EAST", null, 12,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 1), now.minusDays(200), now.minusDays(100),
+                BeverageStatus.DISPOSED, null, now.minusDays(100));
+
+        ArchiveSegment written = ArchiveSegment.write(directory.resolve("disposed-1.seg"), List.of(lot));
+        ArchiveSegment reopened = ArchiveSegment.open(written.path());
+
+        assertEquals(1, reopened.count());
+        assertEquals(42L, reopened.minId());
+        assertEquals(List.of(lot), reopened.readAll());
+    }
+
+    private Long saveDisposed(LocalDateTime disposedAt, String bin) {
+        Beverage beverage = new Beverage();
+        beverage.setName("封存測試飲料");
+        beverage.setProductId(productCatalog.resolveId(beverage.getName()));
+        beverage.setQuantity(10);
+        beverage.setBin(bin);
+        beverage.setProductionDate(disposedAt.toLocalDate().minusDays(60));
+        beverage.setExpiryDate(disposedAt.toLocalDate().minusDays(1));
+        beverage.setStatus(BeverageStatus.DISPOSED);
+        beverage.setDisposalReason("過期報廢");
+        beverage.setDisposedAt(disposedAt);
+        return beverageRepository.save(beverage).getId();
+    }
+}
@@ -0,0 +1,111 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.model.AllocationPolicy;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.service.BeverageService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：各配貨策略每次出庫扣減（改寫或刪除）的批次數與延遲
+ * 
+ * 每個策略使用相同的庫存（固定亂數種子：200 個批次，每批 1 ~ 100 瓶）與相同的出庫數量序列（1 ~ 80 瓶，合計少於庫存）；
+ * 扣減的批次數由每次出庫前後的批次數量比對得出，比對不計入延遲
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=AllocationStrategyBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class AllocationStrategyBenchmark {
+
+    private static final String PRODUCT = "配貨基準飲料";
+    private static final int LOTS = 200;
+    private static final int WARMUP = 100;
+    private static final int STOCK_OUTS = 200;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Test
+    @DisplayName("基準：各配貨策略扣減的批次數與出庫延遲")
+    void benchmarkStrategies() {
+        run(AllocationPolicy.FEFO, WARMUP);
+        System.out.printf("%-12s %14s %10s %10s%n", "strategy", "lots/stockOut", "avg(ms)", "p95(ms)");
+        Map<AllocationPolicy, Double> lotsTouched = new HashMap<>();
+        for (AllocationPolicy policy : AllocationPolicy.values()) {
+            Result result = run(policy, STOCK_OUTS);
+            lotsTouched.put(policy, result.lotsPerStockOut());
+            System.out.printf("%-12s %14.2f %10.3f %10.3f%n", policy, result.lotsPerStockOut(),
+                    result.avgMillis(), result.p95Millis());
+        }
+        assertTrue(lotsTouched.get(AllocationPolicy.FEWEST_LOTS) <= lotsTouched.get(AllocationPolicy.FEFO));
+    }
+
+    private Result run(AllocationPolicy policy, int stockOuts) {
+        seed();
+        Random random = new Random(7);
+        long[] nanos = new long[stockOuts];
+        long touched = 0;
+        Map<Long, Integer> before = quantities();
+        for (int i = 0; i < stockOuts; i++) {
+            StockOutRequestDTO request = new StockOutRequestDTO(PRODUCT, 1 + random.nextInt(80), null, null, policy);
+            long start = System.nanoTime();
+            beverageService.stockOut(request);
+            nanos[i] = System.nanoTime() - start;
+            Map<Long, Integer> after = quantities();
+            for (Map.Entry<Long, Integer> lot : before.entrySet()) {
+                if (!lot.getValue().equals(after.get(lot.getKey()))) {
+                    touched++;
+                }
+            }
+            before = after;
+        }
+        Arrays.sort(nanos);
+        double avgMillis = Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+        double p95Millis = nanos[(int) (stockOuts * 0.95) - 1] / 1_000_000.0;
+        return new Result((double) touched / stockOuts, avgMillis, p95Millis);
+    }
+
+    private Map<Long, Integer> quantities() {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Beverage beverage : beverageRepository.findAll()) {
+            quantities.put(beverage.getId(), beverage.getQuantity());
+        }
+        return quantities;
+    }
+
+    private void seed() {
+        beverageRepository.deleteAll();
+        Random random = new Random(42);
+        for (int lot = 0; lot < LOTS; lot++) {
+            StockInRequestDTO request = new StockInRequestDTO();
+            request.setName(PRODUCT);
+            request.setQuantity(1 + random.nextInt(100));
+            request.setProductionDate(LocalDate.now().minusDays(random.nextInt(30)));
+            request.setExpiryDate(LocalDate.now().plusDays(10 + random.nextInt(180)));
+            beverageService.stockIn(request);
+        }
+    }
+
+    private record Result(double lotsPerStockOut, double avgMillis, double p95Millis) {
+    }
+}
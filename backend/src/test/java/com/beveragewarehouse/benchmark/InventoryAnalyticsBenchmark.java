@@ -0,0 +1,79 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.analytics.InventoryAnalytics;
+import com.beveragewarehouse.dto.InventoryAnalyticsDTO;
+import com.beveragewarehouse.event.InventoryChange;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：庫存分析掃描延遲
+ * 
+ * 以 LOTS 個批次的異動建立欄位快照（不經過資料庫），
+ * 量測一次完整分析（各狀態總計、庫齡分組、報廢預估）的平均延遲與載入後的 heap 增量
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=InventoryAnalyticsBenchmark
+ */
+@Tag("benchmark")
+class InventoryAnalyticsBenchmark {
+
+    private static final int LOTS = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final int ROUNDS = 50;
+
+    @Test
+    @DisplayName("基準：一百萬批次的庫存分析")
+    void benchmarkAnalyze() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        BeverageStatus[] statuses = BeverageStatus.values();
+        Random random = new Random(42);
+
+        long heapBefore = usedHeap();
+        InventoryAnalytics analytics = new InventoryAnalytics(null);
+        for (int start = 1; start <= LOTS; start += BATCH) {
+            List<InventoryChange> changes = new ArrayList<>(BATCH);
+            for (int id = start; id < start + BATCH; id++) {
+                int productId = random.nextInt(5_000);
+                changes.add(InventoryChange.upsert(new LotSnapshot((long) id, productId, "商品" + productId,
+                        "WH" + random.nextInt(8), null, random.nextInt(200),
+                        today.minusDays(random.nextInt(365)), today.plusDays(random.nextInt(400) - 30),
+                        now, now, statuses[random.nextInt(statuses.length)], null, null)));
+            }
+            analytics.onInventoryChanges(changes);
+        }
+        long heapAfter = usedHeap();
+        assertEquals(LOTS, analytics.lotCount());
+
+        for (int i = 0; i < 5; i++) {
+            analytics.analyze(null, 30);
+        }
+        long start = System.nanoTime();
+        long waste = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            InventoryAnalyticsDTO result = analytics.analyze(null, 30);
+            waste += result.getProjectedWasteQuantity();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+        System.out.printf("analytics, %d lots: %.2f ms/scan (%d threads), heap +%d MB%n",
+                LOTS, millis, Runtime.getRuntime().availableProcessors(), (heapAfter - heapBefore) >> 20);
+        assertTrue(waste > 0);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,189 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.event.InventoryChangePublisher;
+import com.beveragewarehouse.service.BeverageService;
+import com.beveragewarehouse.service.ProductCatalog;
+import com.beveragewarehouse.service.RecallRegistry;
+import com.beveragewarehouse.snapshot.InventorySnapshotter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：一百萬批次的快照匯出與啟動還原
+ * 
+ * 批次以 JDBC 批次 INSERT 直接寫入（不經過入庫流程），匯出期間另一個執行緒持續出庫 1 瓶，
+ * 比較匯出期間與匯出前相同長度的出庫延遲（p99 / 最大值），量測匯出是否讓出入庫停頓；
+ * 還原時先清空資料表，再量測載入快照與監聽器重建（讀取模型、可承諾量、索引）的耗時
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=InventorySnapshotBenchmark -DargLine=-Xmx3g
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class InventorySnapshotBenchmark {
+
+    private static final int LOTS = 1_000_000;
+    private static final int PRODUCTS = 1_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final String PROBE_PRODUCT = "快照基準探測飲料";
+    private static final int PROBE_LOTS = 200;
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryChangePublisher changePublisher;
+
+    @Autowired
+    private RecallRegistry recallRegistry;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Test
+    @DisplayName("基準：一百萬批次的快照停頓與還原時間")
+    void benchmarkSnapshotAndRestore() throws Exception {
+        InventorySnapshotter snapshotter = new InventorySnapshotter(dataSource, changePublisher, recallRegistry,
+                productCatalog, true, directory.toString(), 1, false);
+        long seedStart = System.nanoTime();
+        seed();
+        System.out.printf("seed: %d lots (JDBC batch INSERT), %d ms%n", LOTS, (System.nanoTime() - seedStart) / 1_000_000);
+        for (int i = 0; i < PROBE_LOTS; i++) {
+            beverageService.stockIn(new StockInRequestDTO(PROBE_PRODUCT, 100, LocalDate.now(),
+                    LocalDate.now().plusDays(60), null, null));
+        }
+
+        Probe probe = new Probe();
+        probe.start();
+        Thread.sleep(2_000);
+        probe.mark();
+        long baselineStart = System.nanoTime();
+        Thread.sleep(3_000);
+        List<Long> baseline = probe.mark();
+        long baselineMillis = (System.nanoTime() - baselineStart) / 1_000_000;
+
+        long start = System.nanoTime();
+        Path file = snapshotter.snapshot();
+        long snapshotMillis = (System.nanoTime() - start) / 1_000_000;
+        List<Long> during = probe.mark();
+        probe.finish();
+
+        System.out.printf("snapshot: %d lots, %d ms, %.1f MB%n", LOTS, snapshotMillis, Files.size(file) / 1e6);
+        System.out.printf("%-10s %8s %10s %10s%n", "stockOut", "ops/s", "p99(ms)", "max(ms)");
+        print("baseline", baseline, baselineMillis);
+        print("snapshot", during, snapshotMillis);
+
+        jdbcTemplate.execute("TRUNCATE TABLE beverages");
+        jdbcTemplate.execute("TRUNCATE TABLE product_recalls");
+        jdbcTemplate.execute("DELETE FROM products");
+        InventorySnapshotter.RestoreResult result = snapshotter.restoreLatest().orElseThrow();
+        System.out.printf("restore: %s, load %d ms, rebuild %d ms%n",
+                result.rows(), result.loadMillis(), result.rebuildMillis());
+        assertTrue(result.rows().get("beverages") > LOTS);
+        assertEquals(result.rows().get("beverages"),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM beverages", Long.class));
+    }
+
+    private void print(String label, List<Long> nanos, long millis) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        sorted.sort(null);
+        double p99 = sorted.isEmpty() ? 0 : sorted.get(Math.max(0, (int) (sorted.size() * 0.99) - 1)) / 1e6;
+        double max = sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1) / 1e6;
+        System.out.printf("%-10s %8.0f %10.2f %10.2f%n", label, sorted.size() * 1000.0 / Math.max(1, millis), p99, max);
+    }
+
+    private void seed() {
+        jdbcTemplate.execute("TRUNCATE TABLE beverages");
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> products = new ArrayList<>(PRODUCTS);
+        for (int p = 1; p <= PRODUCTS; p++) {
+            products.add(new Object[]{"快照基準商品-" + p, Timestamp.valueOf(now)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, created_at) VALUES (?, ?)", products);
+        List<Integer> productIds = jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE name LIKE '快照基準商品-%' ORDER BY id", Integer.class);
+
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        String sql = "INSERT INTO beverages (name, product_id, warehouse, bin, quantity, production_date, expiry_date, "
+                + "created_at, updated_at, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        for (int start = 0; start < LOTS; start += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = start; i < start + INSERT_BATCH; i++) {
+                int product = random.nextInt(PRODUCTS);
+                rows.add(new Object[]{"快照基準商品-" + (product + 1), productIds.get(product),
+                        "WH" + random.nextInt(8), "A-" + random.nextInt(50), 1 + random.nextInt(100),
+                        Date.valueOf(today.minusDays(random.nextInt(365))),
+                        Date.valueOf(today.plusDays(random.nextInt(400))),
+                        Timestamp.valueOf(now), Timestamp.valueOf(now), "NORMAL"});
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+        productCatalog.invalidate();
+    }
+
+    /**
+     * 持續出庫 1 瓶並記錄每次的延遲；mark() 取出上次 mark 之後的紀錄
+     */
+    private final class Probe extends Thread {
+
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final List<Long> latencies = new ArrayList<>();
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                long start = System.nanoTime();
+                beverageService.stockOut(new StockOutRequestDTO(PROBE_PRODUCT, 1, null));
+                long elapsed = System.nanoTime() - start;
+                synchronized (latencies) {
+                    latencies.add(elapsed);
+                }
+            }
+        }
+
+        List<Long> mark() {
+            synchronized (latencies) {
+                List<Long> copy = new ArrayList<>(latencies);
+                latencies.clear();
+                return copy;
+            }
+        }
+
+        void finish() throws InterruptedException {
+            running.set(false);
+            join();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.dto.OrderStockOutRequestDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.service.BeverageService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：訂單出庫吞吐量隨執行緒數的變化
+ * 
+ * 每筆訂單從 40 個商品中隨機挑 3 個（順序隨機），訂單之間部分重疊；
+ * 關閉死結重試，任何死結都會計入失敗數
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=OrderStockOutBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderbenchmark;LOCK_TIMEOUT=30000",
+        "warehouse.allocation.max-attempts=1"
+})
+@ActiveProfiles("test")
+class OrderStockOutBenchmark {
+
+    private static final int PRODUCTS = 40;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Test
+    @DisplayName("基準：重疊訂單出庫吞吐量（1 / 2 / 4 / 8 執行緒）")
+    void benchmarkOverlappingOrders() throws Exception {
+        System.out.printf("%-8s %12s %10s%n", "threads", "orders/s", "failed");
+        run(2, WARMUP_MILLIS);
+        for (int threads : THREAD_COUNTS) {
+            Result result = run(threads, MEASURE_MILLIS);
+            System.out.printf("%-8d %12.0f %10d%n", threads, result.perSecond(), result.failed());
+            assertEquals(0, result.failed());
+        }
+    }
+
+    private Result run(int threads, long millis) throws InterruptedException {
+        seed();
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                List<String> products = new ArrayList<>();
+                for (int p = 0; p < PRODUCTS; p++) {
+                    products.add("商品-" + p);
+                }
+                while (System.nanoTime() < deadline) {
+                    Collections.shuffle(products, ThreadLocalRandom.current());
+                    OrderStockOutRequestDTO order = new OrderStockOutRequestDTO();
+                    order.setLines(List.of(line(products.get(0)), line(products.get(1)), line(products.get(2))));
+                    try {
+                        beverageService.stockOutOrder(order);
+                        completed.increment();
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        return new Result(completed.sum() * 1000.0 / millis, failed.sum());
+    }
+
+    /**
+     * 每個商品 10 個批次、各 100 瓶，足夠整輪量測
+     */
+    private void seed() {
+        beverageRepository.deleteAll();
+        for (int p = 0; p < PRODUCTS; p++) {
+            for (int lot = 0; lot < 10; lot++) {
+                StockInRequestDTO request = new StockInRequestDTO();
+                request.setName("商品-" + p);
+                request.setQuantity(100);
+                request.setProductionDate(LocalDate.now());
+                request.setExpiryDate(LocalDate.now().plusDays(10 + lot));
+                beverageService.stockIn(request);
+            }
+        }
+    }
+
+    private static StockOutRequestDTO line(String name) {
+        StockOutRequestDTO line = new StockOutRequestDTO();
+        line.setName(name);
+        line.setQuantity(1);
+        return line;
+    }
+
+    private record Result(double perSecond, long failed) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.service.ProductCatalog;
+import com.beveragewarehouse.service.ProductSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：商品名稱搜尋延遲
+ * 
+ * 建立 PRODUCTS 個商品後，量測前綴查詢（手持裝置輸入前 1～3 個字）與
+ * 子字串／模糊查詢的平均延遲
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=ProductSearchBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 5_000;
+    private static final int QUERIES = 50_000;
+    private static final List<String> BRANDS = List.of("統一", "黑松", "維他", "光泉", "味全", "御茶園", "可口", "百事");
+    private static final List<String> KINDS = List.of("綠茶", "紅茶", "烏龍茶", "奶茶", "咖啡", "果汁", "汽水", "礦泉水");
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    @DisplayName("基準：商品名稱搜尋延遲")
+    void benchmarkSearch() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            productCatalog.resolveId(BRANDS.get(i % BRANDS.size()) + KINDS.get(i / BRANDS.size() % KINDS.size())
+                    + " " + (i / (BRANDS.size() * KINDS.size())) + "00ml");
+        }
+        productSearchIndex.rebuild();
+
+        Random random = new Random(42);
+        String[] prefixes = new String[QUERIES];
+        String[] fuzzy = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String brand = BRANDS.get(random.nextInt(BRANDS.size()));
+            String kind = KINDS.get(random.nextInt(KINDS.size()));
+            prefixes[i] = (brand + kind).substring(0, 1 + random.nextInt(3));
+            fuzzy[i] = brand.charAt(0) + kind;
+        }
+
+        measure(prefixes);
+        double prefixMicros = measure(prefixes);
+        double fuzzyMicros = measure(fuzzy);
+        System.out.printf("search, %d products: prefix %.1f us/query, substring/fuzzy %.1f us/query%n",
+                PRODUCTS, prefixMicros, fuzzyMicros);
+        assertTrue(prefixMicros > 0 && fuzzyMicros > 0);
+    }
+
+    private double measure(String[] queries) {
+        long hits = 0;
+        long start = System.nanoTime();
+        for (String query : queries) {
+            hits += productSearchIndex.search(query, null, 20).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(hits > 0);
+        return elapsed / 1000.0 / queries.length;
+    }
+}
@@ -0,0 +1,112 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.BeverageWarehouseApplication;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.service.BeverageService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：預設設定與 prod 設定的啟動時間與出入庫吞吐量
+ * 
+ * prod 使用暫存目錄中的檔案型 H2；另外量測資料已存在時的重新啟動時間
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=ProfileComparisonBenchmark
+ */
+@Tag("benchmark")
+class ProfileComparisonBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int PRODUCTS = 20;
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 10_000;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    @DisplayName("基準：預設設定與 prod 設定的啟動時間與吞吐量")
+    void benchmarkProfiles() throws Exception {
+        // 第一次啟動包含類別載入與 JIT 暖機，不列入比較
+        builder(false).run().close();
+        System.out.printf("%-14s %12s %14s%n", "profile", "startup(ms)", "ops/s");
+        measure("default", false);
+        measure("prod", true);
+        // 資料已存在時的重新啟動
+        measure("prod-restart", true);
+    }
+
+    private SpringApplicationBuilder builder(boolean prod) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BeverageWarehouseApplication.class)
+                .properties("server.port=0", "warehouse.data-dir=" + dataDir.toAbsolutePath());
+        return prod ? builder.profiles("prod") : builder;
+    }
+
+    private void measure(String label, boolean prod) throws Exception {
+        SpringApplicationBuilder builder = builder(prod);
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = builder.run()) {
+            long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            BeverageService service = context.getBean(BeverageService.class);
+            run(service, WARMUP_MILLIS);
+            double perSecond = run(service, MEASURE_MILLIS);
+            System.out.printf("%-14s %12d %14.0f%n", label, startupMillis, perSecond);
+            assertTrue(perSecond > 0);
+        }
+    }
+
+    /**
+     * 每個執行緒交替入庫 10 瓶、出庫 5 瓶（隨機商品），回傳每秒完成的操作數
+     */
+    private double run(BeverageService service, long millis) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String name = "商品-" + random.nextInt(PRODUCTS);
+                    try {
+                        StockInRequestDTO stockIn = new StockInRequestDTO();
+                        stockIn.setName(name);
+                        stockIn.setQuantity(10);
+                        stockIn.setProductionDate(LocalDate.now());
+                        stockIn.setExpiryDate(LocalDate.now().plusDays(1 + random.nextInt(365)));
+                        service.stockIn(stockIn);
+                        completed.increment();
+
+                        StockOutRequestDTO stockOut = new StockOutRequestDTO();
+                        stockOut.setName(name);
+                        stockOut.setQuantity(5);
+                        service.stockOut(stockOut);
+                        completed.increment();
+                    } catch (RuntimeException e) {
+                        // 鎖逾時等失敗不計入吞吐量
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        return completed.sum() * 1000.0 / millis;
+    }
+}
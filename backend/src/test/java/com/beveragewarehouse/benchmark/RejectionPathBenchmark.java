@@ -0,0 +1,90 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.service.BeverageService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：出庫拒絕路徑（庫存不足）的吞吐量
+ * 
+ * 高爭用下「庫存不足」每秒可能發生上千次，此基準量測拒絕路徑本身的成本
+ * （交易、加鎖查詢、例外建立與回滾）
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=RejectionPathBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class RejectionPathBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 8};
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 5_000;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Test
+    @DisplayName("基準：庫存不足拒絕路徑吞吐量")
+    void benchmarkInsufficientStockRejection() throws Exception {
+        beverageRepository.deleteAll();
+        StockInRequestDTO stockIn = new StockInRequestDTO();
+        stockIn.setName("礦泉水");
+        stockIn.setQuantity(10);
+        stockIn.setProductionDate(LocalDate.now());
+        stockIn.setExpiryDate(LocalDate.now().plusDays(30));
+        beverageService.stockIn(stockIn);
+
+        StockOutRequestDTO tooMuch = new StockOutRequestDTO();
+        tooMuch.setName("礦泉水");
+        tooMuch.setQuantity(1_000);
+
+        run(tooMuch, 1, WARMUP_MILLIS);
+        for (int threads : THREAD_COUNTS) {
+            double perSecond = run(tooMuch, threads, MEASURE_MILLIS);
+            System.out.printf("rejection path: %.0f ops/s (%d threads)%n", perSecond, threads);
+            assertTrue(perSecond > 0);
+        }
+    }
+
+    private double run(StockOutRequestDTO request, int threads, long millis) throws InterruptedException {
+        LongAdder rejected = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        beverageService.stockOut(request);
+                    } catch (RuntimeException e) {
+                        rejected.increment();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        return rejected.sum() * 1000.0 / millis;
+    }
+}
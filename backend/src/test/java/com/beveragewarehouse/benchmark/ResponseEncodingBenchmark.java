@@ -0,0 +1,93 @@
+package com.beveragewarehouse.benchmark;
+
+import com.beveragewarehouse.config.BinaryEncodingConfig;
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 效能基準：JSON 與 CBOR 回應編碼（位元組數與編碼時間）
+ * 
+ * 執行方式：mvn test -Pbenchmark -Dtest=ResponseEncodingBenchmark
+ */
+@Tag("benchmark")
+class ResponseEncodingBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    @Test
+    @DisplayName("基準：10k 與 100k 批次的 JSON / CBOR 編碼")
+    void benchmarkListEncoding() throws Exception {
+        // 與 Spring Boot 預設 JSON 設定一致：日期輸出為 ISO 字串
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper cbor = BinaryEncodingConfig.cborObjectMapper();
+
+        System.out.printf("%-8s %-6s %14s %14s%n", "lots", "format", "bytes", "encode(ms)");
+        for (int size : new int[]{10_000, 100_000}) {
+            List<BeverageDTO> lots = lots(size);
+            Result jsonResult = measure(json, lots);
+            Result cborResult = measure(cbor, lots);
+            System.out.printf("%-8d %-6s %14d %14.2f%n", size, "json", jsonResult.bytes(), jsonResult.millis());
+            System.out.printf("%-8d %-6s %14d %14.2f%n", size, "cbor", cborResult.bytes(), cborResult.millis());
+            System.out.printf("%-8d %-6s %13.1f%% %13.1f%%%n", size, "ratio",
+                    100.0 * cborResult.bytes() / jsonResult.bytes(),
+                    100.0 * cborResult.millis() / jsonResult.millis());
+            assertTrue(cborResult.bytes() < jsonResult.bytes(), "CBOR 應比 JSON 精簡");
+        }
+    }
+
+    private Result measure(ObjectMapper mapper, List<BeverageDTO> lots) throws Exception {
+        int bytes = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(lots).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(lots).length;
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+        return new Result(bytes, millis);
+    }
+
+    private List<BeverageDTO> lots(int size) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<BeverageDTO> lots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BeverageDTO dto = new BeverageDTO();
+            dto.setId((long) i + 1);
+            dto.setName("礦泉水-" + (i % 50));
+            dto.setWarehouse(i % 2 == 0 ? "MAIN" : "KHH");
+            dto.setBin("A-" + (i % 20));
+            dto.setQuantity(1 + i % 100);
+            dto.setProductionDate(today.minusDays(i % 365));
+            dto.setExpiryDate(today.plusDays(i % 400));
+            dto.setCreatedAt(now.minusMinutes(i));
+            dto.setUpdatedAt(now);
+            dto.setExpired(false);
+            dto.setDaysUntilExpiry((long) (i % 400));
+            dto.setExpiringSoon(i % 400 <= 7);
+            dto.setStatus(BeverageStatus.NORMAL);
+            lots.add(dto);
+        }
+        return lots;
+    }
+
+    private record Result(int bytes, double millis) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.beveragewarehouse.controller;
+
+import com.beveragewarehouse.config.BinaryEncodingConfig;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 內容協商測試（JSON / CBOR）
+ * 
+ * 測試目標：
+ * 1. Accept: application/cbor 時回應 CBOR，日期為 epoch-day 整數
+ * 2. 可以使用 CBOR 送出請求
+ * 3. 未指定時仍回應 JSON
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BeverageControllerContentNegotiationTest {
+
+    private final ObjectMapper cbor = BinaryEncodingConfig.cborObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("CBOR 請求與回應，日期編碼為 epoch-day")
+    void testCborRoundTrip() throws Exception {
+        LocalDate expiryDate = LocalDate.now().plusDays(30);
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(10);
+        request.setProductionDate(LocalDate.now());
+        request.setExpiryDate(expiryDate);
+
+        byte[] body = mockMvc.perform(post("/api/beverages/stock-in")
+                        .contentType(BinaryEncodingConfig.APPLICATION_CBOR)
+                        .accept(BinaryEncodingConfig.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(BinaryEncodingConfig.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode created = cbor.readTree(body);
+        assertEquals("礦泉水", created.get("name").asText());
+        assertTrue(created.get("expiryDate").isIntegralNumber());
+        assertEquals(expiryDate.toEpochDay(), created.get("expiryDate").asLong());
+    }
+
+    @Test
+    @DisplayName("未指定 Accept 時回應 JSON")
+    void testDefaultsToJson() throws Exception {
+        mockMvc.perform(get("/api/beverages"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
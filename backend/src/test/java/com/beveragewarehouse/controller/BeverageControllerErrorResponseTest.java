@@ -0,0 +1,104 @@
+package com.beveragewarehouse.controller;
+
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.service.BeverageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 錯誤回應測試
+ * 
+ * 測試目標：
+ * 1. 業務例外與欄位驗證失敗對應到正確的 HTTP 狀態碼與錯誤代碼
+ * 2. 錯誤回應保留 message 欄位（前端顯示用）
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BeverageControllerErrorResponseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("查詢不存在的批次回應 404")
+    void testNotFound() throws Exception {
+        mockMvc.perform(get("/api/beverages/{id}", 999999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("BEVERAGE_NOT_FOUND"))
+                .andExpect(jsonPath("$.message").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("庫存不足回應 409，並帶出可用數量")
+    void testInsufficientStock() throws Exception {
+        StockInRequestDTO stockIn = new StockInRequestDTO();
+        stockIn.setName("可樂");
+        stockIn.setQuantity(10);
+        stockIn.setProductionDate(LocalDate.now());
+        stockIn.setExpiryDate(LocalDate.now().plusDays(30));
+        beverageService.stockIn(stockIn);
+
+        StockOutRequestDTO stockOut = new StockOutRequestDTO();
+        stockOut.setName("可樂");
+        stockOut.setQuantity(15);
+
+        mockMvc.perform(post("/api/beverages/stock-out")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stockOut)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("INSUFFICIENT_STOCK"))
+                .andExpect(jsonPath("$.details.requested").value(15))
+                .andExpect(jsonPath("$.details.available").value(10))
+                .andExpect(jsonPath("$.message").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("請求欄位驗證失敗回應 400，並列出欄位錯誤")
+    void testValidationFailed() throws Exception {
+        StockInRequestDTO stockIn = new StockInRequestDTO();
+        stockIn.setName("可樂");
+        stockIn.setQuantity(101);
+        stockIn.setProductionDate(LocalDate.now());
+        stockIn.setExpiryDate(LocalDate.now().plusDays(30));
+
+        mockMvc.perform(post("/api/beverages/stock-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stockIn)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_FAILED"))
+                .andExpect(jsonPath("$.details.quantity").value("一次入庫數量不能超過 100 瓶"))
+                .andExpect(jsonPath("$.message").value("一次入庫數量不能超過 100 瓶"));
+    }
+}
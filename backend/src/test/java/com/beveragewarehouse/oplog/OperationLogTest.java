@@ -0,0 +1,140 @@
+package com.beveragewarehouse.oplog;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 操作日誌測試
+ * 
+ * 測試目標：
+ * 1. 寫入 API 輸出一行摘要（陳述式數、影響批次數），不輸出 SQL
+ * 2. GET 不記錄
+ * 3. 執行期間停用或取樣率為 0 時不記錄
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OperationLogTest {
+
+    private static final Pattern SUMMARY =
+            Pattern.compile("op=(\\w+) status=(\\d+) durationMs=\\d+ statements=(\\d+) rows=(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private OperationLogEndpoint endpoint;
+
+    private final Logger operationsLogger = (Logger) LoggerFactory.getLogger("operations");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        endpoint.configure(true, null, 1.0);
+        endpoint.configure(null, "stockIn", 1.0);
+        endpoint.configure(null, "stockOut", 1.0);
+        appender.start();
+        operationsLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        operationsLogger.detachAppender(appender);
+        endpoint.configure(true, null, 1.0);
+    }
+
+    @Test
+    @DisplayName("出庫輸出摘要：陳述式數與影響批次數")
+    void testStockOutSummary() throws Exception {
+        stockIn("可樂", 10, 10);
+        stockIn("可樂", 10, 20);
+        appender.list.clear();
+
+        StockOutRequestDTO request = new StockOutRequestDTO();
+        request.setName("可樂");
+        request.setQuantity(15);
+        mockMvc.perform(post("/api/beverages/stock-out")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        List<ILoggingEvent> events = appender.list;
+        assertEquals(1, events.size());
+        Matcher matcher = SUMMARY.matcher(events.get(0).getFormattedMessage());
+        assertTrue(matcher.matches(), events.get(0).getFormattedMessage());
+        assertEquals("stockOut", matcher.group(1));
+        assertEquals("200", matcher.group(2));
+        assertTrue(Integer.parseInt(matcher.group(3)) > 0);
+        // 第一批全部出庫（移除）、第二批部分出庫（更新）
+        assertEquals(2, Integer.parseInt(matcher.group(4)));
+    }
+
+    @Test
+    @DisplayName("GET 請求不記錄")
+    void testReadsAreNotLogged() throws Exception {
+        mockMvc.perform(get("/api/beverages")).andExpect(status().isOk());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    @DisplayName("執行期間停用或取樣率為 0 時不記錄")
+    void testRuntimeSwitch() throws Exception {
+        endpoint.configure(false, null, null);
+        stockIn("礦泉水", 5, 30);
+        assertTrue(appender.list.isEmpty());
+
+        endpoint.configure(true, "stockIn", 0.0);
+        stockIn("礦泉水", 5, 30);
+        assertTrue(appender.list.isEmpty());
+
+        endpoint.configure(null, "stockIn", 1.0);
+        stockIn("礦泉水", 5, 30);
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().startsWith("op=stockIn status=201"));
+    }
+
+    private void stockIn(String name, int quantity, int daysToExpiry) throws Exception {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName(name);
+        request.setQuantity(quantity);
+        request.setProductionDate(LocalDate.now());
+        request.setExpiryDate(LocalDate.now().plusDays(daysToExpiry));
+        mockMvc.perform(post("/api/beverages/stock-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+}
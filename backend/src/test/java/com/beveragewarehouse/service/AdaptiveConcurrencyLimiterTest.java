@@ -0,0 +1,168 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.exception.ConcurrencyLimitExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自適應併發限制器測試
+ * 
+ * 測試目標：
+ * 1. 上限已滿且佇列已滿時立即拒絕
+ * 2. 佇列中的請求在許可釋放後繼續執行，等待逾時則拒絕
+ * 3. 延遲上升或發生丟棄時，上限下降
+ * 4. 等待結束後移除該 key 的佇列計數，任意的 key 不會讓記憶體無限成長
+ * 5. 訂單以明細商品為鍵：排入每個商品的佇列，只有包含佇列已滿商品的訂單被拒絕
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("上限已滿且沒有佇列空間時，立即拒絕並提供 Retry-After")
+    void testAcquire_LimitReachedAndNoQueue_RejectsImmediately() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0, 1000);
+        limiter.acquire("A");
+        limiter.acquire("A");
+
+        long start = System.nanoTime();
+        var e = assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.acquire("A"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500, "應立即拒絕，不應等待");
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    @DisplayName("佇列中的請求在許可釋放後取得許可")
+    void testAcquire_QueuedRequestProceedsAfterRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 1, 5000);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire("A");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            return limiter.acquire("A");
+        });
+        started.await();
+        Thread.sleep(100);
+        assertFalse(queued.isDone());
+
+        first.ignore();
+        assertNotNull(queued.get(2, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("每個商品有各自的佇列上限，等待逾時則拒絕")
+    void testAcquire_PerKeyQueueAndTimeout() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 1, 50);
+        limiter.acquire("A");
+
+        // 商品 B 的佇列有空間：等待 50ms 後逾時拒絕
+        assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.acquire("B"));
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    @DisplayName("等待結束（逾時或被拒絕）後不保留該 key 的佇列計數")
+    void testAcquire_ManyDistinctKeys_QueueEntriesRemoved() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 1, 1);
+        limiter.acquire("A");
+
+        for (int i = 0; i < 100; i++) {
+            String key = "商品-" + i;
+            assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.acquire(key));
+        }
+        assertEquals(0, limiter.getQueuedKeys());
+
+        AdaptiveConcurrencyLimiter noQueue = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 0, 1000);
+        noQueue.acquire("A");
+        assertThrows(ConcurrencyLimitExceededException.class, () -> noQueue.acquire("B"));
+        assertEquals(0, noQueue.getQueuedKeys());
+    }
+
+    @Test
+    @DisplayName("多個 key 共用一個許可：任一商品佇列已滿才拒絕，不同商品的訂單各自排隊")
+    void testAcquire_MultipleKeys_QueuePerProduct() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 1, 5000);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire("A");
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> orderBC =
+                CompletableFuture.supplyAsync(() -> limiter.acquire(List.of("C", "B")));
+        awaitWaiting(limiter, 1);
+
+        // C 的佇列已滿：包含 C 的訂單立即拒絕
+        var e = assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.acquire(List.of("D", "C")));
+        assertTrue(e.getMessage().endsWith(": C"), e.getMessage());
+
+        // 不含 B、C 的訂單仍可排隊（以倉庫為鍵時會因同一個佇列已滿被拒絕）
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> orderDE =
+                CompletableFuture.supplyAsync(() -> limiter.acquire(List.of("E", "D", "E")));
+        awaitWaiting(limiter, 2);
+        assertEquals(4, limiter.getQueuedKeys());
+
+        first.ignore();
+        AdaptiveConcurrencyLimiter.Permit next = CompletableFuture.anyOf(orderBC, orderDE)
+                .thenApply(AdaptiveConcurrencyLimiter.Permit.class::cast).get(2, TimeUnit.SECONDS);
+        next.ignore();
+        orderBC.get(2, TimeUnit.SECONDS).ignore();
+        orderDE.get(2, TimeUnit.SECONDS).ignore();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueuedKeys());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    @DisplayName("丟棄（鎖逾時）時降低上限")
+    void testDropped_ReducesLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 4, 100, 10, 10);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("A").dropped();
+        }
+        assertTrue(limiter.getLimit() < 20, "上限應下降，實際: " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 4, "上限不應低於最小值");
+    }
+
+    @Test
+    @DisplayName("延遲穩定時上限成長，延遲上升時上限下降")
+    void testGradient_AdjustsLimitWithLatency() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 2, 50, 10, 10);
+
+        // 延遲穩定且併發接近上限：上限成長
+        for (int round = 0; round < 20; round++) {
+            completeConcurrently(limiter, limiter.getLimit(), 0);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 4, "延遲穩定時上限應成長，實際: " + grown);
+
+        // 延遲大幅上升：上限下降
+        for (int round = 0; round < 10; round++) {
+            completeConcurrently(limiter, limiter.getLimit(), 20);
+        }
+        assertTrue(limiter.getLimit() < grown, "延遲上升時上限應下降，實際: " + limiter.getLimit());
+    }
+
+    private void awaitWaiting(AdaptiveConcurrencyLimiter limiter, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (limiter.getWaiting() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, limiter.getWaiting());
+    }
+
+    private void completeConcurrently(AdaptiveConcurrencyLimiter limiter, int count, long sleepMillis) throws InterruptedException {
+        AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[count];
+        for (int i = 0; i < count; i++) {
+            permits[i] = limiter.acquire("A");
+        }
+        Thread.sleep(sleepMillis);
+        for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+            permit.success();
+        }
+    }
+}
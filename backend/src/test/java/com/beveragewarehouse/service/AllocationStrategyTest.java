@@ -0,0 +1,143 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.OrderStockOutRequestDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.model.AllocationPolicy;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 出庫配貨策略測試
+ * 
+ * 測試目標：
+ * 1. 未指定策略時依 FEFO；FIFO 依入庫時間扣減
+ * 2. FEWEST_LOTS 扣減的批次數最少；SINGLE_LOT 優先由單一批次出完，沒有足夠的批次時依 FEFO
+ * 3. 商品設定的策略生效，請求指定的策略優先於商品設定
+ * 4. 訂單中同商品不同策略的明細分別配貨
+ */
+@SpringBootTest(properties = "warehouse.allocation.product-strategies=策略礦泉水=FIFO")
+@ActiveProfiles("test")
+class AllocationStrategyTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("未指定策略時依 FEFO，指定 FIFO 時先扣最早入庫的批次")
+    void testFefoAndFifo() {
+        Long firstIn = stockIn("策略果汁", 10, TODAY.plusDays(30));
+        Long earliestExpiry = stockIn("策略果汁", 10, TODAY.plusDays(10));
+
+        beverageService.stockOut(new StockOutRequestDTO("策略果汁", 4, null));
+        assertEquals(10, quantity(firstIn));
+        assertEquals(6, quantity(earliestExpiry));
+
+        beverageService.stockOut(request("策略果汁", 4, AllocationPolicy.FIFO));
+        assertEquals(6, quantity(firstIn));
+        assertEquals(6, quantity(earliestExpiry));
+    }
+
+    @Test
+    @DisplayName("FEWEST_LOTS 從數量最多的批次扣減")
+    void testFewestLots() {
+        Long small1 = stockIn("策略汽水", 5, TODAY.plusDays(5));
+        Long small2 = stockIn("策略汽水", 5, TODAY.plusDays(6));
+        Long large = stockIn("策略汽水", 40, TODAY.plusDays(20));
+
+        beverageService.stockOut(request("策略汽水", 8, AllocationPolicy.FEWEST_LOTS));
+
+        assertEquals(5, quantity(small1));
+        assertEquals(5, quantity(small2));
+        assertEquals(32, quantity(large));
+
+        // 需要多個批次時：最大的批次扣完後再扣次大的
+        beverageService.stockOut(request("策略汽水", 35, AllocationPolicy.FEWEST_LOTS));
+
+        assertFalse(beverageRepository.existsById(large));
+        assertEquals(2, quantity(small1));
+        assertEquals(5, quantity(small2));
+    }
+
+    @Test
+    @DisplayName("SINGLE_LOT 扣最早過期且數量足夠的批次，沒有足夠的批次時依 FEFO")
+    void testSingleLot() {
+        Long small = stockIn("策略奶茶", 10, TODAY.plusDays(5));
+        Long medium = stockIn("策略奶茶", 30, TODAY.plusDays(10));
+        Long large = stockIn("策略奶茶", 50, TODAY.plusDays(20));
+
+        beverageService.stockOut(request("策略奶茶", 25, AllocationPolicy.SINGLE_LOT));
+
+        assertEquals(10, quantity(small));
+        assertEquals(5, quantity(medium));
+        assertEquals(50, quantity(large));
+
+        beverageService.stockOut(request("策略奶茶", 60, AllocationPolicy.SINGLE_LOT));
+
+        assertFalse(beverageRepository.existsById(small));
+        assertFalse(beverageRepository.existsById(medium));
+        assertEquals(5, quantity(large));
+    }
+
+    @Test
+    @DisplayName("商品設定的策略生效，請求指定的策略優先")
+    void testProductStrategyAndOverride() {
+        Long firstIn = stockIn("策略礦泉水", 10, TODAY.plusDays(30));
+        Long earliestExpiry = stockIn("策略礦泉水", 10, TODAY.plusDays(10));
+
+        beverageService.stockOut(new StockOutRequestDTO(" 策略礦泉水 ", 3, null));
+        assertEquals(7, quantity(firstIn));
+        assertEquals(10, quantity(earliestExpiry));
+
+        beverageService.stockOut(request("策略礦泉水", 3, AllocationPolicy.FEFO));
+        assertEquals(7, quantity(firstIn));
+        assertEquals(7, quantity(earliestExpiry));
+    }
+
+    @Test
+    @DisplayName("訂單中同商品不同策略的明細分別配貨")
+    void testOrderWithMixedStrategies() {
+        Long firstIn = stockIn("策略咖啡", 10, TODAY.plusDays(30));
+        Long earliestExpiry = stockIn("策略咖啡", 10, TODAY.plusDays(10));
+
+        beverageService.stockOutOrder(new OrderStockOutRequestDTO("ORDER-1", null, List.of(
+                new StockOutRequestDTO("策略咖啡", 2, null),
+                request("策略咖啡", 3, AllocationPolicy.FIFO))));
+
+        assertEquals(7, quantity(firstIn));
+        assertEquals(8, quantity(earliestExpiry));
+    }
+
+    private static StockOutRequestDTO request(String name, int quantity, AllocationPolicy strategy) {
+        return new StockOutRequestDTO(name, quantity, null, null, strategy);
+    }
+
+    private int quantity(Long id) {
+        return beverageRepository.findById(id).orElseThrow().getQuantity();
+    }
+
+    private Long stockIn(String name, int quantity, LocalDate expiryDate) {
+        return beverageService.stockIn(
+                new StockInRequestDTO(name, quantity, TODAY.minusDays(1), expiryDate, null, null)).getId();
+    }
+}
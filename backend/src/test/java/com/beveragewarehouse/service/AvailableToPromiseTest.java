@@ -0,0 +1,142 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.AvailabilityDTO;
+import com.beveragewarehouse.dto.AvailabilityRequestDTO;
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 可承諾量計數器測試
+ * 
+ * 測試目標：
+ * 1. 只計入 NORMAL、未過期的批次
+ * 2. 入庫、出庫、批次用盡後計數器隨提交更新
+ * 3. 可承諾量不足時出庫在交易前被拒絕，資料不變
+ * 4. 未經異動通知寫入的資料在對帳後反映
+ * 
+ * 注意：此測試不使用 @Transactional，計數器只接收已提交的異動
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AvailableToPromiseTest {
+
+    private static final String WAREHOUSE = "MAIN";
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private AvailableToPromise availableToPromise;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        today = LocalDate.now();
+    }
+
+    @Test
+    @DisplayName("只計入 NORMAL 且未過期的批次")
+    void testExcludesQuarantinedAndExpired() {
+        BeverageDTO lot = beverageService.stockIn(new StockInRequestDTO("檸檬茶", 10, today, today.plusDays(30), null, null));
+        int productId = lot.getProductId();
+        saveLot(productId, 7, today.minusDays(1), BeverageStatus.NORMAL);
+        saveLot(productId, 5, today.plusDays(10), BeverageStatus.QUARANTINED);
+        saveLot(productId, 3, today, BeverageStatus.NORMAL);
+
+        assertEquals(13, availableToPromise.available(WAREHOUSE, productId));
+        assertEquals(0, availableToPromise.available("EAST", productId));
+    }
+
+    @Test
+    @DisplayName("入庫與出庫提交後更新計數器")
+    void testCountersFollowCommittedChanges() {
+        BeverageDTO first = beverageService.stockIn(new StockInRequestDTO("檸檬茶", 4, today, today.plusDays(5), null, null));
+        beverageService.stockIn(new StockInRequestDTO("檸檬茶", 6, today, today.plusDays(9), null, null));
+        int productId = first.getProductId();
+        assertEquals(10, availableToPromise.available(WAREHOUSE, productId));
+
+        beverageService.stockOut(new StockOutRequestDTO("檸檬茶", 5, null));
+
+        assertEquals(5, availableToPromise.available(WAREHOUSE, productId));
+        assertTrue(beverageRepository.findById(first.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("可承諾量不足時快速拒絕，庫存不變")
+    void testFastRejection() {
+        BeverageDTO lot = beverageService.stockIn(new StockInRequestDTO("檸檬茶", 4, today, today.plusDays(5), null, null));
+
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOut(new StockOutRequestDTO("檸檬茶", 5, null)));
+
+        assertEquals(4, exception.getAvailable());
+        assertEquals(4, beverageRepository.findById(lot.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("批次查詢多個商品")
+    void testCheckAvailability() {
+        beverageService.stockIn(new StockInRequestDTO("檸檬茶", 4, today, today.plusDays(5), null, null));
+        beverageService.stockIn(new StockInRequestDTO("麥茶", 8, today, today.plusDays(5), "EAST", null));
+
+        List<AvailabilityDTO> results = beverageService.checkAvailability(new AvailabilityRequestDTO(null, List.of(
+                new StockOutRequestDTO("檸檬茶", 4, null),
+                new StockOutRequestDTO("麥茶", 9, "EAST"),
+                new StockOutRequestDTO("沒有這個商品", 1, null))));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isPromisable());
+        assertEquals(8, results.get(1).getAvailable());
+        assertFalse(results.get(1).isPromisable());
+        assertNull(results.get(2).getProductId());
+        assertEquals(0, results.get(2).getAvailable());
+    }
+
+    @Test
+    @DisplayName("對帳：反映未經異動通知寫入的資料")
+    void testReconcile() {
+        BeverageDTO lot = beverageService.stockIn(new StockInRequestDTO("檸檬茶", 4, today, today.plusDays(5), null, null));
+        jdbcTemplate.update("UPDATE beverages SET quantity = 9 WHERE id = ?", lot.getId());
+        assertEquals(4, availableToPromise.available(WAREHOUSE, lot.getProductId()));
+
+        availableToPromise.rebuild();
+
+        assertEquals(9, availableToPromise.available(WAREHOUSE, lot.getProductId()));
+    }
+
+    private void saveLot(int productId, int quantity, LocalDate expiryDate, BeverageStatus status) {
+        Beverage beverage = new Beverage();
+        beverage.setName("檸檬茶");
+        beverage.setProductId(productId);
+        beverage.setQuantity(quantity);
+        beverage.setProductionDate(expiryDate.minusDays(60));
+        beverage.setExpiryDate(expiryDate);
+        beverage.setStatus(status);
+        beverageRepository.save(beverage);
+    }
+}
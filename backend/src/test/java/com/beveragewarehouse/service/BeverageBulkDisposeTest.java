@@ -0,0 +1,124 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BulkDisposeRequestDTO;
+import com.beveragewarehouse.dto.BulkDisposeResultDTO;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量報廢測試
+ * 
+ * 測試目標：
+ * 1. 依 ID 清單報廢，各結果（成功、不存在、狀態不符）分別計數
+ * 2. 依有效期限選取隔離批次報廢
+ * 3. 超過一個分段的批次數量
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BeverageBulkDisposeTest {
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        today = LocalDate.now();
+    }
+
+    @Test
+    @DisplayName("依 ID 清單報廢：各結果分別計數")
+    void testDisposeByIds() {
+        Long quarantined = save(BeverageStatus.QUARANTINED, today.minusDays(3));
+        Long normal = save(BeverageStatus.NORMAL, today.plusDays(3));
+        Long disposed = save(BeverageStatus.DISPOSED, today.minusDays(9));
+
+        BulkDisposeResultDTO result = beverageService.disposeBeverages(new BulkDisposeRequestDTO(
+                List.of(quarantined, normal, disposed, 999_999L, quarantined), null, "包裝破損"));
+
+        assertEquals(4, result.getRequested());
+        assertEquals(1, result.getDisposed());
+        assertEquals(1, result.getNotFound());
+        assertEquals(2, result.getInvalidState());
+
+        Beverage lot = beverageRepository.findById(quarantined).orElseThrow();
+        assertEquals(BeverageStatus.DISPOSED, lot.getStatus());
+        assertEquals("包裝破損", lot.getDisposalReason());
+        assertNotNull(lot.getDisposedAt());
+        assertEquals(BeverageStatus.NORMAL, beverageRepository.findById(normal).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("依有效期限選取隔離批次報廢，未指定原因時使用預設原因")
+    void testDisposeExpiredBefore() {
+        Long old = save(BeverageStatus.QUARANTINED, today.minusDays(10));
+        Long recent = save(BeverageStatus.QUARANTINED, today.minusDays(1));
+
+        BulkDisposeResultDTO result = beverageService.disposeBeverages(
+                new BulkDisposeRequestDTO(null, today.minusDays(5), null));
+
+        assertEquals(1, result.getRequested());
+        assertEquals(1, result.getDisposed());
+        Beverage lot = beverageRepository.findById(old).orElseThrow();
+        assertEquals(BeverageStatus.DISPOSED, lot.getStatus());
+        assertEquals(BeverageService.DEFAULT_DISPOSAL_REASON, lot.getDisposalReason());
+        assertEquals(BeverageStatus.QUARANTINED, beverageRepository.findById(recent).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("超過一個分段的批次全部報廢")
+    void testDisposeAcrossChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            ids.add(save(BeverageStatus.QUARANTINED, today.minusDays(2)));
+        }
+
+        BulkDisposeResultDTO result = beverageService.disposeBeverages(
+                new BulkDisposeRequestDTO(ids, null, "清空隔離區"));
+
+        assertEquals(1200, result.getDisposed());
+        assertEquals(0, beverageRepository.findQuarantinedBeverages().size());
+    }
+
+    @Test
+    @DisplayName("ids 與 expiredBefore 必須擇一")
+    void testSelectionValidation() {
+        assertFalse(new BulkDisposeRequestDTO(null, null, null).isSelectionValid());
+        assertFalse(new BulkDisposeRequestDTO(List.of(1L), today, null).isSelectionValid());
+        assertTrue(new BulkDisposeRequestDTO(List.of(1L), null, null).isSelectionValid());
+    }
+
+    private Long save(BeverageStatus status, LocalDate expiryDate) {
+        Beverage beverage = new Beverage();
+        beverage.setName("報廢測試飲料");
+        beverage.setProductId(productCatalog.resolveId(beverage.getName()));
+        beverage.setQuantity(10);
+        beverage.setProductionDate(expiryDate.minusDays(60));
+        beverage.setExpiryDate(expiryDate);
+        beverage.setStatus(status);
+        return beverageRepository.save(beverage).getId();
+    }
+}
@@ -136,6 +136,23 @@ class BeverageExpiredHandlingTest {
         }, "只能報廢隔離區中的商品");
     }
 
+    @Test
+    @DisplayName("業界標準：報廢未指定原因時為預設原因（與批量報廢一致）")
+    void testDisposeBeverage_NoReason_UsesDefaultReason() {
+        StockInRequestDTO expiredStock = new StockInRequestDTO();
+        expiredStock.setName("礦泉水");
+        expiredStock.setQuantity(100);
+        expiredStock.setProductionDate(LocalDate.now().minusYears(2));
+        expiredStock.setExpiryDate(LocalDate.now().minusDays(1));
+        beverageService.stockIn(expiredStock);
+        beverageService.quarantineExpiredBeverages();
+        Long quarantinedId = beverageService.getQuarantinedBeverages().get(0).getId();
+
+        BeverageDTO disposed = beverageService.disposeBeverage(quarantinedId, null);
+
+        assertEquals(BeverageService.DEFAULT_DISPOSAL_REASON, disposed.getDisposalReason());
+    }
+
     @Test
     @DisplayName("業界標準：過期商品不能正常出庫")
     void testStockOut_ExpiredBeverage_ShouldNotBeAvailable() {
@@ -0,0 +1,155 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.OrderStockOutRequestDTO;
+import com.beveragewarehouse.dto.OrderStockOutResultDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 訂單出庫測試
+ * 
+ * 測試目標：
+ * 1. 多行訂單在同一交易中出庫，相同商品的明細合併
+ * 2. 任何一行庫存不足時整筆回滾
+ * 3. 明細順序互相交錯的訂單同時出庫時不會死結
+ * 
+ * 注意：此測試不使用 @Transactional；關閉死結重試（max-attempts=1）並放寬鎖等待，
+ * 任何死結都會直接造成訂單失敗
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderstockout;LOCK_TIMEOUT=30000",
+        "warehouse.allocation.max-attempts=1"
+})
+@ActiveProfiles("test")
+class BeverageOrderStockOutTest {
+
+    private static final List<String> PRODUCTS = List.of("可樂", "礦泉水", "綠茶", "咖啡", "果汁");
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("多行訂單整筆出庫，相同商品明細合併")
+    void testOrderStockOut_AllLines() {
+        stockIn("可樂", 20, 10);
+        stockIn("可樂", 20, 20);
+        stockIn("礦泉水", 10, 10);
+
+        OrderStockOutResultDTO result = beverageService.stockOutOrder(order(
+                line("礦泉水", 4), line("可樂", 15), line("可樂", 10)));
+
+        assertEquals(2, result.getLineCount());
+        assertEquals(29, result.getTotalQuantity());
+        assertEquals(15, quantityOf("可樂"));
+        assertEquals(6, quantityOf("礦泉水"));
+    }
+
+    @Test
+    @DisplayName("任何一行庫存不足時整筆回滾")
+    void testOrderStockOut_RollsBackWhenAnyLineInsufficient() {
+        stockIn("可樂", 20, 10);
+        stockIn("礦泉水", 5, 10);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOutOrder(order(line("可樂", 20), line("礦泉水", 6))));
+
+        assertEquals("礦泉水", e.getName());
+        assertEquals(20, quantityOf("可樂"));
+        assertEquals(5, quantityOf("礦泉水"));
+    }
+
+    @Test
+    @DisplayName("壓力測試：明細順序交錯的訂單同時出庫，不會死結")
+    void testOverlappingOrders_NoDeadlock() throws Exception {
+        int threads = 8;
+        int ordersPerThread = 20;
+        for (String product : PRODUCTS) {
+            stockIn(product, 100, 10);
+            stockIn(product, 100, 20);
+        }
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        // 每筆訂單隨機挑 3 個商品，明細順序也隨機
+                        List<String> products = new ArrayList<>(PRODUCTS);
+                        Collections.shuffle(products, random);
+                        beverageService.stockOutOrder(order(
+                                line(products.get(0), 1), line(products.get(1), 1), line(products.get(2), 1)));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(120, TimeUnit.SECONDS));
+
+        assertTrue(failures.isEmpty(), () -> "訂單失敗: " + failures.peek());
+        int expectedRemaining = PRODUCTS.size() * 200 - threads * ordersPerThread * 3;
+        assertEquals(expectedRemaining, beverageRepository.findAll().stream().mapToInt(Beverage::getQuantity).sum());
+    }
+
+    private int quantityOf(String name) {
+        return beverageRepository.findByName(name).stream().mapToInt(Beverage::getQuantity).sum();
+    }
+
+    private void stockIn(String name, int quantity, int daysToExpiry) {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName(name);
+        request.setQuantity(quantity);
+        request.setProductionDate(LocalDate.now());
+        request.setExpiryDate(LocalDate.now().plusDays(daysToExpiry));
+        beverageService.stockIn(request);
+    }
+
+    private static StockOutRequestDTO line(String name, int quantity) {
+        StockOutRequestDTO line = new StockOutRequestDTO();
+        line.setName(name);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private static OrderStockOutRequestDTO order(StockOutRequestDTO... lines) {
+        OrderStockOutRequestDTO order = new OrderStockOutRequestDTO();
+        order.setLines(List.of(lines));
+        return order;
+    }
+}
@@ -0,0 +1,212 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.BeverageRequestDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 陳述式預算測試（N+1 防護）
+ * 
+ * 測試目標：
+ * 1. 每個服務方法送出的 SQL 陳述式數量不超過預算
+ * 2. 陳述式數量不隨資料筆數成長（避免逐筆查詢或逐筆更新）
+ * 
+ * 新增逐筆查詢的修改會讓這些測試失敗，效能退化直接在建置時被發現
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BeverageServiceStatementBudgetTest {
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SqlStatementCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        counter = new SqlStatementCounter(entityManagerFactory, entityManager);
+    }
+
+    @Test
+    @DisplayName("預算：出庫跨 10 個批次 ≤ 4 個陳述式")
+    void testStockOut_AcrossTenLots_WithinBudget() {
+        for (int i = 0; i < 10; i++) {
+            stockIn(10, LocalDate.now().plusDays(30 + i));
+        }
+
+        counter.reset();
+        beverageService.stockOut(stockOut(95));
+
+        assertTrue(counter.statements() <= 4, "出庫跨 10 個批次的陳述式數量: " + counter.statements());
+        assertEquals(5, totalQuantity());
+    }
+
+    @Test
+    @DisplayName("預算：單一批次部分出庫 ≤ 2 個陳述式")
+    void testStockOut_SingleLot_WithinBudget() {
+        stockIn(50, LocalDate.now().plusDays(30));
+
+        counter.reset();
+        beverageService.stockOut(stockOut(20));
+
+        assertTrue(counter.statements() <= 2, "單一批次出庫的陳述式數量: " + counter.statements());
+    }
+
+    @Test
+    @DisplayName("預算：最少剩餘天數的出庫與一般出庫相同，且不載入短效批次")
+    void testStockOut_MinRemainingDays_SeeksPastShortDatedLots() {
+        for (int i = 0; i < 20; i++) {
+            stockIn(10, LocalDate.now().plusDays(1 + i));
+        }
+        stockIn(50, LocalDate.now().plusDays(90));
+
+        counter.reset();
+        beverageService.stockOut(new StockOutRequestDTO("礦泉水", 20, null, 60));
+
+        assertTrue(counter.statements() <= 2, "最少剩餘天數出庫的陳述式數量: " + counter.statements());
+        assertEquals(1, counter.entityLoads(), "短效批次不應被載入後再過濾");
+    }
+
+    @Test
+    @DisplayName("預算：入庫 = 1 個陳述式")
+    void testStockIn_WithinBudget() {
+        counter.reset();
+        stockIn(50, LocalDate.now().plusDays(30));
+
+        assertEquals(1, counter.statements());
+    }
+
+    @Test
+    @DisplayName("預算：庫存統計的陳述式數量不隨資料筆數成長，且不載入實體")
+    void testGetStatistics_ConstantInTableSize() {
+        for (int i = 0; i < 5; i++) {
+            stockIn(10, LocalDate.now().plusDays(i));
+        }
+        counter.reset();
+        beverageService.getStatistics();
+        long smallTable = counter.statements();
+
+        for (int i = 0; i < 50; i++) {
+            stockIn(10, LocalDate.now().plusDays(i));
+        }
+        counter.reset();
+        beverageService.getStatistics();
+        long largeTable = counter.statements();
+
+        assertEquals(1, smallTable);
+        assertEquals(smallTable, largeTable, "庫存統計的陳述式數量不應隨資料筆數成長");
+        assertEquals(0, counter.entityLoads(), "庫存統計不應載入實體");
+    }
+
+    @Test
+    @DisplayName("預算：查詢清單 = 1 個陳述式（不隨筆數成長）")
+    void testListQueries_SingleStatement() {
+        for (int i = 0; i < 20; i++) {
+            stockIn(10, LocalDate.now().plusDays(i - 10));
+        }
+
+        counter.reset();
+        beverageService.getAllBeverages();
+        assertEquals(1, counter.statements());
+
+        counter.reset();
+        beverageService.getExpiredBeverages();
+        assertEquals(1, counter.statements());
+
+        counter.reset();
+        beverageService.getExpiringSoonBeverages();
+        assertEquals(1, counter.statements());
+    }
+
+    @Test
+    @DisplayName("預算：隔離 20 個過期批次 ≤ 3 個陳述式")
+    void testQuarantineExpired_WithinBudget() {
+        for (int i = 0; i < 20; i++) {
+            stockIn(10, LocalDate.now().minusDays(i + 1));
+        }
+
+        counter.reset();
+        int quarantined = beverageService.quarantineExpiredBeverages();
+
+        assertEquals(20, quarantined);
+        assertTrue(counter.statements() <= 3, "批量隔離的陳述式數量: " + counter.statements());
+    }
+
+    @Test
+    @DisplayName("預算：單筆查詢、更新、報廢、刪除")
+    void testSingleLotOperations_WithinBudget() {
+        BeverageDTO lot = stockIn(10, LocalDate.now().minusDays(1));
+        beverageService.quarantineExpiredBeverages();
+
+        counter.reset();
+        beverageService.getBeverageById(lot.getId());
+        assertEquals(1, counter.statements());
+
+        counter.reset();
+        beverageService.disposeBeverage(lot.getId(), "過期報廢");
+        assertTrue(counter.statements() <= 2, "報廢的陳述式數量: " + counter.statements());
+
+        BeverageDTO other = stockIn(10, LocalDate.now().plusDays(30));
+        BeverageRequestDTO update = new BeverageRequestDTO();
+        update.setName("礦泉水");
+        update.setQuantity(20);
+        update.setProductionDate(LocalDate.now());
+        update.setExpiryDate(LocalDate.now().plusDays(60));
+
+        counter.reset();
+        beverageService.updateBeverage(other.getId(), update);
+        assertTrue(counter.statements() <= 2, "更新的陳述式數量: " + counter.statements());
+
+        counter.reset();
+        beverageService.deleteBeverage(other.getId());
+        assertTrue(counter.statements() <= 3, "刪除的陳述式數量: " + counter.statements());
+    }
+
+    private BeverageDTO stockIn(int quantity, LocalDate expiryDate) {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(quantity);
+        request.setProductionDate(LocalDate.now().minusYears(1));
+        request.setExpiryDate(expiryDate);
+        return beverageService.stockIn(request);
+    }
+
+    private StockOutRequestDTO stockOut(int quantity) {
+        StockOutRequestDTO request = new StockOutRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    private int totalQuantity() {
+        return beverageRepository.findByName("礦泉水").stream()
+                .mapToInt(b -> b.getQuantity())
+                .sum();
+    }
+}
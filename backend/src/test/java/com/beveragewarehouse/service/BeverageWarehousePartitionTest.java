@@ -0,0 +1,116 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多倉庫（站點）分區測試
+ * 
+ * 測試目標：
+ * 1. 出庫只在指定倉庫內配貨，不會動到其他倉庫的批次
+ * 2. 未指定倉庫時使用預設倉庫 MAIN
+ * 3. 庫存統計可以按倉庫區分
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BeverageWarehousePartitionTest {
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        stockIn("TPE", 80, LocalDate.now().plusDays(30));
+        stockIn("KHH", 60, LocalDate.now().plusDays(10));
+    }
+
+    @Test
+    @DisplayName("出庫只扣減指定倉庫的庫存")
+    void testStockOut_OnlyAllocatesWithinRequestedWarehouse() {
+        StockOutRequestDTO request = new StockOutRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(30);
+        request.setWarehouse("TPE");
+
+        beverageService.stockOut(request);
+
+        assertEquals(50, totalQuantity("TPE"));
+        assertEquals(60, totalQuantity("KHH"), "其他倉庫的庫存不應被扣減");
+    }
+
+    @Test
+    @DisplayName("指定倉庫庫存不足時，不會從其他倉庫調貨")
+    void testStockOut_InsufficientInWarehouse_ShouldFail() {
+        StockOutRequestDTO request = new StockOutRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(100);
+        request.setWarehouse("KHH");
+
+        assertThrows(RuntimeException.class, () -> beverageService.stockOut(request));
+    }
+
+    @Test
+    @DisplayName("未指定倉庫時使用預設倉庫")
+    void testStockIn_WithoutWarehouse_UsesDefault() {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(10);
+        request.setProductionDate(LocalDate.now());
+        request.setExpiryDate(LocalDate.now().plusDays(60));
+
+        var result = beverageService.stockIn(request);
+
+        assertEquals(Beverage.DEFAULT_WAREHOUSE, result.getWarehouse());
+    }
+
+    @Test
+    @DisplayName("庫存統計可以按倉庫查詢")
+    void testStatistics_PerWarehouse() {
+        var tpe = beverageService.getStatistics("TPE");
+        assertEquals("TPE", tpe.getWarehouse());
+        assertEquals(1, tpe.getTotalItems());
+        assertEquals(80, tpe.getTotalQuantity());
+
+        var khh = beverageService.getStatistics("KHH");
+        assertEquals(60, khh.getTotalQuantity());
+        assertEquals(0, khh.getExpiringSoonQuantity());
+
+        assertEquals(2, beverageService.getStatisticsByWarehouse().size());
+        assertEquals(140, beverageService.getStatistics().getTotalQuantity());
+        assertEquals(0, beverageService.getStatistics("UNKNOWN").getTotalItems());
+    }
+
+    private void stockIn(String warehouse, int quantity, LocalDate expiryDate) {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(quantity);
+        request.setProductionDate(LocalDate.now().minusDays(1));
+        request.setExpiryDate(expiryDate);
+        request.setWarehouse(warehouse);
+        beverageService.stockIn(request);
+    }
+
+    private int totalQuantity(String warehouse) {
+        return beverageRepository.findByWarehouse(warehouse).stream()
+                .mapToInt(Beverage::getQuantity)
+                .sum();
+    }
+}
@@ -0,0 +1,104 @@
+package com.beveragewarehouse.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 壓縮點陣圖測試
+ * 
+ * 測試目標：
+ * 1. 新增、移除、查詢在陣列容器與點陣容器之間轉換時保持正確
+ * 2. and / or 與 BitSet 的結果一致，且不修改輸入
+ * 3. 走訪依遞增順序，跨越多個區塊
+ */
+class CompressedBitmapTest {
+
+    @Test
+    @DisplayName("超過 4096 個值轉為點陣容器，移除後轉回陣列容器")
+    void testContainerConversion() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 4096; i++) {
+            bitmap.add(i * 2);
+        }
+        assertEquals(4096 * 2 + 2, bitmap.sizeInBytes());
+        for (int i = 4096; i < 5000; i++) {
+            bitmap.add(i * 2);
+        }
+        assertEquals(1024 * 8 + 2, bitmap.sizeInBytes());
+        assertEquals(5000, bitmap.cardinality());
+        assertTrue(bitmap.contains(9998));
+        assertFalse(bitmap.contains(9999));
+
+        for (int i = 0; i < 4000; i++) {
+            bitmap.remove(i * 2);
+        }
+        assertEquals(1000, bitmap.cardinality());
+        assertFalse(bitmap.contains(0));
+        assertTrue(bitmap.contains(8000));
+
+        for (int i = 4000; i < 5000; i++) {
+            bitmap.remove(i * 2);
+        }
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    @DisplayName("and / or 與 BitSet 結果一致，且不修改輸入")
+    void testAndOrMatchBitSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            // 混合稀疏與密集的區塊
+            int bound = round % 2 == 0 ? 70_000 : 300_000;
+            int count = random.nextInt(20_000);
+            CompressedBitmap left = new CompressedBitmap();
+            CompressedBitmap right = new CompressedBitmap();
+            BitSet leftBits = new BitSet();
+            BitSet rightBits = new BitSet();
+            for (int i = 0; i < count; i++) {
+                int a = random.nextInt(bound);
+                int b = random.nextInt(bound);
+                left.add(a);
+                leftBits.set(a);
+                right.add(b);
+                rightBits.set(b);
+            }
+
+            BitSet and = (BitSet) leftBits.clone();
+            and.and(rightBits);
+            BitSet or = (BitSet) leftBits.clone();
+            or.or(rightBits);
+
+            assertEquals(values(and), values(left.and(right)));
+            assertEquals(values(or), values(left.or(right)));
+            assertEquals(values(leftBits), values(left));
+            assertEquals(values(rightBits), values(right));
+        }
+    }
+
+    @Test
+    @DisplayName("走訪依遞增順序，跨越多個區塊")
+    void testForEachOrder() {
+        CompressedBitmap bitmap = CompressedBitmap.of(1 << 20, 5, 65_536, 65_535, 0);
+
+        assertEquals(List.of(0, 5, 65_535, 65_536, 1 << 20), values(bitmap));
+        assertEquals(bitmap, CompressedBitmap.orAll(List.of(CompressedBitmap.of(0, 5), CompressedBitmap.of(65_535),
+                CompressedBitmap.of(65_536, 1 << 20))));
+    }
+
+    private static List<Integer> values(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    private static List<Integer> values(BitSet bits) {
+        return bits.stream().boxed().toList();
+    }
+}
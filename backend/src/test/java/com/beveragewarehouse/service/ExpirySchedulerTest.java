@@ -0,0 +1,159 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.BeverageRequestDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 過期排程測試
+ * 
+ * 測試目標：
+ * 1. 入庫、更新後索引對應的過期邊界
+ * 2. 到達邊界時只隔離剛好過期的批次
+ * 3. 重新載入（模擬重啟）後立即隔離停機期間過期的批次
+ * 4. 隔離失敗後批次留在索引，期間的異動不會取消重試
+ * 
+ * 注意：此測試不使用 @Transactional，索引只接收已提交的異動
+ */
+@SpringBootTest(properties = {
+        "warehouse.expiry.scheduler-enabled=true",
+        "warehouse.expiry.retry-delay-ms=200"
+})
+@ActiveProfiles("test")
+class ExpirySchedulerTest {
+
+    @Autowired
+    private ExpiryScheduler expiryScheduler;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        expiryScheduler.rebuild();
+        today = LocalDate.now();
+    }
+
+    @Test
+    @DisplayName("到達邊界時只隔離剛好過期的批次")
+    void testQuarantineAtBoundary() {
+        BeverageDTO expiresToday = stockIn(today);
+        BeverageDTO expiresTomorrow = stockIn(today.plusDays(1));
+
+        assertEquals(today, expiryScheduler.nextExpiry());
+        assertEquals(0, expiryScheduler.runDue(today));
+
+        // 模擬隔天 00:00 的喚醒
+        assertEquals(1, expiryScheduler.runDue(today.plusDays(1)));
+        assertEquals(BeverageStatus.QUARANTINED, statusOf(expiresToday.getId()));
+        assertEquals(today.plusDays(1), expiryScheduler.nextExpiry());
+        assertEquals(BeverageStatus.NORMAL, statusOf(expiresTomorrow.getId()));
+    }
+
+    @Test
+    @DisplayName("更新有效期限後邊界隨之移動")
+    void testUpdateMovesBoundary() {
+        BeverageDTO lot = stockIn(today.plusDays(3));
+        assertEquals(today.plusDays(3), expiryScheduler.nextExpiry());
+
+        beverageService.updateBeverage(lot.getId(),
+                new BeverageRequestDTO(lot.getName(), lot.getQuantity(), lot.getProductionDate(), today.plusDays(10), null, null));
+
+        assertEquals(today.plusDays(10), expiryScheduler.nextExpiry());
+    }
+
+    @Test
+    @DisplayName("重新載入後立即隔離已過期的批次")
+    void testCatchUpAfterRestart() throws InterruptedException {
+        Long id = saveExpiredLot();
+
+        expiryScheduler.rebuild();
+
+        assertEquals(BeverageStatus.QUARANTINED, awaitStatus(id, BeverageStatus.QUARANTINED));
+        assertNull(expiryScheduler.nextExpiry());
+    }
+
+    @Test
+    @DisplayName("隔離失敗後的異動不會取消重試")
+    void testRetryAfterQuarantineFailure() throws InterruptedException {
+        // 模擬資料庫暫時無法隔離：約束存在期間每次隔離（與重試）都失敗
+        // 先加上約束：儲存批次的異動通知就會讓排程立即嘗試隔離
+        jdbcTemplate.execute("ALTER TABLE beverages ADD CONSTRAINT expiry_test_no_quarantine CHECK (status <> 'QUARANTINED')");
+        Long id;
+        try {
+            id = saveExpiredLot();
+            Thread.sleep(300);
+            assertEquals(BeverageStatus.NORMAL, statusOf(id));
+
+            // 等待重試期間的異動
+            stockIn(today.plusDays(5));
+            Thread.sleep(300);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE beverages DROP CONSTRAINT expiry_test_no_quarantine");
+        }
+
+        assertEquals(BeverageStatus.QUARANTINED, awaitStatus(id, BeverageStatus.QUARANTINED));
+        assertEquals(today.plusDays(5), expiryScheduler.nextExpiry());
+    }
+
+    @Test
+    @DisplayName("出庫用盡的批次從索引移除")
+    void testConsumedLotRemoved() {
+        stockIn(today.plusDays(2));
+        beverageRepository.deleteAll();
+
+        assertNull(expiryScheduler.nextExpiry());
+    }
+
+    private BeverageDTO stockIn(LocalDate expiryDate) {
+        return beverageService.stockIn(new StockInRequestDTO("排程測試飲料", 5, today.minusDays(30), expiryDate, null, null));
+    }
+
+    private Long saveExpiredLot() {
+        Beverage expired = new Beverage();
+        expired.setName("過期可樂");
+        expired.setProductId(productCatalog.resolveId(expired.getName()));
+        expired.setQuantity(5);
+        expired.setProductionDate(today.minusDays(60));
+        expired.setExpiryDate(today.minusDays(2));
+        return beverageRepository.save(expired).getId();
+    }
+
+    private BeverageStatus awaitStatus(Long id, BeverageStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (statusOf(id) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return statusOf(id);
+    }
+
+    private BeverageStatus statusOf(Long id) {
+        return beverageRepository.findById(id).orElseThrow().getStatus();
+    }
+}
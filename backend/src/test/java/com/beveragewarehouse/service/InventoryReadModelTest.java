@@ -0,0 +1,131 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 讀取模型（CQRS）測試
+ * 
+ * 測試目標：
+ * 1. 已提交的異動會反映在讀取模型
+ * 2. 回滾的交易不會出現在讀取模型
+ * 3. 寫入執行緒可以立即讀到自己的寫入（read-your-writes），重建進行中也不會被阻塞
+ * 
+ * 注意：此測試不使用 @Transactional，讀取模型只接收已提交的異動
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryReadModelTest {
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private InventoryReadModel readModel;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        readModel.rebuild();
+    }
+
+    @Test
+    @DisplayName("寫入執行緒可以立即讀到自己提交的入庫")
+    void testReadYourWrites_OnWritingThread() {
+        var created = beverageService.stockIn(stockIn(40));
+
+        var lot = readModel.getBeverageById(created.getId());
+        assertTrue(lot.isPresent());
+        assertEquals(40, lot.get().getQuantity());
+        assertEquals(40, readModel.getStatistics().getTotalQuantity());
+    }
+
+    @Test
+    @DisplayName("重建進行中時，寫入執行緒讀到自己的寫入且不被阻塞")
+    void testReadYourWrites_DuringRebuild() throws Exception {
+        CountDownLatch begun = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Void> rebuilding = CompletableFuture.runAsync(() -> {
+            readModel.beginRebuild();
+            begun.countDown();
+            try {
+                finish.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            readModel.abortRebuild();
+        });
+        assertTrue(begun.await(5, TimeUnit.SECONDS));
+        try {
+            var created = beverageService.stockIn(stockIn(40));
+
+            assertTimeout(Duration.ofSeconds(2), () -> {
+                assertEquals(40, readModel.getBeverageById(created.getId()).orElseThrow().getQuantity());
+                assertEquals(40, readModel.getStatistics().getTotalQuantity());
+            });
+        } finally {
+            finish.countDown();
+            rebuilding.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("出庫異動套用後，其他執行緒讀到新的快照")
+    void testStockOut_VisibleToOtherThreadsAfterApply() throws Exception {
+        var created = beverageService.stockIn(stockIn(40));
+
+        StockOutRequestDTO stockOut = new StockOutRequestDTO();
+        stockOut.setName("礦泉水");
+        stockOut.setQuantity(15);
+        beverageService.stockOut(stockOut);
+
+        readModel.applyPending();
+        int quantity = CompletableFuture.supplyAsync(() ->
+                readModel.getBeverageById(created.getId()).orElseThrow().getQuantity()).get();
+        assertEquals(25, quantity);
+        assertEquals(0, readModel.stalenessMillis());
+    }
+
+    @Test
+    @DisplayName("回滾的交易不會出現在讀取模型")
+    void testRolledBackTransaction_NotVisible() {
+        transactionTemplate.executeWithoutResult(status -> {
+            beverageService.stockIn(stockIn(30));
+            status.setRollbackOnly();
+        });
+
+        readModel.applyPending();
+        assertTrue(readModel.getAllBeverages().isEmpty());
+    }
+
+    private StockInRequestDTO stockIn(int quantity) {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName("礦泉水");
+        request.setQuantity(quantity);
+        request.setProductionDate(LocalDate.now());
+        request.setExpiryDate(LocalDate.now().plusDays(90));
+        return request;
+    }
+}
@@ -0,0 +1,182 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.model.AllocationPolicy;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SKIP LOCKED 配貨測試
+ * 
+ * 測試目標：
+ * 1. 同商品的兩筆出庫可以同時扣減不同批次
+ * 2. 被鎖定的批次若依 FEFO 必須先出（視窗外沒有替代批次），則等待而不是跳過
+ * 3. 庫存不足時仍正確拒絕
+ * 4. 非 FEFO 策略（FIFO）同樣逐批鎖定，不鎖定商品的所有批次
+ * 
+ * 注意：此測試不使用 @Transactional，需要兩個獨立交易同時持有鎖
+ */
+@SpringBootTest(properties = {
+        "warehouse.allocation.lock-mode=SKIP_LOCKED",
+        "warehouse.allocation.lock-timeout-ms=5000",
+        "warehouse.allocation.fefo-window-days=0"
+})
+@ActiveProfiles("test")
+class LotAllocatorSkipLockedTest {
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("同商品兩筆出庫並行扣減不同批次")
+    void testConcurrentStockOuts_UseDifferentLots() throws Exception {
+        BeverageDTO first = stockIn(10, 10);
+        BeverageDTO second = stockIn(10, 10);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdStockOut(5, locked, release);
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        // 第一筆出庫仍持有第一個批次的鎖，第二筆出庫不需等待
+        BeverageDTO result = CompletableFuture.supplyAsync(() -> beverageService.stockOut(stockOut(5)))
+                .get(3, TimeUnit.SECONDS);
+        assertEquals(second.getId(), result.getId());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(5, quantityOf(first.getId()));
+        assertEquals(5, quantityOf(second.getId()));
+    }
+
+    @Test
+    @DisplayName("FEFO 必須先出的批次被鎖定時等待，不跳到較晚到期的批次")
+    void testLockedEarliestLot_OutsideWindow_Waits() throws Exception {
+        BeverageDTO earliest = stockIn(10, 10);
+        BeverageDTO later = stockIn(10, 20);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdStockOut(5, locked, release);
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<BeverageDTO> waiting =
+                CompletableFuture.supplyAsync(() -> beverageService.stockOut(stockOut(5)));
+        assertThrows(TimeoutException.class, () -> waiting.get(500, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertFalse(beverageRepository.existsById(earliest.getId()));
+        assertEquals(10, quantityOf(later.getId()));
+    }
+
+    @Test
+    @DisplayName("FIFO 出庫跳過其他交易鎖定的最早入庫批次，不等待")
+    void testConcurrentFifoStockOuts_UseDifferentLots() throws Exception {
+        BeverageDTO older = stockIn(10, 20);
+        BeverageDTO newer = stockIn(10, 10);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdStockOut(stockOut(5, AllocationPolicy.FIFO), locked, release);
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        // 較晚入庫的批次較早到期，在 FEFO 視窗內，不需要等待最早入庫的批次
+        BeverageDTO result = CompletableFuture
+                .supplyAsync(() -> beverageService.stockOut(stockOut(5, AllocationPolicy.FIFO)))
+                .get(3, TimeUnit.SECONDS);
+        assertEquals(newer.getId(), result.getId());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(5, quantityOf(older.getId()));
+        assertEquals(5, quantityOf(newer.getId()));
+    }
+
+    @Test
+    @DisplayName("庫存不足時拒絕並回報可用數量")
+    void testInsufficientStock() {
+        stockIn(4, 10);
+        stockIn(6, 20);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOut(stockOut(15)));
+        assertEquals(10, e.getAvailable());
+        assertEquals(10, beverageRepository.findAll().stream().mapToInt(Beverage::getQuantity).sum());
+    }
+
+    /**
+     * 在獨立交易中出庫，持有鎖直到 release
+     */
+    private CompletableFuture<Void> holdStockOut(int quantity, CountDownLatch locked, CountDownLatch release) {
+        return holdStockOut(stockOut(quantity), locked, release);
+    }
+
+    private CompletableFuture<Void> holdStockOut(StockOutRequestDTO request, CountDownLatch locked,
+                                                 CountDownLatch release) {
+        return CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            beverageService.stockOut(request);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    private int quantityOf(Long id) {
+        return beverageRepository.findById(id).orElseThrow().getQuantity();
+    }
+
+    private BeverageDTO stockIn(int quantity, int daysToExpiry) {
+        StockInRequestDTO request = new StockInRequestDTO();
+        request.setName("可樂");
+        request.setQuantity(quantity);
+        request.setProductionDate(LocalDate.now());
+        request.setExpiryDate(LocalDate.now().plusDays(daysToExpiry));
+        return beverageService.stockIn(request);
+    }
+
+    private StockOutRequestDTO stockOut(int quantity) {
+        return stockOut(quantity, null);
+    }
+
+    private StockOutRequestDTO stockOut(int quantity, AllocationPolicy strategy) {
+        StockOutRequestDTO request = new StockOutRequestDTO();
+        request.setName("可樂");
+        request.setQuantity(quantity);
+        request.setStrategy(strategy);
+        return request;
+    }
+}
@@ -0,0 +1,159 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.LotCriteriaDTO;
+import com.beveragewarehouse.dto.LotFilterRequestDTO;
+import com.beveragewarehouse.dto.LotFilterResultDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批次多條件篩選測試
+ * 
+ * 測試目標：
+ * 1. 組內條件取交集（名稱、狀態、過期日、生產日、數量、倉庫）
+ * 2. 組與組之間取聯集，未指定條件的組符合所有批次
+ * 3. 出庫、刪除後索引立即更新
+ * 4. 定期對帳反映未經異動通知寫入的資料
+ * 
+ * 注意：此測試不使用 @Transactional，索引只接收已提交的異動
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LotFilterIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private LotFilterIndex lotFilterIndex;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("已隔離、商品 A 或 B、過期日區間內、生產日早於指定日期")
+    void testQuarantinedProductsInExpiryWindow() {
+        Long a1 = stockIn("篩選綠茶", 5, TODAY.minusDays(20), TODAY.plusDays(3), "MAIN");
+        Long b1 = stockIn("篩選紅茶", 6, TODAY.minusDays(15), TODAY.plusDays(5), "MAIN");
+        Long a2 = stockIn("篩選綠茶", 7, TODAY.minusDays(2), TODAY.plusDays(4), "MAIN");   // 生產日太晚
+        Long c1 = stockIn("篩選奶茶", 8, TODAY.minusDays(20), TODAY.plusDays(3), "MAIN");  // 其他商品
+        Long b2 = stockIn("篩選紅茶", 9, TODAY.minusDays(20), TODAY.plusDays(20), "MAIN"); // 不會被隔離
+        beverageService.quarantineLots(List.of(a1, b1, a2, c1, b2), TODAY.plusDays(10));
+
+        LotCriteriaDTO criteria = new LotCriteriaDTO();
+        criteria.setNames(List.of("篩選綠茶", "篩選紅茶"));
+        criteria.setStatuses(List.of(BeverageStatus.QUARANTINED));
+        criteria.setExpiryFrom(TODAY.plusDays(1));
+        criteria.setExpiryTo(TODAY.plusDays(5));
+        criteria.setProductionTo(TODAY.minusDays(10));
+
+        LotFilterResultDTO result = filter(criteria);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(a1, b1), ids(result));
+        assertEquals(BeverageStatus.QUARANTINED, result.getLots().get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("組與組之間取聯集，數量與倉庫條件")
+    void testAnyOfGroups() {
+        Long small = stockIn("篩選果汁", 2, TODAY, TODAY.plusDays(30), "MAIN");
+        Long large = stockIn("篩選果汁", 50, TODAY.minusDays(1), TODAY.plusDays(31), "MAIN");
+        Long east = stockIn("篩選汽水", 10, TODAY, TODAY.plusDays(30), "EAST");
+
+        LotCriteriaDTO largeLots = new LotCriteriaDTO();
+        largeLots.setMinQuantity(20);
+        LotCriteriaDTO eastLots = new LotCriteriaDTO();
+        eastLots.setWarehouses(List.of(" EAST "));
+
+        assertEquals(List.of(large, east), ids(filter(largeLots, eastLots)));
+        assertEquals(List.of(small, large, east), ids(filter(new LotCriteriaDTO())));
+    }
+
+    @Test
+    @DisplayName("出庫與刪除後索引立即更新")
+    void testIndexFollowsChanges() {
+        Long first = stockIn("篩選礦泉水", 10, TODAY, TODAY.plusDays(30), "MAIN");
+        Long second = stockIn("篩選礦泉水", 10, TODAY.minusDays(1), TODAY.plusDays(31), "MAIN");
+
+        LotCriteriaDTO tenOrMore = new LotCriteriaDTO();
+        tenOrMore.setNames(List.of("篩選礦泉水"));
+        tenOrMore.setMinQuantity(10);
+        assertEquals(List.of(first, second), ids(filter(tenOrMore)));
+
+        beverageService.stockOut(new StockOutRequestDTO("篩選礦泉水", 4, "MAIN"));
+        assertEquals(List.of(second), ids(filter(tenOrMore)));
+
+        beverageService.deleteBeverage(second);
+        assertEquals(0, filter(tenOrMore).getTotal());
+    }
+
+    @Test
+    @DisplayName("對帳：反映未經異動通知寫入的資料")
+    void testReconcile() {
+        Long lot = stockIn("篩選烏龍茶", 10, TODAY, TODAY.plusDays(30), "MAIN");
+        jdbcTemplate.update("UPDATE beverages SET quantity = 3 WHERE id = ?", lot);
+
+        LotCriteriaDTO tenOrMore = new LotCriteriaDTO();
+        tenOrMore.setNames(List.of("篩選烏龍茶"));
+        tenOrMore.setMinQuantity(10);
+        assertEquals(List.of(lot), ids(filter(tenOrMore)));
+
+        lotFilterIndex.reconcile();
+
+        assertEquals(0, filter(tenOrMore).getTotal());
+    }
+
+    @Test
+    @DisplayName("不存在的商品與顛倒的範圍沒有結果")
+    void testNoMatch() {
+        stockIn("篩選可樂", 3, TODAY, TODAY.plusDays(30), "MAIN");
+
+        LotCriteriaDTO unknown = new LotCriteriaDTO();
+        unknown.setNames(List.of("不存在的商品"));
+        LotCriteriaDTO inverted = new LotCriteriaDTO();
+        inverted.setExpiryFrom(TODAY.plusDays(10));
+        inverted.setExpiryTo(TODAY);
+
+        assertEquals(0, filter(unknown).getTotal());
+        assertEquals(0, filter(inverted).getTotal());
+    }
+
+    private LotFilterResultDTO filter(LotCriteriaDTO... anyOf) {
+        return lotFilterIndex.filter(new LotFilterRequestDTO(List.of(anyOf), 100));
+    }
+
+    private static List<Long> ids(LotFilterResultDTO result) {
+        return result.getLots().stream().map(BeverageDTO::getId).toList();
+    }
+
+    private Long stockIn(String name, int quantity, LocalDate productionDate, LocalDate expiryDate, String warehouse) {
+        return beverageService.stockIn(
+                new StockInRequestDTO(name, quantity, productionDate, expiryDate, warehouse, null)).getId();
+    }
+}
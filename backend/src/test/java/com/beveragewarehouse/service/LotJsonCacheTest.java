@@ -0,0 +1,141 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.config.BinaryEncodingConfig;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 批次 JSON 片段快取測試
+ * 
+ * 測試目標：
+ * 1. 串接片段的列表回應與 Jackson 直接序列化 DTO 列表的結果相同，CBOR 回應不受影響
+ * 2. 未變動的批次命中快取，出庫後變動的批次重新編碼
+ * 3. 跨日後計算欄位依新的日期編碼，跨日前開始的回應不寫入快取
+ * 
+ * 注意：此測試不使用 @Transactional，快取與讀取模型只接收已提交的異動
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LotJsonCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private InventoryReadModel readModel;
+
+    @Autowired
+    private LotJsonCache lotJsonCache;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        readModel.rebuild();
+        lotJsonCache.rebuild();
+    }
+
+    @Test
+    @DisplayName("列表回應與直接序列化 DTO 相同，CBOR 不受影響")
+    void testMatchesJacksonOutput() throws Exception {
+        stockIn("快取礦泉水", 10, TODAY.plusDays(3));
+        stockIn("快取綠茶", 20, TODAY.plusDays(30));
+
+        String body = mockMvc.perform(get("/api/beverages"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        // 一般的 List 由 Jackson 逐一序列化 DTO
+        String expected = objectMapper.writeValueAsString(new ArrayList<>(readModel.getAllBeverages()));
+        assertEquals(objectMapper.readTree(expected), objectMapper.readTree(body));
+
+        byte[] cborBody = mockMvc.perform(get("/api/beverages").accept(BinaryEncodingConfig.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode lots = BinaryEncodingConfig.cborObjectMapper().readTree(cborBody);
+        assertEquals(2, lots.size());
+        assertEquals(TODAY.plusDays(3).toEpochDay(), lots.get(0).get("expiryDate").asLong());
+    }
+
+    @Test
+    @DisplayName("未變動的批次命中快取，變動的批次重新編碼")
+    void testReencodesChangedLots() throws Exception {
+        stockIn("快取果汁", 10, TODAY.plusDays(5));
+        stockIn("快取汽水", 10, TODAY.plusDays(5));
+        mockMvc.perform(get("/api/beverages")).andExpect(status().isOk());
+        long misses = lotJsonCache.missCount();
+        long hits = lotJsonCache.hitCount();
+
+        beverageService.stockOut(new StockOutRequestDTO("快取果汁", 4, null));
+        String body = mockMvc.perform(get("/api/beverages"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(misses + 1, lotJsonCache.missCount());
+        assertEquals(hits + 1, lotJsonCache.hitCount());
+        JsonNode lots = objectMapper.readTree(body);
+        assertEquals(6, lots.get(0).get("quantity").asInt());
+        assertEquals(10, lots.get(1).get("quantity").asInt());
+        assertEquals(readModel.getAllBeverages().get(0).getQuantity(), lots.get(0).get("quantity").asInt());
+    }
+
+    @Test
+    @DisplayName("跨日後計算欄位依新的日期編碼")
+    void testDayBoundary() throws Exception {
+        LocalDate farFuture = TODAY.plusYears(50);
+        LotSnapshot lot = new LotSnapshot(999_999L, 1, "跨日測試", "MAIN", null, 5, farFuture.minusDays(30),
+                farFuture.plusDays(7), LocalDateTime.now(), LocalDateTime.now(), BeverageStatus.NORMAL, null, null);
+
+        JsonNode before = objectMapper.readTree(lotJsonCache.encode(lot, farFuture));
+        assertEquals(7, before.get("daysUntilExpiry").asLong());
+        assertTrue(before.get("expiringSoon").asBoolean());
+
+        JsonNode after = objectMapper.readTree(lotJsonCache.encode(lot, farFuture.plusDays(8)));
+        assertEquals(-1, after.get("daysUntilExpiry").asLong());
+        assertTrue(after.get("expired").asBoolean());
+        assertFalse(after.get("expiringSoon").asBoolean());
+
+        // 跨日前開始的回應仍以當時的日期編碼，不覆蓋新日期的快取
+        long hits = lotJsonCache.hitCount();
+        JsonNode stale = objectMapper.readTree(lotJsonCache.encode(lot, farFuture));
+        assertEquals(7, stale.get("daysUntilExpiry").asLong());
+        lotJsonCache.encode(lot, farFuture.plusDays(8));
+        assertEquals(hits + 1, lotJsonCache.hitCount());
+    }
+
+    private void stockIn(String name, int quantity, LocalDate expiryDate) {
+        beverageService.stockIn(new StockInRequestDTO(name, quantity, TODAY.minusDays(1), expiryDate, null, null));
+    }
+}
@@ -0,0 +1,136 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.exception.BusinessRuleViolationException;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.Product;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品主檔測試
+ * 
+ * 測試目標：
+ * 1. 名稱只差在空白或全形字元的批次對應到同一個商品 ID
+ * 2. 出庫以商品 ID 配貨，跨越這些批次
+ * 3. 既有沒有商品 ID 的批次可由遷移補上，遷移後 product_id 為 NOT NULL 且有外鍵
+ * 4. 入庫拒絕無法對應商品的批次，不留給遷移補齊
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCatalogTest {
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private ProductMigration productMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("名稱正規化：全形、前後與重複空白")
+    void testNormalizeName() {
+        assertEquals("礦泉水", Product.normalizeName(" 礦泉水 "));
+        assertEquals("Green Tea", Product.normalizeName("Ｇｒｅｅｎ　 Tea"));
+    }
+
+    @Test
+    @DisplayName("名稱變體對應同一商品，出庫跨越所有批次")
+    void testNameVariantsShareProduct() {
+        LocalDate today = LocalDate.now();
+        BeverageDTO first = beverageService.stockIn(new StockInRequestDTO("氣泡水", 3, today, today.plusDays(5), null, null));
+        BeverageDTO second = beverageService.stockIn(new StockInRequestDTO(" 氣泡水　", 4, today, today.plusDays(9), null, null));
+
+        assertNotNull(first.getProductId());
+        assertEquals(first.getProductId(), second.getProductId());
+        assertEquals("氣泡水", second.getName());
+        assertEquals(first.getProductId(), productCatalog.findId("氣泡水 ").orElseThrow());
+
+        beverageService.stockOut(new StockOutRequestDTO("氣泡水", 5, null));
+
+        assertTrue(beverageRepository.findById(first.getId()).isEmpty());
+        assertEquals(2, beverageRepository.findById(second.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("未知商品出庫視為庫存不足")
+    void testStockOutUnknownProduct() {
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOut(new StockOutRequestDTO("不存在的飲料", 1, null)));
+        assertEquals(0, exception.getAvailable());
+    }
+
+    @Test
+    @DisplayName("遷移：補上商品 ID 並正規化名稱")
+    void testMigrateLegacyRows() {
+        LocalDate today = LocalDate.now();
+        // 模擬新增 product_id 欄位之前建立的資料表：欄位允許 NULL、沒有外鍵
+        jdbcTemplate.execute("ALTER TABLE beverages DROP CONSTRAINT IF EXISTS fk_beverages_product");
+        jdbcTemplate.execute("ALTER TABLE beverages ALTER COLUMN product_id SET NULL");
+        jdbcTemplate.update("INSERT INTO beverages (name, quantity, production_date, expiry_date, warehouse, status, "
+                        + "created_at, updated_at) VALUES (?, ?, ?, ?, 'MAIN', 'NORMAL', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                "  烏龍茶  ", 6, today, today.plusDays(20));
+
+        int migrated = productMigration.migrate();
+
+        assertEquals(1, migrated);
+        List<Beverage> lots = beverageRepository.findAll();
+        assertEquals(1, lots.size());
+        assertEquals("烏龍茶", lots.get(0).getName());
+        assertEquals(productCatalog.findId("烏龍茶").orElseThrow(), lots.get(0).getProductId());
+        assertEquals(4, beverageService.stockOut(new StockOutRequestDTO("烏龍茶", 2, null)).getQuantity());
+        assertEquals(0, productMigration.migrate());
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'BEVERAGES' AND COLUMN_NAME = 'PRODUCT_ID'", String.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO beverages (name, product_id, quantity, production_date, expiry_date, warehouse, status, "
+                        + "created_at, updated_at) VALUES ('烏龍茶', -1, 1, ?, ?, 'MAIN', 'NORMAL', "
+                        + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", today, today.plusDays(20)));
+    }
+
+    @Test
+    @DisplayName("入庫：名稱正規化後為空白時拒絕，不建立批次與商品")
+    void testStockInWithoutProductRejected() {
+        LocalDate today = LocalDate.now();
+        long products = productCountOf("");
+
+        BusinessRuleViolationException exception = assertThrows(BusinessRuleViolationException.class,
+                () -> beverageService.stockIn(new StockInRequestDTO("\u3000", 5, today, today.plusDays(30), null, null)));
+
+        assertEquals("PRODUCT_REQUIRED", exception.getRule());
+        assertEquals(0, beverageRepository.count());
+        assertEquals(products, productCountOf(""));
+    }
+
+    private long productCountOf(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE name = ?", Long.class, name);
+    }
+}
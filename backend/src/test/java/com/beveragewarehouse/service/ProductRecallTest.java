@@ -0,0 +1,133 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.RecallRequestDTO;
+import com.beveragewarehouse.dto.RecallResultDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.ProductRecall;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品召回測試
+ * 
+ * 測試目標：
+ * 1. 生產日期區間內的批次不論有效期限一律隔離，區間外與其他商品不受影響
+ * 2. 召回受理後範圍內的批次不會被配貨，之後入庫的同區間批次直接隔離
+ * 3. 受理的交易回滾時撤銷召回
+ * 
+ * 注意：此測試不使用 @Transactional，召回與出庫各自提交
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductRecallTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private RecallRegistry recallRegistry;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("隔離生產日期區間內的批次，產生受影響批次報告")
+    void testRecallQuarantinesProductionWindow() {
+        Long inWindow = stockIn("召回綠茶", 5, TODAY.minusDays(10), TODAY.plusDays(300));
+        Long boundary = stockIn("召回綠茶", 6, TODAY.minusDays(5), TODAY.plusDays(200));
+        Long outside = stockIn("召回綠茶", 7, TODAY.minusDays(4), TODAY.plusDays(100));
+        Long otherProduct = stockIn("召回紅茶", 8, TODAY.minusDays(10), TODAY.plusDays(300));
+        Long alreadyQuarantined = stockIn("召回綠茶", 9, TODAY.minusDays(8), TODAY.plusDays(1));
+        beverageService.quarantineLots(List.of(alreadyQuarantined), TODAY.plusDays(2));
+
+        RecallResultDTO result = beverageService.recallLots(
+                new RecallRequestDTO("召回綠茶", TODAY.minusDays(10), TODAY.minusDays(5), "供應商召回"));
+
+        assertNotNull(result.getRecallId());
+        assertEquals(3, result.getAffected());
+        assertEquals(2, result.getQuarantined());
+        assertEquals(List.of(inWindow, boundary, alreadyQuarantined),
+                result.getLots().stream().map(BeverageDTO::getId).toList());
+        assertTrue(result.getLots().stream().allMatch(lot -> lot.getStatus() == BeverageStatus.QUARANTINED));
+        assertEquals(BeverageStatus.NORMAL, beverageRepository.findById(outside).orElseThrow().getStatus());
+        assertEquals(BeverageStatus.NORMAL, beverageRepository.findById(otherProduct).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("召回後出庫只配貨範圍外的批次，新入庫的範圍內批次直接隔離")
+    void testRecalledLotsBlockedFromAllocation() {
+        stockIn("召回烏龍茶", 10, TODAY.minusDays(30), TODAY.plusDays(10));
+        Long safe = stockIn("召回烏龍茶", 4, TODAY.minusDays(1), TODAY.plusDays(90));
+        beverageService.recallLots(new RecallRequestDTO("召回烏龍茶", TODAY.minusDays(60), TODAY.minusDays(20), null));
+
+        assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOut(new StockOutRequestDTO("召回烏龍茶", 5, null)));
+        beverageService.stockOut(new StockOutRequestDTO("召回烏龍茶", 3, null));
+        assertEquals(1, beverageRepository.findById(safe).orElseThrow().getQuantity());
+
+        Long late = stockIn("召回烏龍茶", 10, TODAY.minusDays(40), TODAY.plusDays(30));
+        assertEquals(BeverageStatus.QUARANTINED, beverageRepository.findById(late).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("召回登記後，批次狀態尚未變更也不會被配貨")
+    void testRegistryBlocksBeforeStatusUpdate() {
+        Long lot = stockIn("召回麥茶", 10, TODAY.minusDays(3), TODAY.plusDays(30));
+        int productId = productCatalog.findId("召回麥茶").orElseThrow();
+
+        recallRegistry.register(new ProductRecall(productId, TODAY.minusDays(3), TODAY.minusDays(3), null));
+
+        assertEquals(BeverageStatus.NORMAL, beverageRepository.findById(lot).orElseThrow().getStatus());
+        assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOut(new StockOutRequestDTO("召回麥茶", 1, null)));
+    }
+
+    @Test
+    @DisplayName("受理的交易回滾時撤銷召回")
+    void testRollbackUnregistersRecall() {
+        stockIn("召回豆漿", 10, TODAY.minusDays(3), TODAY.plusDays(30));
+        int productId = productCatalog.findId("召回豆漿").orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            recallRegistry.register(new ProductRecall(productId, TODAY.minusDays(5), TODAY, null));
+            assertTrue(recallRegistry.isRecalled(productId, TODAY.minusDays(3)));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(recallRegistry.isRecalled(productId, TODAY.minusDays(3)));
+        beverageService.stockOut(new StockOutRequestDTO("召回豆漿", 1, null));
+    }
+
+    private Long stockIn(String name, int quantity, LocalDate productionDate, LocalDate expiryDate) {
+        return beverageService.stockIn(
+                new StockInRequestDTO(name, quantity, productionDate, expiryDate, null, null)).getId();
+    }
+}
@@ -0,0 +1,124 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.ProductSearchResultDTO;
+import com.beveragewarehouse.dto.ProductSearchResultDTO.MatchType;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品名稱搜尋測試
+ * 
+ * 測試目標：
+ * 1. 前綴比對優先，其次子字串、模糊比對
+ * 2. 大小寫與全形字元不影響比對
+ * 3. 入庫的新商品立即可以搜尋，結果包含可出庫數量
+ * 4. 單一字元的查詢可以找到名稱中間含有該字元的商品
+ * 
+ * 注意：此測試不使用 @Transactional，索引只接收已提交的異動
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("前綴比對優先，其次子字串比對")
+    void testPrefixBeforeSubstring() {
+        stockIn("搜尋綠茶", 5, "MAIN");
+        stockIn("搜尋綠茶拿鐵", 3, "MAIN");
+        stockIn("特級搜尋綠茶", 2, "MAIN");
+
+        List<ProductSearchResultDTO> results = productSearchIndex.search("搜尋綠", null, 10);
+
+        assertEquals(List.of("搜尋綠茶", "搜尋綠茶拿鐵", "特級搜尋綠茶"),
+                results.stream().map(ProductSearchResultDTO::getName).toList());
+        assertEquals(List.of(MatchType.PREFIX, MatchType.PREFIX, MatchType.SUBSTRING),
+                results.stream().map(ProductSearchResultDTO::getMatch).toList());
+        assertEquals(5, results.get(0).getAvailable());
+    }
+
+    @Test
+    @DisplayName("大小寫與全形字元不影響比對")
+    void testCaseInsensitive() {
+        stockIn("Search Oolong Tea", 4, "MAIN");
+
+        List<ProductSearchResultDTO> results = productSearchIndex.search("ＳＥＡＲＣＨ oo", null, 10);
+
+        assertEquals(1, results.size());
+        assertEquals("Search Oolong Tea", results.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("單一字元查詢：名稱中間的字元也是子字串比對")
+    void testSingleCharacterInsideName() {
+        stockIn("搜尋凍頂烏龍茶", 2, "MAIN");
+
+        List<ProductSearchResultDTO> results = productSearchIndex.search("龍", null, 50);
+
+        ProductSearchResultDTO match = results.stream()
+                .filter(result -> result.getName().equals("搜尋凍頂烏龍茶"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("應找到名稱中間含有「龍」的商品，實際: " + results));
+        assertEquals(MatchType.SUBSTRING, match.getMatch());
+        assertEquals(2, match.getAvailable());
+    }
+
+    @Test
+    @DisplayName("模糊比對：缺字仍可找到")
+    void testFuzzyMatch() {
+        stockIn("搜尋黑糖珍珠奶茶", 1, "MAIN");
+
+        List<ProductSearchResultDTO> results = productSearchIndex.search("黑糖珍奶茶", null, 10);
+
+        assertEquals(1, results.size());
+        assertEquals(MatchType.FUZZY, results.get(0).getMatch());
+    }
+
+    @Test
+    @DisplayName("可出庫數量：全部倉庫合計或指定倉庫")
+    void testAvailableByWarehouse() {
+        stockIn("搜尋蘋果汁", 6, "MAIN");
+        stockIn("搜尋蘋果汁", 4, "EAST");
+
+        assertEquals(10, productSearchIndex.search("搜尋蘋果", null, 10).get(0).getAvailable());
+        assertEquals(4, productSearchIndex.search("搜尋蘋果", "EAST", 10).get(0).getAvailable());
+    }
+
+    @Test
+    @DisplayName("空白查詢與不相關的查詢沒有結果")
+    void testNoMatch() {
+        stockIn("搜尋椰子水", 1, "MAIN");
+
+        assertTrue(productSearchIndex.search("  ", null, 10).isEmpty());
+        assertTrue(productSearchIndex.search("完全無關的字", null, 10).isEmpty());
+    }
+
+    private void stockIn(String name, int quantity, String warehouse) {
+        LocalDate today = LocalDate.now();
+        beverageService.stockIn(new StockInRequestDTO(name, quantity, today, today.plusDays(30), warehouse, null));
+    }
+}
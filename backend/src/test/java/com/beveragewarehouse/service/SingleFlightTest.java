@@ -0,0 +1,90 @@
+package com.beveragewarehouse.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 單飛請求合併測試
+ * 
+ * 測試目標：
+ * 1. 同時到達的 200 個相同請求只執行一次計算，全部取得相同結果
+ * 2. 計算失敗時，所有等待者都收到相同的例外
+ * 3. micro-TTL 期間重用結果，過期後重新計算
+ */
+class SingleFlightTest {
+
+    private static final int THREAD_COUNT = 200;
+
+    @Test
+    @DisplayName("同時到達的相同請求只執行一次計算")
+    void testConcurrentIdenticalCalls_ShareOneExecution() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            results.add(executor.submit(() -> {
+                startLatch.await();
+                return singleFlight.execute("statistics", () -> {
+                    executions.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                });
+            }));
+        }
+        startLatch.countDown();
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, executions.get(), "同一波請求只應執行一次查詢");
+        assertEquals(THREAD_COUNT - 1, singleFlight.getShared());
+    }
+
+    @Test
+    @DisplayName("計算失敗時，例外傳給呼叫端且下一次會重新計算")
+    void testFailure_PropagatesAndDoesNotStick() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0);
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("k", () -> {
+            throw new IllegalStateException("查詢失敗");
+        }));
+        assertEquals(7, singleFlight.execute("k", () -> 7));
+    }
+
+    @Test
+    @DisplayName("micro-TTL 期間重用結果，過期後重新計算")
+    void testMicroTtl_ReusesRecentResult() throws InterruptedException {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(100);
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("k", executions::incrementAndGet);
+        singleFlight.execute("k", executions::incrementAndGet);
+        assertEquals(1, executions.get());
+
+        Thread.sleep(150);
+        singleFlight.execute("k", executions::incrementAndGet);
+        assertEquals(2, executions.get());
+    }
+}
@@ -0,0 +1,47 @@
+package com.beveragewarehouse.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * SQL 陳述式計數器（測試用）
+ * 
+ * 以 Hibernate Statistics 計算送往資料庫的 JDBC 陳述式數量，
+ * 需在測試設定中啟用 hibernate.generate_statistics
+ */
+final class SqlStatementCounter {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    SqlStatementCounter(EntityManagerFactory entityManagerFactory, EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * 送出尚未執行的異動、清空持久化內容（避免一級快取隱藏查詢），並將計數歸零
+     */
+    void reset() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    /**
+     * 自上次 reset 以來的陳述式數量（先 flush，讓延遲的 UPDATE 也被計入）
+     */
+    long statements() {
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * 自上次 reset 以來載入的實體數量
+     */
+    long entityLoads() {
+        return statistics.getEntityLoadCount();
+    }
+}
@@ -0,0 +1,103 @@
+package com.beveragewarehouse.service;
+
+import com.beveragewarehouse.dto.AvailabilityDTO;
+import com.beveragewarehouse.dto.AvailabilityRequestDTO;
+import com.beveragewarehouse.dto.OrderStockOutRequestDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.dto.StockOutRequestDTO;
+import com.beveragewarehouse.exception.InsufficientStockException;
+import com.beveragewarehouse.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 最少剩餘天數出庫測試
+ * 
+ * 測試目標：
+ * 1. 只配貨有效期限不早於「今天 + N 天」的批次（邊界當天可配貨），其餘仍依 FEFO
+ * 2. 符合條件的庫存不足時拒絕，短效批次不受影響
+ * 3. 可承諾量查詢與訂單出庫同樣套用限制
+ * 
+ * 注意：此測試不使用 @Transactional，可承諾量計數器只接收已提交的異動
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockOutShelfLifeTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("跳過剩餘天數不足的批次，邊界當天的批次可配貨")
+    void testSkipsShortDatedLots() {
+        Long shortDated = stockIn("效期果汁", 10, TODAY.plusDays(5));
+        Long boundary = stockIn("效期果汁", 10, TODAY.plusDays(30));
+        Long longDated = stockIn("效期果汁", 10, TODAY.plusDays(60));
+
+        beverageService.stockOut(new StockOutRequestDTO("效期果汁", 15, null, 30));
+
+        assertEquals(10, quantity(shortDated));
+        assertFalse(beverageRepository.existsById(boundary));
+        assertEquals(5, quantity(longDated));
+    }
+
+    @Test
+    @DisplayName("符合條件的庫存不足時拒絕")
+    void testInsufficientLongDatedStock() {
+        Long shortDated = stockIn("效期汽水", 50, TODAY.plusDays(5));
+        stockIn("效期汽水", 5, TODAY.plusDays(60));
+
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class,
+                () -> beverageService.stockOut(new StockOutRequestDTO("效期汽水", 10, null, 30)));
+
+        assertEquals(5, exception.getAvailable());
+        assertEquals(50, quantity(shortDated));
+    }
+
+    @Test
+    @DisplayName("可承諾量查詢與訂單出庫套用最少剩餘天數")
+    void testAvailabilityAndOrder() {
+        Long shortDated = stockIn("效期奶茶", 10, TODAY.plusDays(5));
+        Long longDated = stockIn("效期奶茶", 10, TODAY.plusDays(60));
+
+        List<AvailabilityDTO> availability = beverageService.checkAvailability(new AvailabilityRequestDTO(null,
+                List.of(new StockOutRequestDTO("效期奶茶", 5, null, 30))));
+        assertEquals(10, availability.get(0).getAvailable());
+
+        // 嚴格的明細先配貨：長效批次扣 8，其餘 4 由短效批次扣
+        beverageService.stockOutOrder(new OrderStockOutRequestDTO("ORDER-1", null, List.of(
+                new StockOutRequestDTO("效期奶茶", 4, null),
+                new StockOutRequestDTO("效期奶茶", 8, null, 30))));
+
+        assertEquals(6, quantity(shortDated));
+        assertEquals(2, quantity(longDated));
+    }
+
+    private int quantity(Long id) {
+        return beverageRepository.findById(id).orElseThrow().getQuantity();
+    }
+
+    private Long stockIn(String name, int quantity, LocalDate expiryDate) {
+        return beverageService.stockIn(
+                new StockInRequestDTO(name, quantity, TODAY.minusDays(1), expiryDate, null, null)).getId();
+    }
+}
@@ -0,0 +1,201 @@
+package com.beveragewarehouse.snapshot;
+
+import com.beveragewarehouse.dto.BeverageDTO;
+import com.beveragewarehouse.dto.RecallRequestDTO;
+import com.beveragewarehouse.dto.StockInRequestDTO;
+import com.beveragewarehouse.event.InventoryChangePublisher;
+import com.beveragewarehouse.model.Beverage;
+import com.beveragewarehouse.model.BeverageStatus;
+import com.beveragewarehouse.model.LotSnapshot;
+import com.beveragewarehouse.repository.BeverageRepository;
+import com.beveragewarehouse.repository.ProductRecallRepository;
+import com.beveragewarehouse.repository.ProductRepository;
+import com.beveragewarehouse.service.BeverageService;
+import com.beveragewarehouse.service.InventoryReadModel;
+import com.beveragewarehouse.service.ProductCatalog;
+import com.beveragewarehouse.service.RecallRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 庫存快照與還原測試
+ * 
+ * 測試目標：
+ * 1. 快照載入後批次、商品與召回的內容與 ID 完全相同，identity 接續、召回與讀取模型重新載入
+ * 2. 資料庫已有資料時不載入快照
+ * 3. 寫到一半的暫存檔在啟動時刪除，只保留最新 retain 個快照
+ * 4. 最新的快照損毀時清空已載入的列，改用前一個快照
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InventorySnapshotterTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private InventoryChangePublisher changePublisher;
+
+    @Autowired
+    private RecallRegistry recallRegistry;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private InventoryReadModel readModel;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductRecallRepository productRecallRepository;
+
+    private InventorySnapshotter snapshotter;
+
+    @BeforeEach
+    void setUp() {
+        beverageRepository.deleteAll();
+        snapshotter = new InventorySnapshotter(dataSource, changePublisher, recallRegistry, productCatalog,
+                true, directory.toString(), 2, false);
+    }
+
+    @Test
+    @DisplayName("快照載入後內容與 ID 相同，identity 接續並重新載入召回與讀取模型")
+    void testRoundTrip() {
+        stockIn("快照礦泉水", 10, TODAY.minusDays(10), "A-01");
+        stockIn("快照綠茶", 20, TODAY.minusDays(3), null);
+        Long disposed = stockIn("快照綠茶", 5, TODAY.minusDays(2), null);
+        beverageService.recallLots(new RecallRequestDTO("快照綠茶", TODAY.minusDays(3), TODAY.minusDays(2), "污染"));
+        beverageService.disposeBeverage(disposed, "包裝破損");
+        List<LotSnapshot> before = lots();
+        Integer productId = productCatalog.findId("快照綠茶").orElseThrow();
+
+        snapshotter.snapshot();
+        beverageRepository.deleteAll();
+        productRecallRepository.deleteAll();
+        productRepository.deleteAll();
+        Optional<InventorySnapshotter.RestoreResult> result = snapshotter.restoreLatest();
+
+        assertTrue(result.isPresent());
+        assertEquals(3L, result.get().rows().get("beverages"));
+        assertEquals(1L, result.get().rows().get("product_recalls"));
+        assertEquals(before, lots());
+        assertEquals(BeverageStatus.QUARANTINED, before.get(1).status());
+        assertEquals("包裝破損", before.get(2).disposalReason());
+        assertEquals(productId, productCatalog.findId("快照綠茶").orElseThrow());
+        assertTrue(recallRegistry.isRecalled(productId, TODAY.minusDays(3)));
+        assertEquals(3, readModel.getAllBeverages().size());
+
+        BeverageDTO created = beverageService.stockIn(
+                new StockInRequestDTO("快照綠茶", 1, TODAY.minusDays(1), TODAY.plusDays(30), null, null));
+        assertTrue(created.getId() > before.get(2).id());
+        assertEquals(productId, created.getProductId());
+    }
+
+    @Test
+    @DisplayName("資料庫已有資料時不載入快照")
+    void testSkipsWhenDatabaseNotEmpty() {
+        stockIn("快照果汁", 10, TODAY.minusDays(1), null);
+        snapshotter.snapshot();
+        stockIn("快照果汁", 5, TODAY.minusDays(1), null);
+
+        assertTrue(snapshotter.restoreLatest().isEmpty());
+        assertEquals(2, beverageRepository.count());
+    }
+
+    @Test
+    @DisplayName("刪除寫到一半的暫存檔，只保留最新的快照")
+    void testIncompleteAndRetention() throws Exception {
+        stockIn("快照汽水", 10, TODAY.minusDays(1), null);
+        Path incomplete = directory.resolve(SnapshotFile.PREFIX + "9999999999999999" + SnapshotFile.TEMP_SUFFIX);
+        Files.write(incomplete, new byte[]{1, 2, 3});
+
+        Path first = snapshotter.snapshot();
+        Thread.sleep(2);
+        Path second = snapshotter.snapshot();
+        Thread.sleep(2);
+        Path third = snapshotter.snapshot();
+
+        assertEquals(List.of(second, third), snapshotter.snapshotFiles());
+        assertFalse(Files.exists(first));
+
+        snapshotter.restoreLatest();
+        assertFalse(Files.exists(incomplete));
+    }
+
+    @Test
+    @DisplayName("最新的快照損毀時清空已載入的列並改用前一個快照")
+    void testFallbackToPreviousSnapshot() throws Exception {
+        stockIn("快照紅茶", 10, TODAY.minusDays(5), null);
+        Path previous = snapshotter.snapshot();
+        List<LotSnapshot> expected = lots();
+        stockIn("快照奶茶", 20, TODAY.minusDays(1), null);
+        Thread.sleep(2);
+        Path latest = snapshotter.snapshot();
+        // 截斷內容：商品表已載入、批次表讀到一半時遇到檔案結尾
+        byte[] content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(latest))) {
+            content = in.readAllBytes();
+        }
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(latest))) {
+            out.write(Arrays.copyOf(content, content.length - 16));
+        }
+
+        beverageRepository.deleteAll();
+        productRecallRepository.deleteAll();
+        productRepository.deleteAll();
+        Optional<InventorySnapshotter.RestoreResult> result = snapshotter.restoreLatest();
+
+        assertTrue(result.isPresent());
+        assertEquals(previous, result.get().file());
+        assertEquals(expected, lots());
+        assertTrue(productCatalog.findId("快照奶茶").isEmpty());
+        assertEquals(1, readModel.getAllBeverages().size());
+    }
+
+    private List<LotSnapshot> lots() {
+        return beverageRepository.findAll().stream()
+                .sorted(Comparator.comparing(Beverage::getId))
+                .map(LotSnapshot::of)
+                .toList();
+    }
+
+    private Long stockIn(String name, int quantity, LocalDate productionDate, String bin) {
+        StockInRequestDTO request = new StockInRequestDTO(name, quantity, productionDate,
+                TODAY.plusDays(30), null, bin);
+        return beverageService.stockIn(request).getId();
+    }
+}
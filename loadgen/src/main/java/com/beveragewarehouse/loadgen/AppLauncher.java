@@ -0,0 +1,70 @@
+package com.beveragewarehouse.loadgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以子行程啟動後端 JAR（java -jar），使用隨機可用埠
+ */
+final class AppLauncher implements AutoCloseable {
+    
+    private final Process process;
+    private final int port;
+    private final Path logFile;
+    
+    private AppLauncher(Process process, int port, Path logFile) {
+        this.process = process;
+        this.port = port;
+        this.logFile = logFile;
+    }
+    
+    static AppLauncher start(String jar, List<String> appArgs) throws IOException {
+        if (!new File(jar).isFile()) {
+            throw new IllegalArgumentException("找不到後端 JAR: " + jar + "（請先在 backend 目錄執行 mvn package）");
+        }
+        int port = freePort();
+        Path logFile = Files.createTempFile("smart-warehouse-loadgen-app", ".log");
+        
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        // 管理端點改用隨機埠，避免與本機已在執行的服務衝突
+        command.add("--management.server.port=0");
+        command.addAll(appArgs);
+        
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new AppLauncher(process, port, logFile);
+    }
+    
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+    
+    Path logFile() {
+        return logFile;
+    }
+    
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(15, java.util.concurrent.TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.beveragewarehouse.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 預期庫存帳本
+ * 
+ * 記錄每個 SKU 的預期數量：預先入庫 + 成功入庫 − 成功出庫，
+ * 測試結束後與服務回報的實際庫存比對（庫存不變量）
+ */
+final class InventoryLedger {
+    
+    private final LoadGeneratorConfig config;
+    private final AtomicLongArray expected;
+    
+    InventoryLedger(LoadGeneratorConfig config) {
+        this.config = config;
+        this.expected = new AtomicLongArray(config.skus);
+    }
+    
+    void stockedIn(int sku, int quantity) {
+        expected.addAndGet(sku, quantity);
+    }
+    
+    void stockedOut(int sku, int quantity) {
+        expected.addAndGet(sku, -quantity);
+    }
+    
+    /**
+     * 比對實際庫存，回傳違反不變量的描述（空清單表示全部通過）
+     */
+    List<String> verify(JsonNode lots) {
+        long[] actual = new long[config.skus];
+        List<String> violations = new ArrayList<>();
+        for (JsonNode lot : lots) {
+            String name = lot.path("name").asText();
+            if (!name.startsWith(config.skuPrefix)) {
+                continue;
+            }
+            int quantity = lot.path("quantity").asInt();
+            if (quantity < 0) {
+                violations.add("批次 " + lot.path("id").asText() + " 出現負庫存: " + quantity);
+            }
+            int sku = Integer.parseInt(name.substring(config.skuPrefix.length()));
+            if (sku >= 0 && sku < config.skus) {
+                actual[sku] += quantity;
+            }
+        }
+        for (int sku = 0; sku < config.skus; sku++) {
+            if (actual[sku] != expected.get(sku)) {
+                violations.add(config.skuName(sku) + " 預期庫存 " + expected.get(sku) + "，實際 " + actual[sku]);
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,143 @@
+package com.beveragewarehouse.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SmartWarehouse 負載產生器
+ * 
+ * 流程：
+ * 1. 啟動後端（--boot-jar）或連線到既有服務（--target）
+ * 2. 為每個 SKU 預先入庫
+ * 3. 以開放模型執行混合負載（入庫、出庫、查詢；熱門或均勻 SKU 分佈）
+ * 4. 輸出吞吐量與 p50/p99/p99.9 延遲
+ * 5. 驗證庫存不變量（預期數量 = 實際數量，沒有負庫存）
+ * 
+ * 範例：
+ *   java -jar target/smart-warehouse-loadgen-1.0.0.jar \
+ *     --boot-jar=../backend/target/smart-warehouse-1.0.0.jar \
+ *     --rate=500 --duration=60 --distribution=hot --hot-fraction=0.9
+ */
+public final class LoadGenerator {
+    
+    private static final Duration READY_TIMEOUT = Duration.ofSeconds(120);
+    private static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(10);
+    
+    private LoadGenerator() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorConfig config = LoadGeneratorConfig.parse(args);
+        AppLauncher app = null;
+        int exitCode;
+        try {
+            if (config.bootJar != null) {
+                app = AppLauncher.start(config.bootJar, config.appArgs);
+                config.target = app.baseUrl();
+                System.out.println("已啟動後端: " + config.target + "（日誌: " + app.logFile() + "）");
+            }
+            exitCode = run(config);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+        // 先關閉後端再結束（System.exit 不會執行 finally，後端程序會被遺留）
+        System.exit(exitCode);
+    }
+    
+    static int run(LoadGeneratorConfig config) throws Exception {
+        WarehouseClient client = new WarehouseClient(config.target);
+        client.awaitReady(READY_TIMEOUT);
+        System.out.println("設定: " + config);
+        
+        InventoryLedger ledger = new InventoryLedger(config);
+        seed(config, client, ledger);
+        
+        OpenModelRunner runner = new OpenModelRunner(config, client, ledger);
+        double seconds = runner.run();
+        report(config, runner.stats(), seconds);
+        
+        List<String> violations = verify(config, client, ledger);
+        if (violations.isEmpty()) {
+            System.out.println("庫存不變量驗證通過");
+            return 0;
+        }
+        System.out.println("庫存不變量驗證失敗：");
+        violations.forEach(violation -> System.out.println("  - " + violation));
+        return 2;
+    }
+    
+    private static void seed(LoadGeneratorConfig config, WarehouseClient client, InventoryLedger ledger) throws Exception {
+        for (int sku = 0; sku < config.skus; sku++) {
+            for (int lot = 0; lot < config.seedLots; lot++) {
+                int status = client.stockIn(config.skuName(sku), 100, config.warehouse);
+                if (status != 201 && status != 200) {
+                    throw new IllegalStateException("預先入庫失敗，HTTP " + status);
+                }
+                ledger.stockedIn(sku, 100);
+            }
+        }
+        System.out.printf("已預先入庫 %d 個 SKU，每個 %d 批（每批 100 瓶）%n", config.skus, config.seedLots);
+    }
+    
+    private static void report(LoadGeneratorConfig config, Map<OperationType, OperationStats> stats, double seconds) {
+        System.out.println();
+        System.out.printf("%-10s %9s %9s %9s %8s %10s %10s %10s %10s%n",
+                "operation", "count", "ok", "rejected", "errors", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        Histogram total = new Histogram(3);
+        long totalCount = 0;
+        for (Map.Entry<OperationType, OperationStats> entry : stats.entrySet()) {
+            OperationStats op = entry.getValue();
+            if (op.count() == 0) {
+                continue;
+            }
+            printRow(entry.getKey().key(), op.count(), op.succeeded(), op.rejected(), op.failed(), op.latency());
+            total.add(op.latency());
+            totalCount += op.count();
+        }
+        if (totalCount > 0) {
+            printRow("total", totalCount,
+                    stats.values().stream().mapToLong(OperationStats::succeeded).sum(),
+                    stats.values().stream().mapToLong(OperationStats::rejected).sum(),
+                    stats.values().stream().mapToLong(OperationStats::failed).sum(),
+                    total);
+        }
+        System.out.println();
+        System.out.printf("目標到達率: %.1f ops/s，實際完成: %.1f ops/s（測量 %.0f 秒）%n",
+                config.rate, totalCount / seconds, seconds);
+        stats.forEach((type, op) -> {
+            if (op.count() > 0) {
+                System.out.println("  " + type.key() + " HTTP 狀態分佈: " + op.statusCodes());
+            }
+        });
+    }
+    
+    private static void printRow(String name, long count, long ok, long rejected, long errors, Histogram latency) {
+        System.out.printf("%-10s %9d %9d %9d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                name, count, ok, rejected, errors,
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+    }
+    
+    /**
+     * 驗證庫存不變量；查詢由讀取模型提供，允許在過時上限內重試
+     */
+    private static List<String> verify(LoadGeneratorConfig config, WarehouseClient client, InventoryLedger ledger) throws Exception {
+        long deadline = System.nanoTime() + SETTLE_TIMEOUT.toNanos();
+        List<String> violations;
+        do {
+            violations = ledger.verify(client.listLots(config.warehouse));
+            if (violations.isEmpty()) {
+                return violations;
+            }
+            Thread.sleep(250);
+        } while (System.nanoTime() < deadline);
+        return violations;
+    }
+}
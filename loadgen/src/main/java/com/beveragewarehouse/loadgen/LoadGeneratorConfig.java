@@ -0,0 +1,131 @@
+package com.beveragewarehouse.loadgen;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 負載產生器設定（由命令列參數 --key=value 解析）
+ */
+public final class LoadGeneratorConfig {
+    
+    /** 目標服務 URL（未指定 bootJar 時使用） */
+    String target = "http://localhost:8080";
+    /** 要啟動的後端 JAR（可選，指定時自動啟動並在結束時關閉） */
+    String bootJar;
+    /** 啟動後端時額外傳入的參數（以空白分隔） */
+    List<String> appArgs = new ArrayList<>();
+    /** 開放模型的到達率（每秒操作數），與回應時間無關 */
+    double rate = 200;
+    /** 測量時間（秒） */
+    int durationSeconds = 30;
+    /** 暖機時間（秒），期間的延遲不列入統計 */
+    int warmupSeconds = 5;
+    /** 同時執行中的請求上限（工作執行緒數） */
+    int concurrency = 256;
+    /** 操作比例，例如 stock-out=50,stock-in=20,read=30 */
+    Map<OperationType, Integer> mix = parseMix("stock-out=50,stock-in=20,read=30");
+    /** 商品（SKU）數量 */
+    int skus = 20;
+    /** SKU 分佈：uniform 或 hot */
+    String distribution = "uniform";
+    /** hot 分佈下的熱門 SKU 數量 */
+    int hotSkus = 1;
+    /** hot 分佈下落在熱門 SKU 的請求比例 */
+    double hotFraction = 0.8;
+    /** 每個 SKU 預先入庫的批次數（每批 100 瓶） */
+    int seedLots = 10;
+    /** 每次入庫數量（上限 100） */
+    int stockInQuantity = 20;
+    /** 每次出庫數量 */
+    int stockOutQuantity = 5;
+    /** 倉庫代碼（可選） */
+    String warehouse;
+    /** 讀取操作輪流呼叫的路徑（相對於 /api/beverages） */
+    List<String> readPaths = List.of("/statistics", "/expiring-soon");
+    /** SKU 名稱前綴（預設每次執行唯一，避免與既有資料混在一起） */
+    String skuPrefix = "loadgen-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    /** 亂數種子 */
+    long seed = 42;
+    
+    static LoadGeneratorConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("參數格式應為 --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        
+        LoadGeneratorConfig config = new LoadGeneratorConfig();
+        options.forEach((key, value) -> {
+            switch (key) {
+                case "target" -> config.target = value.replaceAll("/+$", "");
+                case "boot-jar" -> config.bootJar = value;
+                case "app-args" -> config.appArgs = List.of(value.trim().split("\\s+"));
+                case "rate" -> config.rate = Double.parseDouble(value);
+                case "duration" -> config.durationSeconds = Integer.parseInt(value);
+                case "warmup" -> config.warmupSeconds = Integer.parseInt(value);
+                case "concurrency" -> config.concurrency = Integer.parseInt(value);
+                case "mix" -> config.mix = parseMix(value);
+                case "skus" -> config.skus = Integer.parseInt(value);
+                case "distribution" -> config.distribution = value;
+                case "hot-skus" -> config.hotSkus = Integer.parseInt(value);
+                case "hot-fraction" -> config.hotFraction = Double.parseDouble(value);
+                case "seed-lots" -> config.seedLots = Integer.parseInt(value);
+                case "stock-in-qty" -> config.stockInQuantity = Integer.parseInt(value);
+                case "stock-out-qty" -> config.stockOutQuantity = Integer.parseInt(value);
+                case "warehouse" -> config.warehouse = value;
+                case "read-paths" -> config.readPaths = List.of(value.split(","));
+                case "sku-prefix" -> config.skuPrefix = value;
+                case "seed" -> config.seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("未知的參數: --" + key);
+            }
+        });
+        config.validate();
+        return config;
+    }
+    
+    private static Map<OperationType, Integer> parseMix(String value) {
+        Map<OperationType, Integer> mix = new EnumMap<>(OperationType.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("操作比例格式錯誤: " + part);
+            }
+            mix.put(OperationType.fromKey(kv[0]), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+    
+    private void validate() {
+        if (rate <= 0 || durationSeconds <= 0 || concurrency <= 0 || skus <= 0) {
+            throw new IllegalArgumentException("rate、duration、concurrency、skus 必須大於 0");
+        }
+        if (stockInQuantity < 1 || stockInQuantity > 100) {
+            throw new IllegalArgumentException("stock-in-qty 必須介於 1 到 100（入庫業務規則）");
+        }
+        if (!distribution.equals("uniform") && !distribution.equals("hot")) {
+            throw new IllegalArgumentException("distribution 只支援 uniform 或 hot");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("操作比例總和必須大於 0");
+        }
+    }
+    
+    String skuName(int index) {
+        return skuPrefix + String.format("%03d", index);
+    }
+    
+    @Override
+    public String toString() {
+        return "target=" + target + ", rate=" + rate + "/s, duration=" + durationSeconds + "s, warmup="
+                + warmupSeconds + "s, concurrency=" + concurrency + ", mix=" + mix + ", skus=" + skus
+                + ", distribution=" + distribution
+                + (distribution.equals("hot") ? " (hot-skus=" + hotSkus + ", hot-fraction=" + hotFraction + ")" : "")
+                + ", warehouse=" + (warehouse == null ? "(default)" : warehouse);
+    }
+}
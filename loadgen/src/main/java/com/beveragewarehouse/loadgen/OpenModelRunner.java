@@ -0,0 +1,174 @@
+package com.beveragewarehouse.loadgen;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 開放模型（Open Model）執行器
+ * 
+ * 請求依固定到達率排程，不會因為服務變慢而減少送出的請求；
+ * 延遲從預定開始時間起算，排隊等待工作執行緒的時間也計入延遲
+ */
+final class OpenModelRunner {
+    
+    private final LoadGeneratorConfig config;
+    private final WarehouseClient client;
+    private final InventoryLedger ledger;
+    private final SkuSelector skuSelector;
+    private final Map<OperationType, OperationStats> stats = new EnumMap<>(OperationType.class);
+    private final AtomicLong readCounter = new AtomicLong();
+    private final AtomicLong lastCompletion = new AtomicLong(Long.MIN_VALUE);
+    private final OperationType[] weightedOperations;
+    
+    OpenModelRunner(LoadGeneratorConfig config, WarehouseClient client, InventoryLedger ledger) {
+        this.config = config;
+        this.client = client;
+        this.ledger = ledger;
+        this.skuSelector = new SkuSelector(config);
+        for (OperationType type : OperationType.values()) {
+            stats.put(type, new OperationStats());
+        }
+        List<OperationType> weighted = new ArrayList<>();
+        config.mix.forEach((type, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(type);
+            }
+        });
+        this.weightedOperations = weighted.toArray(new OperationType[0]);
+    }
+    
+    /**
+     * 執行暖機與測量，回傳實際測量的秒數（從測量開始到最後一個請求完成）
+     * 
+     * 服務跟不上時排隊中的請求會在排程結束後繼續執行，吞吐量以實際經過的時間計算；
+     * 等待逾時後未執行的請求計為錯誤
+     */
+    double run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(config.seed);
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+        long intervalNanos = (long) (1_000_000_000L / config.rate);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            OperationType type = weightedOperations[random.nextInt(weightedOperations.length)];
+            int sku = skuSelector.next(random);
+            boolean measured = intended >= measureFrom;
+            workers.execute(new Operation(type, sku, intended, measured));
+        }
+        
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.MINUTES)) {
+            for (Runnable dropped : workers.shutdownNow()) {
+                if (dropped instanceof Operation operation) {
+                    completed(operation.type(), operation.intended(), operation.measured(), -1);
+                }
+            }
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        long last = lastCompletion.get();
+        if (last == Long.MIN_VALUE || last - measureFrom <= 0) {
+            return config.durationSeconds;
+        }
+        return (last - measureFrom) / 1_000_000_000.0;
+    }
+    
+    Map<OperationType, OperationStats> stats() {
+        return stats;
+    }
+    
+    private void execute(OperationType type, int sku, long intended, boolean measured) {
+        int status;
+        String name = config.skuName(sku);
+        try {
+            status = switch (type) {
+                case STOCK_IN -> client.stockIn(name, config.stockInQuantity, config.warehouse);
+                case STOCK_OUT -> client.stockOut(name, config.stockOutQuantity, config.warehouse);
+                case READ -> client.get(nextReadPath());
+            };
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            // 等待逾時後被中斷，計為錯誤
+            Thread.currentThread().interrupt();
+            completed(type, intended, measured, -1);
+            return;
+        }
+        
+        // 帳本不分暖機或測量期間，所有成功的異動都要計入
+        if (status >= 200 && status < 300) {
+            if (type == OperationType.STOCK_IN) {
+                ledger.stockedIn(sku, config.stockInQuantity);
+            } else if (type == OperationType.STOCK_OUT) {
+                ledger.stockedOut(sku, config.stockOutQuantity);
+            }
+        }
+        completed(type, intended, measured, status);
+    }
+    
+    private void completed(OperationType type, long intended, boolean measured, int status) {
+        long now = System.nanoTime();
+        if (measured) {
+            stats.get(type).record(now - intended, status);
+            lastCompletion.accumulateAndGet(now, Math::max);
+        }
+    }
+    
+    /**
+     * 已排程的一個操作（等待逾時後由 shutdownNow 取回未執行的操作）
+     */
+    private final class Operation implements Runnable {
+        
+        private final OperationType type;
+        private final int sku;
+        private final long intended;
+        private final boolean measured;
+        
+        Operation(OperationType type, int sku, long intended, boolean measured) {
+            this.type = type;
+            this.sku = sku;
+            this.intended = intended;
+            this.measured = measured;
+        }
+        
+        OperationType type() {
+            return type;
+        }
+        
+        long intended() {
+            return intended;
+        }
+        
+        boolean measured() {
+            return measured;
+        }
+        
+        @Override
+        public void run() {
+            execute(type, sku, intended, measured);
+        }
+    }
+    
+    private String nextReadPath() {
+        List<String> paths = config.readPaths;
+        return paths.get((int) (readCounter.getAndIncrement() % paths.size()));
+    }
+}
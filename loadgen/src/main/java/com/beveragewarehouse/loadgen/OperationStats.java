@@ -0,0 +1,67 @@
+package com.beveragewarehouse.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 單一操作類型的統計（延遲分佈與結果分類）
+ * 
+ * 延遲以「預定開始時間」起算（修正 coordinated omission），單位為微秒
+ */
+final class OperationStats {
+    
+    /** 最大可追蹤延遲：60 秒 */
+    private static final long HIGHEST_TRACKABLE_MICROS = 60_000_000L;
+    
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    
+    /**
+     * 記錄一次完成的請求；status 為 -1 表示連線錯誤或逾時
+     */
+    void record(long latencyNanos, int status) {
+        latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1_000)));
+        statusCodes.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+    
+    Histogram latency() {
+        return latency;
+    }
+    
+    long count() {
+        return latency.getTotalCount();
+    }
+    
+    long succeeded() {
+        return succeeded.sum();
+    }
+    
+    long rejected() {
+        return rejected.sum();
+    }
+    
+    long failed() {
+        return failed.sum();
+    }
+    
+    Map<Integer, Long> statusCodes() {
+        Map<Integer, Long> result = new TreeMap<>();
+        statusCodes.forEach((status, count) -> result.put(status, count.sum()));
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package com.beveragewarehouse.loadgen;
+
+/**
+ * 負載產生器的操作類型
+ */
+public enum OperationType {
+    STOCK_IN("stock-in"),
+    STOCK_OUT("stock-out"),
+    READ("read");
+    
+    private final String key;
+    
+    OperationType(String key) {
+        this.key = key;
+    }
+    
+    public String key() {
+        return key;
+    }
+    
+    public static OperationType fromKey(String key) {
+        for (OperationType type : values()) {
+            if (type.key.equalsIgnoreCase(key.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的操作類型: " + key);
+    }
+}
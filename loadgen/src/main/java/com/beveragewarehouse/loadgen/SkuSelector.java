@@ -0,0 +1,34 @@
+package com.beveragewarehouse.loadgen;
+
+import java.util.SplittableRandom;
+
+/**
+ * SKU 選擇器
+ * 
+ * - uniform：所有 SKU 機率相同
+ * - hot：hotFraction 比例的請求集中在前 hotSkus 個 SKU（模擬熱門商品爭用）
+ */
+final class SkuSelector {
+    
+    private final int skus;
+    private final boolean hot;
+    private final int hotSkus;
+    private final double hotFraction;
+    
+    SkuSelector(LoadGeneratorConfig config) {
+        this.skus = config.skus;
+        this.hot = config.distribution.equals("hot");
+        this.hotSkus = Math.max(1, Math.min(config.hotSkus, config.skus));
+        this.hotFraction = config.hotFraction;
+    }
+    
+    int next(SplittableRandom random) {
+        if (!hot || hotSkus == skus) {
+            return random.nextInt(skus);
+        }
+        if (random.nextDouble() < hotFraction) {
+            return random.nextInt(hotSkus);
+        }
+        return hotSkus + random.nextInt(skus - hotSkus);
+    }
+}
@@ -0,0 +1,116 @@
+package com.beveragewarehouse.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * SmartWarehouse REST API 用戶端（java.net.http，無外部相依）
+ */
+final class WarehouseClient {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    WarehouseClient(String target) {
+        this.baseUrl = target + "/api/beverages";
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+    
+    /**
+     * 入庫，回傳 HTTP 狀態碼
+     */
+    int stockIn(String name, int quantity, String warehouse) throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("name", name);
+        body.put("quantity", quantity);
+        body.put("productionDate", LocalDate.now().toString());
+        body.put("expiryDate", LocalDate.now().plusDays(180).toString());
+        if (warehouse != null) {
+            body.put("warehouse", warehouse);
+        }
+        return post("/stock-in", body).statusCode();
+    }
+    
+    /**
+     * 出庫，回傳 HTTP 狀態碼
+     */
+    int stockOut(String name, int quantity, String warehouse) throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("name", name);
+        body.put("quantity", quantity);
+        if (warehouse != null) {
+            body.put("warehouse", warehouse);
+        }
+        return post("/stock-out", body).statusCode();
+    }
+    
+    /**
+     * GET 查詢，回傳 HTTP 狀態碼（回應內容直接丟棄）
+     */
+    int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    
+    /**
+     * 取得所有批次（JSON 陣列）
+     */
+    JsonNode listLots(String warehouse) throws IOException, InterruptedException {
+        String query = warehouse == null ? "" : "?warehouse=" + warehouse;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + query))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("查詢批次失敗，HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+    
+    /**
+     * 等待服務可以回應查詢
+     */
+    void awaitReady(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (get("/statistics") == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 服務尚未啟動，稍後重試
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("服務在 " + timeout.toSeconds() + " 秒內沒有就緒: " + baseUrl);
+    }
+    
+    private HttpResponse<Void> post(String path, JsonNode body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+}